@@ -0,0 +1,141 @@
+package com.ecom.common.observability;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes {@code kafka.consumer.group.lag{group,topic}}: log-end offset minus committed offset,
+ * summed over the topic's partitions, for every consumer group this service runs. The broker view
+ * covers partitions no local consumer is assigned right now, which the client-side
+ * {@code records-lag} metrics miss, for example during a rebalance or after a crash. Offsets are
+ * polled on one daemon thread; a failed poll keeps the last values.
+ */
+public final class ConsumerLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    private final Supplier<Admin> adminFactory;
+    private final Supplier<Collection<String>> groups;
+    private final MeterRegistry meterRegistry;
+    private final Duration interval;
+    private final Map<String, AtomicLong> lags = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private Admin admin;
+
+    public ConsumerLagMonitor(
+            Supplier<Admin> adminFactory,
+            Supplier<Collection<String>> groups,
+            MeterRegistry meterRegistry,
+            Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Lag poll interval must be positive");
+        }
+        this.adminFactory = adminFactory;
+        this.groups = groups;
+        this.meterRegistry = meterRegistry;
+        this.interval = interval;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("consumer-lag-monitor").factory());
+        scheduler.scheduleWithFixedDelay(this::refresh, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Reads committed and log-end offsets of every group once and updates the gauges. */
+    public void refresh() {
+        for (String group : groups.get()) {
+            try {
+                Admin client = admin();
+                Map<TopicPartition, OffsetAndMetadata> committed = client.listConsumerGroupOffsets(group)
+                        .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (committed.isEmpty()) {
+                    continue;
+                }
+                Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+                committed.keySet().forEach(partition -> latest.put(partition, OffsetSpec.latest()));
+                Map<TopicPartition, Long> endOffsets = new HashMap<>();
+                for (Map.Entry<TopicPartition, ListOffsetsResultInfo> entry
+                        : client.listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS).entrySet()) {
+                    endOffsets.put(entry.getKey(), entry.getValue().offset());
+                }
+                lagByTopic(committed, endOffsets).forEach((topic, lag) -> gauge(group, topic).set(lag));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                log.warn("Could not read offsets of consumer group {}: {}", group, ex.getMessage());
+                resetAdmin();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        resetAdmin();
+    }
+
+    /** Sums end minus committed offset per topic; partitions without a committed offset or end offset are skipped. */
+    static Map<String, Long> lagByTopic(Map<TopicPartition, OffsetAndMetadata> committed, Map<TopicPartition, Long> endOffsets) {
+        Map<String, Long> lag = new HashMap<>();
+        committed.forEach((partition, offset) -> {
+            Long end = endOffsets.get(partition);
+            if (offset != null && end != null) {
+                lag.merge(partition.topic(), Math.max(0, end - offset.offset()), Long::sum);
+            }
+        });
+        return lag;
+    }
+
+    private AtomicLong gauge(String group, String topic) {
+        return lags.computeIfAbsent(group + '\u0000' + topic, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("kafka.consumer.group.lag", value, AtomicLong::get)
+                    .description("Committed offset lag of a consumer group, summed over the topic's partitions")
+                    .tag("group", group)
+                    .tag("topic", topic)
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private synchronized Admin admin() {
+        if (admin == null) {
+            admin = adminFactory.get();
+        }
+        return admin;
+    }
+
+    private synchronized void resetAdmin() {
+        if (admin != null) {
+            admin.close(Duration.ofSeconds(1));
+            admin = null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecom.common.observability;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import com.ecom.common.reliability.RetryableOutboxRecord;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latency histograms for the event pipeline, exported through Micrometer:
+ * {@code events.consume.latency{topic,group}} from an event's {@code occurredAt} to its consumption,
+ * {@code outbox.dwell{outbox,topic}} from an outbox row's {@code createdAt} to the broker ack, and
+ * {@code saga.hop.duration{from,to}} between consecutive saga steps. Timers publish percentile
+ * histograms so dashboards can aggregate quantiles across instances. Differences below zero, from
+ * clock skew between services, are recorded as zero.
+ */
+public final class EventLatencyMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(30);
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    public EventLatencyMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, Clock.systemUTC());
+    }
+
+    EventLatencyMetrics(MeterRegistry meterRegistry, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Wraps a record parser so every event it yields records its produce-to-consume latency under the
+     * record's topic and {@code group}; events without {@code occurredAt} are not recorded.
+     */
+    public <V, E> Function<ConsumerRecord<String, V>, Optional<E>> consumed(
+            String group,
+            Function<ConsumerRecord<String, V>, Optional<E>> parser,
+            Function<E, Instant> occurredAtOf) {
+        return record -> {
+            Optional<E> event = parser.apply(record);
+            event.map(occurredAtOf).ifPresent(occurredAt -> recordConsumed(record.topic(), group, occurredAt));
+            return event;
+        };
+    }
+
+    public void recordConsumed(String topic, String group, Instant occurredAt) {
+        timer("events.consume.latency", "Time from an event's occurredAt to its consumption", "topic", topic, "group", group)
+                .record(since(occurredAt));
+    }
+
+    /** Records how long each acked row waited in the outbox named {@code outbox}. */
+    public void recordOutboxSent(String outbox, Collection<? extends RetryableOutboxRecord> sent) {
+        for (RetryableOutboxRecord record : sent) {
+            if (record.getCreatedAt() != null) {
+                timer("outbox.dwell", "Time from outbox insert to broker ack", "outbox", outbox, "topic", record.getTopic())
+                        .record(since(record.getCreatedAt()));
+            }
+        }
+    }
+
+    public void recordSagaHop(String from, String to, Duration elapsed) {
+        timer("saga.hop.duration", "Time between consecutive saga steps", "from", from, "to", to)
+                .record(elapsed.isNegative() ? Duration.ZERO : elapsed);
+    }
+
+    private Duration since(Instant start) {
+        Duration elapsed = Duration.between(start, clock.instant());
+        return elapsed.isNegative() ? Duration.ZERO : elapsed;
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+    }
+}
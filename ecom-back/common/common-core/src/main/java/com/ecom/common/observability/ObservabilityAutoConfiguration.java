@@ -0,0 +1,54 @@
+package com.ecom.common.observability;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+@AutoConfiguration(after = KafkaAutoConfiguration.class)
+public class ObservabilityAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventLatencyMetrics eventLatencyMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new EventLatencyMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /** Lag of the groups of this service's {@code @KafkaListener} containers, read through the broker admin API. */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(KafkaAdmin.class)
+    @ConditionalOnProperty(name = "app.kafka.lag.enabled", havingValue = "true", matchIfMissing = true)
+    public ConsumerLagMonitor consumerLagMonitor(
+            KafkaAdmin kafkaAdmin,
+            ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.kafka.lag.interval:PT30S}") Duration interval) {
+        ConsumerLagMonitor monitor = new ConsumerLagMonitor(
+                () -> AdminClient.create(kafkaAdmin.getConfigurationProperties()),
+                () -> listenerRegistry.stream()
+                        .flatMap(registry -> registry.getListenerContainers().stream())
+                        .map(MessageListenerContainer::getGroupId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                interval);
+        monitor.start();
+        return monitor;
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecom.common.reliability;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.support.TransactionOperations;
+
+public final class ConsumerBatchSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerBatchSupport.class);
+
+    private ConsumerBatchSupport() {
+    }
+
+    /**
+     * Handles one polled batch: unparseable records are skipped, the rest are deduplicated with one
+     * {@link EventDeduplicator#markAllIfNew} call and handled in order, all inside one transaction, so
+     * the batch's offsets are committed by the container only after that transaction.
+     * If the batch transaction fails, records are replayed one by one, each with its dedup mark and
+     * handler in a transaction of its own. A record that still fails is reported as a
+     * {@link BatchListenerFailedException}, so the container keeps the offsets before it and redelivers
+     * from that record. Its mark rolled back with the handler, or is removed where the store has no
+     * transaction to share, so the redelivered record is handled again instead of being dropped as a duplicate.
+     */
+    public static <V, E> void consume(
+            List<ConsumerRecord<String, V>> records,
+            Function<ConsumerRecord<String, V>, Optional<E>> parser,
+            Function<E, String> eventIdOf,
+            EventDeduplicator dedup,
+            TransactionOperations transactionOperations,
+            Consumer<E> handler) {
+        consume(records, parser, eventIdOf, dedup, transactionOperations, null, handler);
+    }
+
+    /**
+     * {@link #consume} with a retry pipeline: tier records are held until due and deduplicated per
+     * attempt, unparseable records go to the dead-letter topic, and a record that fails in the replay
+     * is forwarded to its next tier instead of stopping the batch. Only a failed forward is reported as
+     * a {@link BatchListenerFailedException}. {@code retryTopics} may be null.
+     */
+    public static <V, E> void consume(
+            List<ConsumerRecord<String, V>> records,
+            Function<ConsumerRecord<String, V>, Optional<E>> parser,
+            Function<E, String> eventIdOf,
+            EventDeduplicator dedup,
+            TransactionOperations transactionOperations,
+            RetryTopics retryTopics,
+            Consumer<E> handler) {
+        List<Parsed<V, E>> events = parse(records, parser, eventIdOf, retryTopics);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Set<String> unhandled = new LinkedHashSet<>();
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                Set<String> fresh = dedup.markAllIfNew(events.stream().map(Parsed::dedupId).toList());
+                unhandled.addAll(fresh);
+                for (Parsed<V, E> parsed : events) {
+                    String eventId = parsed.dedupId();
+                    if (eventId == null || eventId.isBlank() || fresh.remove(eventId)) {
+                        handler.accept(parsed.event());
+                        unhandled.remove(eventId);
+                    }
+                }
+            });
+            return;
+        } catch (RuntimeException ex) {
+            log.warn("Batch of {} events failed, replaying one by one: {}", events.size(), ex.getMessage());
+            // Where the store has no transaction to share, marks of records the batch did not get to outlive it.
+            unhandled.forEach(eventId -> forget(eventId, ex, dedup));
+        }
+
+        for (Parsed<V, E> parsed : events) {
+            try {
+                handle(parsed, dedup, transactionOperations, handler);
+            } catch (RuntimeException ex) {
+                recover(parsed, ex, dedup, retryTopics);
+            }
+        }
+    }
+
+    /**
+     * Parses the batch in order. With a retry pipeline each record first waits for its due time, and a
+     * record that does not parse is dead-lettered.
+     */
+    static <V, E> List<Parsed<V, E>> parse(
+            List<ConsumerRecord<String, V>> records,
+            Function<ConsumerRecord<String, V>, Optional<E>> parser,
+            Function<E, String> eventIdOf,
+            RetryTopics retryTopics) {
+        List<Parsed<V, E>> events = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, V> record = records.get(i);
+            if (retryTopics != null) {
+                retryTopics.awaitDue(record);
+            }
+            Optional<E> event = parser.apply(record);
+            if (event.isPresent()) {
+                String eventId = eventIdOf.apply(event.get());
+                events.add(new Parsed<>(i, record, event.get(), retryTopics == null ? eventId : retryTopics.dedupId(record, eventId)));
+            } else if (retryTopics != null) {
+                try {
+                    retryTopics.deadLetter(record, "Event could not be read");
+                } catch (RuntimeException ex) {
+                    throw new BatchListenerFailedException("Dead-lettering failed", ex, i);
+                }
+            }
+        }
+        return events;
+    }
+
+    /** Marks and handles one record in one transaction, so a failing handler also rolls back the mark. */
+    static <V, E> void handle(
+            Parsed<V, E> parsed,
+            EventDeduplicator dedup,
+            TransactionOperations transactionOperations,
+            Consumer<E> handler) {
+        transactionOperations.executeWithoutResult(status -> {
+            if (dedup.markIfNew(parsed.dedupId())) {
+                handler.accept(parsed.event());
+            }
+        });
+    }
+
+    /** Forwards a failed record to its next tier, or reports it to the container when that is not possible. */
+    static void recover(Parsed<?, ?> parsed, RuntimeException failure, EventDeduplicator dedup, RetryTopics retryTopics) {
+        if (!forwarded(parsed, failure, dedup, retryTopics)) {
+            throw new BatchListenerFailedException("Event handling failed", failure, parsed.index());
+        }
+    }
+
+    /**
+     * Forwards a failed record to its next tier and keeps its mark, since that tier now owns the event.
+     * Without a tier, or when the forward fails, the mark is removed instead so the record the container
+     * redelivers is handled again; returns whether the record was forwarded.
+     */
+    static boolean forwarded(Parsed<?, ?> parsed, RuntimeException failure, EventDeduplicator dedup, RetryTopics retryTopics) {
+        if (retryTopics != null) {
+            try {
+                retryTopics.forward(parsed.record(), failure);
+            } catch (RuntimeException ex) {
+                failure.addSuppressed(ex);
+                forget(parsed.dedupId(), failure, dedup);
+                return false;
+            }
+            try {
+                dedup.markIfNew(parsed.dedupId());
+            } catch (RuntimeException ex) {
+                log.warn("Forwarded event {} could not be marked consumed: {}", parsed.dedupId(), ex.getMessage());
+            }
+            return true;
+        }
+        forget(parsed.dedupId(), failure, dedup);
+        return false;
+    }
+
+    private static void forget(String eventId, RuntimeException failure, EventDeduplicator dedup) {
+        if (eventId == null || eventId.isBlank()) {
+            return;
+        }
+        try {
+            dedup.forget(eventId);
+        } catch (RuntimeException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    record Parsed<V, E>(int index, ConsumerRecord<String, V> record, E event, String dedupId) {
+    }
+}
@@ -1,10 +1,19 @@
 package com.ecom.common.reliability;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import org.springframework.jdbc.core.JdbcTemplate;
+
 public final class ConsumerDedupSupport {
 
     private ConsumerDedupSupport() {
@@ -27,4 +36,147 @@ public final class ConsumerDedupSupport {
         saver.accept(record);
         return true;
     }
+
+    /**
+     * {@link #markIfNew} behind a {@link RecentEventFilter}: a recent hit is a duplicate with no query, and
+     * the existence query only runs when the filter cannot rule the id out. {@code insertIfAbsent} must
+     * insert with on-conflict semantics and report whether it inserted, so it alone decides the outcome.
+     */
+    public static boolean markIfNew(
+            String eventId,
+            RecentEventFilter filter,
+            Predicate<String> existsById,
+            Predicate<String> insertIfAbsent) {
+        if (eventId == null || eventId.isBlank()) {
+            return true;
+        }
+        if (filter.recentlySeen(eventId)) {
+            return false;
+        }
+        boolean maybeSeen = filter.mightContain(eventId);
+        if (maybeSeen && existsById.test(eventId)) {
+            filter.remember(List.of(eventId));
+            return false;
+        }
+        if (!insertIfAbsent.test(eventId)) {
+            filter.remember(List.of(eventId));
+            return false;
+        }
+        if (maybeSeen) {
+            filter.falsePositive(1);
+        }
+        filter.rememberAfterCommit(List.of(eventId));
+        return true;
+    }
+
+    /**
+     * Batch form of {@link #markIfNew}: one lookup for the whole batch through {@code findExisting}, then
+     * one write of the unseen ids through {@code inserter}. Blank ids are ignored; callers treat them as new.
+     */
+    public static Set<String> markAllIfNew(
+            Collection<String> eventIds,
+            Function<Collection<String>, Collection<String>> findExisting,
+            Consumer<Set<String>> inserter) {
+        Set<String> fresh = new LinkedHashSet<>();
+        for (String eventId : eventIds) {
+            if (eventId != null && !eventId.isBlank()) {
+                fresh.add(eventId);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return fresh;
+        }
+        fresh.removeAll(findExisting.apply(List.copyOf(fresh)));
+        if (!fresh.isEmpty()) {
+            inserter.accept(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Batch form behind a {@link RecentEventFilter}: recent hits are dropped, and only ids the filter
+     * cannot rule out go to {@code findExisting}.
+     */
+    public static Set<String> markAllIfNew(
+            Collection<String> eventIds,
+            RecentEventFilter filter,
+            Function<Collection<String>, Collection<String>> findExisting,
+            Consumer<Set<String>> inserter) {
+        Set<String> fresh = new LinkedHashSet<>();
+        Set<String> maybeSeen = new HashSet<>();
+        for (String eventId : eventIds) {
+            if (eventId == null || eventId.isBlank() || fresh.contains(eventId) || filter.recentlySeen(eventId)) {
+                continue;
+            }
+            fresh.add(eventId);
+            if (filter.mightContain(eventId)) {
+                maybeSeen.add(eventId);
+            }
+        }
+        if (!maybeSeen.isEmpty()) {
+            Collection<String> existing = findExisting.apply(List.copyOf(maybeSeen));
+            filter.falsePositive(maybeSeen.size() - existing.size());
+            fresh.removeAll(existing);
+            filter.remember(existing);
+        }
+        if (!fresh.isEmpty()) {
+            inserter.accept(fresh);
+            filter.rememberAfterCommit(fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Inserts consumed-event rows with one batched statement, which the MySQL driver rewrites into a
+     * multi-row insert when {@code rewriteBatchedStatements} is on. A concurrent consumer that already
+     * stored one of the ids makes the insert fail, so the caller's transaction rolls back and redelivery
+     * dedups against the committed rows.
+     */
+    public static void insertAll(JdbcTemplate jdbcTemplate, String table, Collection<String> eventIds) {
+        Timestamp consumedAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "insert into " + table + " (event_id, consumed_at) values (?, ?)",
+                eventIds,
+                eventIds.size(),
+                (statement, eventId) -> {
+                    statement.setString(1, eventId);
+                    statement.setTimestamp(2, consumedAt);
+                });
+    }
+
+    /**
+     * Inserts one consumed-event row unless it exists; returns whether this call inserted it.
+     * {@code INSERT IGNORE} rather than {@code ON DUPLICATE KEY UPDATE}, whose row count Connector/J
+     * reports as 1 for an unchanged duplicate.
+     */
+    public static boolean insertIfAbsent(JdbcTemplate jdbcTemplate, String table, String eventId) {
+        return jdbcTemplate.update(
+                "insert ignore into " + table + " (event_id, consumed_at) values (?, ?)",
+                eventId,
+                Timestamp.from(Instant.now())) == 1;
+    }
+
+    /** Feeds every id consumed at or after {@code since} to {@code sink}, paging by primary key. */
+    public static void forEachConsumedSince(
+            JdbcTemplate jdbcTemplate,
+            String table,
+            Instant since,
+            int pageSize,
+            Consumer<String> sink) {
+        String after = "";
+        while (true) {
+            List<String> page = jdbcTemplate.queryForList(
+                    "select event_id from " + table + " where event_id > ? and consumed_at >= ? "
+                            + "order by event_id limit ?",
+                    String.class,
+                    after,
+                    Timestamp.from(since),
+                    pageSize);
+            page.forEach(sink);
+            if (page.size() < pageSize) {
+                return;
+            }
+            after = page.get(page.size() - 1);
+        }
+    }
 }
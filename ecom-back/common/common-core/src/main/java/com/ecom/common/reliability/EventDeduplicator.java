@@ -0,0 +1,18 @@
+package com.ecom.common.reliability;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface EventDeduplicator {
+
+    boolean markIfNew(String eventId);
+
+    /** Records every unseen id and returns them; ids already consumed, or repeated in the input, are left out. */
+    Set<String> markAllIfNew(Collection<String> eventIds);
+
+    /**
+     * Removes the mark of an event whose handling failed, so its redelivery is not taken for a duplicate.
+     * Stores whose mark rolls back with the handler's transaction may find nothing to remove.
+     */
+    void forget(String eventId);
+}
@@ -0,0 +1,140 @@
+package com.ecom.common.reliability;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.ecom.common.reliability.ConsumerBatchSupport.Parsed;
+
+/**
+ * Processes a polled batch concurrently across record keys while keeping records of one key in
+ * offset order, so one slow key (a contended order) no longer holds up every other key on its
+ * partition. Each key's records run in order on a virtual thread. At most {@code parallelism} keys run
+ * at once, which keeps the number of pooled DB connections in use bounded.
+ * Records are handled one at a time as in {@link ConsumerBatchSupport}'s replay path: each record's dedup
+ * mark and handler run in one transaction. A record fails when its handler throws or that transaction
+ * does not commit: a {@code @Transactional} call that throws inside the handler joins the record's
+ * transaction and marks it rollback-only even if the handler catches the exception, so the commit fails.
+ * A handler that must commit other work after such a step (a failure event) runs the step in a
+ * transaction of its own ({@code PROPAGATION_REQUIRES_NEW}).
+ * The batch returns only when every key is done, so the container commits the batch's offsets as one
+ * contiguous watermark. If records fail, the earliest
+ * failed offset is reported as a {@link BatchListenerFailedException}: offsets before it are committed
+ * and the rest are redelivered. A failed record's mark rolled back with its handler (or is removed where
+ * the store has no transaction), so it is handled again; records of other keys past that offset were
+ * already handled and are dropped by dedup on redelivery. A key stops at its first failure, so its later
+ * records wait for the retry.
+ * With {@link RetryTopics} a failed record is forwarded to its next tier instead and its key carries on,
+ * so a retried event may be handled after later events of its key. Only a failed forward stops the key.
+ * With {@code parallelism} 1 the batch goes through {@link ConsumerBatchSupport#consume} unchanged.
+ */
+public final class KeyOrderedProcessor {
+
+    private final int parallelism;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final RetryTopics retryTopics;
+
+    public KeyOrderedProcessor(String name, int parallelism) {
+        this(name, parallelism, null);
+    }
+
+    public KeyOrderedProcessor(String name, int parallelism, RetryTopics retryTopics) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Key parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.retryTopics = retryTopics;
+        this.permits = new Semaphore(parallelism);
+        this.executor = parallelism == 1
+                ? null
+                : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("consumer-" + name + "-", 0).factory());
+    }
+
+    public <V, E> void consume(
+            List<ConsumerRecord<String, V>> records,
+            Function<ConsumerRecord<String, V>, Optional<E>> parser,
+            Function<E, String> eventIdOf,
+            EventDeduplicator dedup,
+            TransactionOperations transactionOperations,
+            Consumer<E> handler) {
+        if (executor == null) {
+            ConsumerBatchSupport.consume(records, parser, eventIdOf, dedup, transactionOperations, retryTopics, handler);
+            return;
+        }
+
+        Map<String, List<Parsed<V, E>>> byKey = new LinkedHashMap<>();
+        for (Parsed<V, E> parsed : ConsumerBatchSupport.parse(records, parser, eventIdOf, retryTopics)) {
+            // Records without a key have no ordering to keep, so each one is its own group.
+            String key = parsed.record().key() == null ? "\u0000" + parsed.index() : parsed.record().key();
+            byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(parsed);
+        }
+        if (byKey.isEmpty()) {
+            return;
+        }
+
+        AtomicReference<Failure> earliest = new AtomicReference<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(byKey.size());
+        for (List<Parsed<V, E>> group : byKey.values()) {
+            tasks.add(CompletableFuture.runAsync(() -> runGroup(group, dedup, transactionOperations, handler, earliest), executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        Failure failure = earliest.get();
+        if (failure != null) {
+            throw new BatchListenerFailedException("Event handling failed", failure.cause(), failure.index());
+        }
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    private <V, E> void runGroup(
+            List<Parsed<V, E>> group,
+            EventDeduplicator dedup,
+            TransactionOperations transactionOperations,
+            Consumer<E> handler,
+            AtomicReference<Failure> earliest) {
+        permits.acquireUninterruptibly();
+        try {
+            for (Parsed<V, E> parsed : group) {
+                try {
+                    ConsumerBatchSupport.handle(parsed, dedup, transactionOperations, handler);
+                } catch (RuntimeException ex) {
+                    if (ConsumerBatchSupport.forwarded(parsed, ex, dedup, retryTopics)) {
+                        continue;
+                    }
+                    Failure failure = new Failure(parsed.index(), ex);
+                    earliest.accumulateAndGet(failure, (current, next) ->
+                            current == null || next.index() < current.index() ? next : current);
+                    return;
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private record Failure(int index, RuntimeException cause) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecom.common.reliability;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link OutboxPublishSupport#sendBatch}: records acknowledged by the broker, and records
+ * that were not and already carry their bumped attempt count, error and PENDING/FAILED status.
+ */
+public record OutboxBatchResult<T extends RetryableOutboxRecord>(List<T> sent, List<T> unsent) {
+}
@@ -0,0 +1,181 @@
+package com.ecom.common.reliability;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leases outbox partitions to publisher instances so replicas drain disjoint slices of the outbox.
+ * Rows are assigned a partition from their message key ({@link OutboxPublishSupport#partitionOf}), and a
+ * partition is drained by at most one live instance, which keeps per-key send order across replicas.
+ * Every instance heartbeats into {@code <prefix>_outbox_publishers} and holds at most
+ * {@code ceil(partitions / live instances)} rows of {@code <prefix>_outbox_partitions}; claiming reads
+ * only unheld rows with {@code FOR UPDATE SKIP LOCKED}, so concurrent claimers never block each other.
+ * A partition whose holder stops renewing is taken over once its lease runs out.
+ */
+public final class OutboxPartitionClaims {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPartitionClaims.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String partitionTable;
+    private final String publisherTable;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean seeded;
+    private volatile List<Integer> owned = List.of();
+    private volatile long renewAfterNanos;
+
+    public OutboxPartitionClaims(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            String tablePrefix,
+            int partitions,
+            Duration leaseTtl) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Outbox partitions must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionTable = tablePrefix + "_outbox_partitions";
+        this.publisherTable = tablePrefix + "_outbox_publishers";
+        this.partitions = partitions;
+        this.leaseTtl = leaseTtl;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    /**
+     * Partitions this instance may drain. Leases are renewed, and the share rebalanced, once a third
+     * of the lease TTL has passed since the last claim; in between the cached claim is returned.
+     */
+    public List<Integer> owned() {
+        if (System.nanoTime() - renewAfterNanos >= 0) {
+            owned = claim();
+            renewAfterNanos = System.nanoTime() + leaseTtl.toNanos() / 3;
+        }
+        return owned;
+    }
+
+    /** Gives up every lease held by this instance so the others can take them over immediately. */
+    public void release() {
+        try {
+            jdbcTemplate.update("update " + partitionTable + " set owner = null where owner = ?", owner);
+            jdbcTemplate.update("delete from " + publisherTable + " where owner = ?", owner);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox partition release failed, leases will expire: {}", ex.getMessage());
+        }
+        owned = List.of();
+    }
+
+    private List<Integer> claim() {
+        Instant now = Instant.now();
+        Timestamp leaseUntil = Timestamp.from(now.plus(leaseTtl));
+        seedPartitions(now);
+        jdbcTemplate.update(
+                "insert into " + publisherTable + " (owner, heartbeat_until) values (?, ?) "
+                        + "on duplicate key update heartbeat_until = values(heartbeat_until)",
+                owner,
+                leaseUntil);
+        jdbcTemplate.update("delete from " + publisherTable + " where heartbeat_until < ?", Timestamp.from(now));
+        Integer members = jdbcTemplate.queryForObject("select count(*) from " + publisherTable, Integer.class);
+        int fairShare = fairShare(partitions, members == null ? 1 : members);
+
+        List<Integer> claimed = transactionTemplate.execute(status -> {
+            List<Candidate> candidates = jdbcTemplate.query(
+                    "select partition_no, owner from " + partitionTable
+                            + " where owner = ? or owner is null or lease_until < ?"
+                            + " order by partition_no for update skip locked",
+                    (rs, rowNum) -> new Candidate(rs.getInt(1), owner.equals(rs.getString(2))),
+                    owner,
+                    Timestamp.from(now));
+            Split split = split(candidates, fairShare, Math.floorMod(owner.hashCode(), partitions));
+            for (int partition : split.keep()) {
+                jdbcTemplate.update(
+                        "update " + partitionTable + " set owner = ?, lease_until = ? where partition_no = ?",
+                        owner,
+                        leaseUntil,
+                        partition);
+            }
+            for (int partition : split.give()) {
+                jdbcTemplate.update(
+                        "update " + partitionTable + " set owner = null where partition_no = ? and owner = ?",
+                        partition,
+                        owner);
+            }
+            return split.keep();
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void seedPartitions(Instant now) {
+        if (seeded) {
+            return;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            jdbcTemplate.update(
+                    "insert ignore into " + partitionTable + " (partition_no, owner, lease_until) values (?, null, ?)",
+                    partition,
+                    Timestamp.from(now));
+        }
+        seeded = true;
+    }
+
+    static int fairShare(int partitions, int liveMembers) {
+        int members = Math.max(1, liveMembers);
+        return (partitions + members - 1) / members;
+    }
+
+    /**
+     * Keeps held partitions first, then takes free ones starting at {@code offset} so instances racing
+     * for free partitions mostly pick different ones; anything held beyond {@code fairShare} is given up.
+     */
+    static Split split(List<Candidate> candidates, int fairShare, int offset) {
+        List<Integer> keep = new ArrayList<>();
+        List<Integer> give = new ArrayList<>();
+        List<Integer> free = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (!candidate.held()) {
+                free.add(candidate.partition());
+            } else if (keep.size() < fairShare) {
+                keep.add(candidate.partition());
+            } else {
+                give.add(candidate.partition());
+            }
+        }
+        if (!free.isEmpty()) {
+            int start = 0;
+            while (start < free.size() && free.get(start) < offset) {
+                start++;
+            }
+            Collections.rotate(free, -start);
+        }
+        for (int partition : free) {
+            if (keep.size() >= fairShare) {
+                break;
+            }
+            keep.add(partition);
+        }
+        Collections.sort(keep);
+        return new Split(List.copyOf(keep), List.copyOf(give));
+    }
+
+    record Candidate(int partition, boolean held) {
+    }
+
+    record Split(List<Integer> keep, List<Integer> give) {
+    }
+}
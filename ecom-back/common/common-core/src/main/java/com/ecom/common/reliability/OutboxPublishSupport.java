@@ -1,38 +1,156 @@
 package com.ecom.common.reliability;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 
 public final class OutboxPublishSupport {
 
+    /** Kafka header naming the binary schema of a record; matches {@code EventCodec.SCHEMA_ID_HEADER}. */
+    public static final String SCHEMA_ID_HEADER = "ecom-schema-id";
+
     private OutboxPublishSupport() {
     }
 
-    public static <T extends RetryableOutboxRecord> void publishPending(
-            List<T> pending,
-            KafkaTemplate<String, String> kafkaTemplate,
+    /** Outbox partition of a message key; every row of one key lands in the same partition. */
+    public static int partitionOf(String messageKey, int partitions) {
+        return Math.floorMod(messageKey == null ? 0 : messageKey.hashCode(), partitions);
+    }
+
+    /**
+     * Inserts new PENDING outbox rows with one batched statement, which the MySQL driver rewrites into a
+     * multi-row insert when {@code rewriteBatchedStatements} is on. Rows without a {@code createdAt} are
+     * stamped with the insert time.
+     */
+    public static void insertAll(JdbcTemplate jdbcTemplate, String table, List<? extends RetryableOutboxRecord> records) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "insert into " + table + " (id, topic, message_key, event_type, partition_no, payload, payload_bytes,"
+                        + " schema_id, status, attempts, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, 'PENDING', ?, ?, ?)",
+                records,
+                records.size(),
+                (statement, record) -> {
+                    Timestamp createdAt = record.getCreatedAt() == null ? now : Timestamp.from(record.getCreatedAt());
+                    statement.setString(1, record.getId());
+                    statement.setString(2, record.getTopic());
+                    statement.setString(3, record.getMessageKey());
+                    statement.setString(4, record.getEventType());
+                    statement.setInt(5, record.getPartitionNo());
+                    statement.setString(6, record.getPayload());
+                    if (record.getPayloadBytes() == null) {
+                        statement.setNull(7, Types.LONGVARBINARY);
+                    } else {
+                        statement.setBytes(7, record.getPayloadBytes());
+                    }
+                    statement.setString(8, record.getSchemaId());
+                    statement.setInt(9, record.getAttempts());
+                    statement.setTimestamp(10, createdAt);
+                    statement.setTimestamp(11, createdAt);
+                });
+    }
+
+    /**
+     * Fires a send for every record without waiting on each ack, keeping at most {@code maxInFlight}
+     * sends outstanding, then waits up to {@code sendTimeout} for the whole batch. Sends are issued in
+     * list order from one thread, so the producer keeps per-key order. Records are marked in memory
+     * only; callers persist {@link OutboxBatchResult#sent()} and {@link OutboxBatchResult#unsent()}.
+     */
+    public static <T extends RetryableOutboxRecord> OutboxBatchResult<T> sendBatch(
+            List<T> batch,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
             int maxRetry,
-            Consumer<T> saver) {
-        for (T record : pending) {
+            int maxInFlight,
+            Duration sendTimeout) {
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (T record : batch) {
+            futures.add(sendAsync(record, kafkaTemplate, inFlight, deadline));
+        }
+
+        List<T> sent = new ArrayList<>();
+        List<T> unsent = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            T record = batch.get(i);
             try {
-                kafkaTemplate.send(record.getTopic(), record.getMessageKey(), record.getPayload()).get(5, TimeUnit.SECONDS);
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
                 record.markSent();
                 record.setLastError(null);
-            } catch (Exception ex) {
-                int attempts = record.getAttempts() + 1;
-                record.setAttempts(attempts);
-                if (attempts >= maxRetry) {
-                    record.markFailed();
-                } else {
-                    record.markPending();
-                }
-                record.setLastError(trim(ex.getMessage(), 500));
+                sent.add(record);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                markUnsent(record, maxRetry, ex);
+                unsent.add(record);
+            } catch (ExecutionException ex) {
+                markUnsent(record, maxRetry, ex.getCause() == null ? ex : ex.getCause());
+                unsent.add(record);
+            } catch (TimeoutException ex) {
+                markUnsent(record, maxRetry, new TimeoutException("No broker ack within " + sendTimeout));
+                unsent.add(record);
+            }
+        }
+        return new OutboxBatchResult<>(sent, unsent);
+    }
+
+    private static CompletableFuture<?> sendAsync(
+            RetryableOutboxRecord record,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            Semaphore inFlight,
+            long deadline) {
+        try {
+            if (!inFlight.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return CompletableFuture.failedFuture(new TimeoutException("In-flight send limit reached"));
             }
-            saver.accept(record);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(ex);
+        }
+        try {
+            return kafkaTemplate.send(toProducerRecord(record))
+                    .whenComplete((result, error) -> inFlight.release());
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Binary rows go out as stored with their schema id header; JSON rows go out as UTF-8 without one,
+     * so consumers pick the decoder per record.
+     */
+    static ProducerRecord<String, byte[]> toProducerRecord(RetryableOutboxRecord record) {
+        if (record.getPayloadBytes() == null) {
+            return new ProducerRecord<>(record.getTopic(), record.getMessageKey(),
+                    record.getPayload().getBytes(StandardCharsets.UTF_8));
+        }
+        ProducerRecord<String, byte[]> producerRecord =
+                new ProducerRecord<>(record.getTopic(), record.getMessageKey(), record.getPayloadBytes());
+        producerRecord.headers().add(SCHEMA_ID_HEADER, record.getSchemaId().getBytes(StandardCharsets.UTF_8));
+        return producerRecord;
+    }
+
+    private static void markUnsent(RetryableOutboxRecord record, int maxRetry, Throwable error) {
+        int attempts = record.getAttempts() + 1;
+        record.setAttempts(attempts);
+        if (attempts >= maxRetry) {
+            record.markFailed();
+        } else {
+            record.markPending();
         }
+        record.setLastError(trim(error.getMessage(), 500));
     }
 
     private static String trim(String value, int max) {
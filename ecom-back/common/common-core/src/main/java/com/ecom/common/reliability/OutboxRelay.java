@@ -0,0 +1,76 @@
+package com.ecom.common.reliability;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Push-style trigger for an outbox drain.
+ * Writers call {@link #signalAfterCommit()} right after inserting an outbox row; once their transaction
+ * commits the drain runs on the relay's own thread, so a saga hop no longer waits for the next poll.
+ * Wake-ups that arrive while a drain is running collapse into one follow-up drain, and every drain
+ * (including the recovery poll, which should also go through {@link #wake()}) runs on the same
+ * thread, so two drains never overlap within an instance.
+ */
+public final class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final Runnable drain;
+    private final ExecutorService executor;
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    public OutboxRelay(String name, Runnable drain) {
+        this.drain = drain;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Wakes the relay when the current transaction commits, or immediately outside a transaction. */
+    public void signalAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    public void wake() {
+        if (queued.compareAndSet(false, true)) {
+            executor.execute(this::runDrain);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runDrain() {
+        // Cleared before draining so a signal that lands mid-drain queues exactly one more pass.
+        queued.set(false);
+        try {
+            drain.run();
+        } catch (RuntimeException ex) {
+            log.warn("Outbox relay drain failed, recovery poll will retry: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecom.common.reliability;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process front for a consumed-events table: a bounded LRU of recently consumed ids and a Bloom
+ * filter over every id consumed within the dedup retention window.
+ * An LRU hit is a known duplicate; a Bloom miss means the id was definitely not consumed, so the caller
+ * can skip its existence query. The filter never decides that an event is new on its own: callers
+ * still write with insert-on-conflict, so an id missing from the filter (another instance consumed it,
+ * or seeding has not finished) only costs the lookup it would have done anyway.
+ * The Bloom filter keeps two generations sized for one retention window each and starts a fresh one
+ * when the current generation is full, so the false-positive rate stays near the configured target.
+ */
+public final class RecentEventFilter {
+
+    private final Map<String, Boolean> recent;
+    private final long capacity;
+    private final double falsePositiveRate;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile Bloom current;
+    private volatile Bloom previous;
+    private volatile boolean seeded;
+
+    private final Counter recentHits;
+    private final Counter definitelyNew;
+    private final Counter maybeSeen;
+    private final Counter falsePositives;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder skippedLookups = new LongAdder();
+
+    public RecentEventFilter(
+            MeterRegistry meterRegistry,
+            int recentSize,
+            long expectedEventsPerDay,
+            Duration retention,
+            double falsePositiveRate) {
+        if (recentSize < 1 || expectedEventsPerDay < 1) {
+            throw new IllegalArgumentException("Dedup filter sizes must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Dedup filter false-positive rate must be between 0 and 1");
+        }
+        this.recent = new LinkedHashMap<>(recentSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentSize;
+            }
+        };
+        long retentionDays = Math.max(1, (retention.toHours() + 23) / 24);
+        this.capacity = expectedEventsPerDay * retentionDays;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new Bloom(capacity, falsePositiveRate);
+
+        this.recentHits = meterRegistry.counter("consumer.dedup.filter", "outcome", "recent-hit");
+        this.definitelyNew = meterRegistry.counter("consumer.dedup.filter", "outcome", "definitely-new");
+        this.maybeSeen = meterRegistry.counter("consumer.dedup.filter", "outcome", "maybe-seen");
+        this.falsePositives = meterRegistry.counter("consumer.dedup.filter.false.positives");
+        Gauge.builder("consumer.dedup.filter.hit.ratio", this, RecentEventFilter::hitRatio)
+                .description("Share of dedup checks answered without an existence query")
+                .register(meterRegistry);
+    }
+
+    /** True when the id is known to be consumed already; such events can be dropped without a query. */
+    public boolean recentlySeen(String eventId) {
+        lookups.increment();
+        boolean hit;
+        synchronized (recent) {
+            hit = recent.get(eventId) != null;
+        }
+        if (hit) {
+            recentHits.increment();
+            skippedLookups.increment();
+        }
+        return hit;
+    }
+
+    /** False only when the id was definitely not consumed within the window the filter covers. */
+    public boolean mightContain(String eventId) {
+        Bloom older = previous;
+        boolean maybe = !seeded || current.mightContain(eventId) || (older != null && older.mightContain(eventId));
+        if (maybe) {
+            maybeSeen.increment();
+        } else {
+            definitelyNew.increment();
+            skippedLookups.increment();
+        }
+        return maybe;
+    }
+
+    /** Records that a {@link #mightContain} positive turned out not to exist in the table. */
+    public void falsePositive(int count) {
+        falsePositives.increment(count);
+    }
+
+    /** Adds ids known to be committed to the table. */
+    public void remember(Collection<String> eventIds) {
+        synchronized (recent) {
+            eventIds.forEach(eventId -> recent.put(eventId, Boolean.TRUE));
+        }
+        eventIds.forEach(this::addToBloom);
+    }
+
+    /**
+     * Drops an id whose consumption was undone. The Bloom filter cannot forget, so the id only goes back
+     * to the existence query, which no longer finds it.
+     */
+    public void forget(String eventId) {
+        synchronized (recent) {
+            recent.remove(eventId);
+        }
+    }
+
+    /**
+     * Adds ids once the current transaction commits, so a rolled-back consumption is not mistaken for
+     * a duplicate on redelivery. Outside a transaction the ids are added immediately.
+     */
+    public void rememberAfterCommit(Collection<String> eventIds) {
+        List<String> ids = List.copyOf(eventIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(ids);
+                }
+            });
+        } else {
+            remember(ids);
+        }
+    }
+
+    /** Adds an id loaded from the table at startup; only the Bloom filter is filled, not the LRU. */
+    public void seed(String eventId) {
+        addToBloom(eventId);
+    }
+
+    /** Marks seeding finished; until then every id is treated as possibly seen. */
+    public void seeded() {
+        seeded = true;
+    }
+
+    double hitRatio() {
+        long total = lookups.sum();
+        return total == 0 ? 0.0 : (double) skippedLookups.sum() / total;
+    }
+
+    private void addToBloom(String eventId) {
+        if (insertions.incrementAndGet() > capacity) {
+            synchronized (this) {
+                if (insertions.get() > capacity) {
+                    previous = current;
+                    current = new Bloom(capacity, falsePositiveRate);
+                    insertions.set(1);
+                }
+            }
+        }
+        current.put(eventId);
+    }
+
+    /** Fixed-size Bloom filter with double hashing over a 64-bit hash of the id. */
+    static final class Bloom {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        Bloom(long expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            long words = Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+            this.words = new AtomicLongArray((int) words);
+            this.bits = words * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long existing;
+                do {
+                    existing = words.get(word);
+                } while ((existing & mask) == 0 && !words.compareAndSet(word, existing, existing | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
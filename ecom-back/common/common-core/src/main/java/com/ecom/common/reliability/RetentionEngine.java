@@ -0,0 +1,137 @@
+package com.ecom.common.reliability;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Purges expired reliability rows (sent/failed outbox events, dedup marks) in small chunks instead of one
+ * derived {@code deleteBy...} call, which Spring Data runs by loading every entity and removing it one by one
+ * inside a single transaction. Each chunk selects up to {@code chunkSize} ids of the oldest expired rows
+ * (a keyset range on the timestamp index) and deletes them by primary key, repeating the expiry condition so
+ * a row that changed in between is kept. Chunks run outside any surrounding transaction, so each one commits
+ * on its own and holds its row locks only briefly; {@code pause} between chunks leaves room for the live
+ * workload. A run stops when a chunk comes back short or the thread is interrupted.
+ * Metrics: {@code reliability.cleanup.purged{policy,table}} and {@code reliability.cleanup.duration{policy,table}}.
+ */
+public final class RetentionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionEngine.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Clock clock;
+
+    public RetentionEngine(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, int chunkSize, Duration pause) {
+        this(jdbcTemplate, meterRegistry, chunkSize, pause, Clock.systemUTC());
+    }
+
+    RetentionEngine(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, int chunkSize, Duration pause, Clock clock) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Cleanup chunk size must be positive");
+        }
+        if (pause.isNegative()) {
+            throw new IllegalArgumentException("Cleanup pause must not be negative");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.clock = clock;
+    }
+
+    /** Runs every policy in order and returns the rows each one purged, keyed by policy name. */
+    public Map<String, Long> purgeAll(List<RetentionPolicy> policies) {
+        Map<String, Long> purged = new LinkedHashMap<>();
+        for (RetentionPolicy policy : policies) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            purged.put(policy.name(), purge(policy));
+        }
+        return purged;
+    }
+
+    public long purge(RetentionPolicy policy) {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(policy.retention()));
+        String expired = expiredCondition(policy);
+        List<Object> expiredArgs = new ArrayList<>(2);
+        if (policy.statusColumn() != null) {
+            expiredArgs.add(policy.status());
+        }
+        expiredArgs.add(cutoff);
+
+        String select = "select " + policy.idColumn() + " from " + policy.table() + " where " + expired
+                + " order by " + policy.timestampColumn() + " limit " + chunkSize;
+        Counter purgedCounter = Counter.builder("reliability.cleanup.purged")
+                .description("Expired reliability rows deleted by the retention engine")
+                .tag("policy", policy.name())
+                .tag("table", policy.table())
+                .register(meterRegistry);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long purged = 0;
+        try {
+            while (true) {
+                List<Object> ids = jdbcTemplate.queryForList(select, Object.class, expiredArgs.toArray());
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<Object> args = new ArrayList<>(ids.size() + expiredArgs.size());
+                args.addAll(ids);
+                args.addAll(expiredArgs);
+                int deleted = jdbcTemplate.update(
+                        "delete from " + policy.table() + " where " + policy.idColumn() + " in ("
+                                + String.join(",", Collections.nCopies(ids.size(), "?")) + ") and " + expired,
+                        args.toArray());
+                purged += deleted;
+                purgedCounter.increment(deleted);
+                // A full chunk of which nothing was deleted means the rows are changing under us; retry next run.
+                if (ids.size() < chunkSize || deleted == 0 || !pause()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cleanup of {} stopped after {} rows: {}", policy.name(), purged, ex.getMessage());
+        } finally {
+            sample.stop(Timer.builder("reliability.cleanup.duration")
+                    .description("Time one retention policy took to purge its expired rows")
+                    .tag("policy", policy.name())
+                    .tag("table", policy.table())
+                    .register(meterRegistry));
+        }
+        return purged;
+    }
+
+    private static String expiredCondition(RetentionPolicy policy) {
+        String olderThan = policy.timestampColumn() + " < ?";
+        return policy.statusColumn() == null ? olderThan : policy.statusColumn() + " = ? and " + olderThan;
+    }
+
+    private boolean pause() {
+        if (pause.isZero()) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
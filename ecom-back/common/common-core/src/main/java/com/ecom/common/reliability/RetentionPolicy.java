@@ -0,0 +1,54 @@
+package com.ecom.common.reliability;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Which rows of a table {@link RetentionEngine} purges: rows whose {@code timestampColumn} is older than
+ * {@code retention}, optionally only those whose {@code statusColumn} equals {@code status}. The timestamp
+ * column (after the status column, when there is one) should lead an index so each chunk is an index
+ * range scan. Table and column names are spliced into SQL, so only plain identifiers are accepted.
+ */
+public record RetentionPolicy(
+        String name,
+        String table,
+        String idColumn,
+        String timestampColumn,
+        String statusColumn,
+        String status,
+        Duration retention) {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    public RetentionPolicy {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Retention policy needs a name");
+        }
+        requireIdentifier(table);
+        requireIdentifier(idColumn);
+        requireIdentifier(timestampColumn);
+        if (statusColumn != null) {
+            requireIdentifier(statusColumn);
+        }
+        if ((statusColumn == null) != (status == null)) {
+            throw new IllegalArgumentException("Status column and status go together");
+        }
+        if (retention == null || retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException("Retention of " + name + " must be positive");
+        }
+    }
+
+    public static RetentionPolicy olderThan(String name, String table, String idColumn, String timestampColumn, Duration retention) {
+        return new RetentionPolicy(name, table, idColumn, timestampColumn, null, null, retention);
+    }
+
+    public RetentionPolicy withStatus(String column, String value) {
+        return new RetentionPolicy(name, table, idColumn, timestampColumn, column, value, retention);
+    }
+
+    private static void requireIdentifier(String identifier) {
+        if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("Not a plain SQL identifier: " + identifier);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.ecom.common.reliability;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Non-blocking retry pipeline for consumed events. A record whose handler fails is forwarded to the
+ * next delay tier of its topic ({@code <topic>.<group>.retry-1s}, {@code .retry-10s}, {@code .retry-60s}
+ * with the default delays) and finally to {@code <topic>.<group>.dlq}, so the main partition moves on at
+ * once. Tiers are named after the consumer group that owns them: groups reading the same topic (inventory
+ * and payment both read {@code order.created.v1}) each retry only their own failures.
+ * Tier consumers wait for a record's due time before handling it; each tier has one delay, so records
+ * fall due in offset order and a tier partition never waits behind a later record.
+ * Forwarded records keep their key, value and headers and carry the attempt number, due time and last
+ * error as headers. Records a tier receives are deduplicated per attempt (see {@link #dedupId}),
+ * because the failed attempt already holds the plain event id.
+ */
+public final class RetryTopics {
+
+    public static final String ATTEMPT_HEADER = "ecom-retry-attempt";
+    public static final String DUE_AT_HEADER = "ecom-retry-due-at";
+    public static final String ERROR_HEADER = "ecom-retry-error";
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopics.class);
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final KafkaOperations<String, byte[]> kafkaOperations;
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final List<Duration> delays;
+    private final List<String> suffixes;
+    private final String deadLetterSuffix;
+    private final Duration sendTimeout;
+    private final String replayGroupId;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Set<String> mainTopics = ConcurrentHashMap.newKeySet();
+
+    public RetryTopics(
+            KafkaOperations<String, byte[]> kafkaOperations,
+            ConsumerFactory<String, byte[]> consumerFactory,
+            List<Duration> delays,
+            Duration sendTimeout,
+            String group,
+            MeterRegistry meterRegistry) {
+        this(kafkaOperations, consumerFactory, delays, sendTimeout, group, meterRegistry, Clock.systemUTC());
+    }
+
+    RetryTopics(
+            KafkaOperations<String, byte[]> kafkaOperations,
+            ConsumerFactory<String, byte[]> consumerFactory,
+            List<Duration> delays,
+            Duration sendTimeout,
+            String group,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        if (group == null || group.isBlank()) {
+            throw new IllegalArgumentException("Retry topics need the consumer group that owns them");
+        }
+        for (Duration delay : delays) {
+            if (delay.isNegative() || delay.isZero()) {
+                throw new IllegalArgumentException("Retry delays must be positive");
+            }
+        }
+        this.kafkaOperations = kafkaOperations;
+        this.consumerFactory = consumerFactory;
+        this.delays = List.copyOf(delays);
+        this.suffixes = this.delays.stream().map(delay -> "." + group + suffix(delay)).toList();
+        this.deadLetterSuffix = "." + group + ".dlq";
+        this.sendTimeout = sendTimeout;
+        this.replayGroupId = group + "-dlq-replay";
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * The delay tier topics of {@code topic} for this consumer group, for a tier listener's {@code topics}
+     * attribute. Calling it also registers {@code topic} for {@link #replayDeadLetters}.
+     */
+    public String[] retryTopicsOf(String topic) {
+        mainTopics.add(topic);
+        return suffixes.stream().map(suffix -> topic + suffix).toArray(String[]::new);
+    }
+
+    public String deadLetterTopicOf(String topic) {
+        return mainTopicOf(topic) + deadLetterSuffix;
+    }
+
+    /**
+     * The id a record is deduplicated by: the event id on the main topic, and the event id plus the
+     * attempt number on a tier, so each attempt is handled once.
+     */
+    public String dedupId(ConsumerRecord<String, ?> record, String eventId) {
+        int attempt = attemptOf(record);
+        if (attempt == 0 || eventId == null || eventId.isBlank()) {
+            return eventId;
+        }
+        return eventId + "#retry-" + attempt;
+    }
+
+    /** Blocks until a tier record is due and records how late it was picked up; main-topic records pass straight through. */
+    public void awaitDue(ConsumerRecord<String, ?> record) {
+        Long dueAt = longHeader(record, DUE_AT_HEADER);
+        if (dueAt == null) {
+            return;
+        }
+        long wait = dueAt - clock.millis();
+        Timer.builder("kafka.retry.lag")
+                .tag("topic", mainTopicOf(record.topic()))
+                .tag("tier", tierOf(record.topic()))
+                .register(meterRegistry)
+                .record(Math.max(0, -wait), TimeUnit.MILLISECONDS);
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for retry of " + record.topic(), ex);
+        }
+    }
+
+    /**
+     * Sends a record whose handler failed to the next tier of its topic, or to the dead-letter topic after
+     * the last tier, and waits for the broker's ack. Throws if the send fails, so the caller falls back to
+     * redelivery.
+     */
+    public void forward(ConsumerRecord<String, ?> record, Exception cause) {
+        String target = nextTopicOf(record.topic());
+        send(record, target, attemptOf(record) + 1, describe(cause));
+        log.warn("Event at {}-{}@{} failed, forwarded to {}: {}",
+                record.topic(), record.partition(), record.offset(), target, cause.getMessage());
+    }
+
+    /** Sends a record that could not be parsed straight to the dead-letter topic; a retry would fail the same way. */
+    public void deadLetter(ConsumerRecord<String, ?> record, String reason) {
+        if (record.value() == null) {
+            return;
+        }
+        String target = deadLetterTopicOf(record.topic());
+        send(record, target, attemptOf(record), reason);
+        log.warn("Event at {}-{}@{} could not be read, sent to {}",
+                record.topic(), record.partition(), record.offset(), target);
+    }
+
+    /**
+     * Moves up to {@code limit} records from the dead-letter topics of every registered topic back to
+     * their first tier, with a fresh due time and the next attempt number. Progress is kept as the
+     * committed offsets of the replay consumer group, so a record is replayed once.
+     */
+    public synchronized int replayDeadLetters(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Replay limit must be at least 1");
+        }
+        if (suffixes.isEmpty()) {
+            return 0;
+        }
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(limit));
+        int replayed = 0;
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(replayGroupId, null, "-dlq-replay", overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : mainTopics) {
+                List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopicOf(topic));
+                if (infos != null) {
+                    infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+                }
+            }
+            if (partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            while (replayed < limit) {
+                ConsumerRecords<String, byte[]> polled = consumer.poll(Duration.ofSeconds(1));
+                if (polled.isEmpty()) {
+                    break;
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : polled) {
+                    if (replayed == limit) {
+                        break;
+                    }
+                    String mainTopic = mainTopicOf(record.topic());
+                    send(record, mainTopic + suffixes.get(0), attemptOf(record) + 1, headerText(record, ERROR_HEADER));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                    meterRegistry.counter("kafka.retry.replayed", "topic", mainTopic).increment();
+                    replayed++;
+                }
+                consumer.commitSync(offsets);
+            }
+        }
+        return replayed;
+    }
+
+    String nextTopicOf(String topic) {
+        String mainTopic = mainTopicOf(topic);
+        if (topic.endsWith(deadLetterSuffix)) {
+            return topic;
+        }
+        int tier = topic.equals(mainTopic) ? 0 : suffixes.indexOf(topic.substring(mainTopic.length())) + 1;
+        return tier < suffixes.size() ? mainTopic + suffixes.get(tier) : mainTopic + deadLetterSuffix;
+    }
+
+    String mainTopicOf(String topic) {
+        if (topic.endsWith(deadLetterSuffix)) {
+            return topic.substring(0, topic.length() - deadLetterSuffix.length());
+        }
+        for (String suffix : suffixes) {
+            if (topic.endsWith(suffix)) {
+                return topic.substring(0, topic.length() - suffix.length());
+            }
+        }
+        return topic;
+    }
+
+    private void send(ConsumerRecord<String, ?> record, String target, int attempt, String error) {
+        if (!(record.value() instanceof byte[] value)) {
+            throw new IllegalArgumentException("Retry topics carry byte[] values, got " + record.value().getClass().getName());
+        }
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("ecom-retry-")) {
+                headers.add(header);
+            }
+        }
+        headers.add(ATTEMPT_HEADER, Integer.toString(attempt).getBytes(StandardCharsets.UTF_8));
+        int tier = suffixes.indexOf(target.substring(mainTopicOf(target).length()));
+        if (tier >= 0) {
+            long dueAt = clock.millis() + delays.get(tier).toMillis();
+            headers.add(DUE_AT_HEADER, Long.toString(dueAt).getBytes(StandardCharsets.UTF_8));
+        }
+        if (error != null) {
+            headers.add(ERROR_HEADER, error.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            kafkaOperations.send(new ProducerRecord<>(target, null, record.key(), value, headers))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending to " + target, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Could not send event to " + target, ex);
+        }
+        meterRegistry.counter("kafka.retry.forwarded", "topic", mainTopicOf(target), "tier", tierOf(target)).increment();
+        DistributionSummary.builder("kafka.retry.depth")
+                .tag("topic", mainTopicOf(target))
+                .register(meterRegistry)
+                .record(attempt);
+    }
+
+    private String tierOf(String topic) {
+        String suffix = topic.substring(mainTopicOf(topic).length());
+        return suffix.isEmpty() ? "main" : suffix.substring(suffix.lastIndexOf('.') + 1);
+    }
+
+    private static int attemptOf(ConsumerRecord<String, ?> record) {
+        Long attempt = longHeader(record, ATTEMPT_HEADER);
+        return attempt == null ? 0 : attempt.intValue();
+    }
+
+    private static Long longHeader(ConsumerRecord<String, ?> record, String key) {
+        String text = headerText(record, key);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String headerText(ConsumerRecord<String, ?> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static String describe(Exception cause) {
+        String text = cause.getClass().getName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+        return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) : text;
+    }
+
+    private static String suffix(Duration delay) {
+        long millis = delay.toMillis();
+        return ".retry-" + (millis % 1000 == 0 ? millis / 1000 + "s" : millis + "ms");
+    }
+}
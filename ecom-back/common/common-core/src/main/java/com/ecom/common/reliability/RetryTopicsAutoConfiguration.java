@@ -0,0 +1,44 @@
+package com.ecom.common.reliability;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+@AutoConfiguration(after = KafkaAutoConfiguration.class)
+@ConditionalOnBean({KafkaTemplate.class, ConsumerFactory.class})
+public class RetryTopicsAutoConfiguration {
+
+    /**
+     * Named {@code retryTopics} so tier listeners can subscribe with {@code #{@retryTopics.retryTopicsOf('...')}}.
+     * Tiers belong to {@code app.kafka.retry.group}, the service's consumer group (its application name by default).
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RetryTopics retryTopics(
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            ConsumerFactory<String, byte[]> consumerFactory,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.kafka.retry.delays:1s,10s,60s}") List<Duration> delays,
+            @Value("${app.kafka.retry.send-timeout:PT10S}") Duration sendTimeout,
+            @Value("${app.kafka.retry.group:${spring.application.name:application}}") String group) {
+        return new RetryTopics(
+                kafkaTemplate,
+                consumerFactory,
+                delays,
+                sendTimeout,
+                group,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
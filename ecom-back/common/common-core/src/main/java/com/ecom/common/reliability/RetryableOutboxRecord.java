@@ -1,13 +1,31 @@
 package com.ecom.common.reliability;
 
+import java.time.Instant;
+
 public interface RetryableOutboxRecord {
 
+    String getId();
+
     String getTopic();
 
     String getMessageKey();
 
+    String getEventType();
+
+    /** Outbox partition of the row, from {@link OutboxPublishSupport#partitionOf}. */
+    int getPartitionNo();
+
     String getPayload();
 
+    /** Binary payload, set instead of {@link #getPayload()} for events written in a binary wire format. */
+    byte[] getPayloadBytes();
+
+    /** Schema id sent as a header with {@link #getPayloadBytes()}; null for JSON payloads. */
+    String getSchemaId();
+
+    /** When the row was written; the start of its outbox dwell time. */
+    Instant getCreatedAt();
+
     int getAttempts();
 
     void setAttempts(Integer attempts);
@@ -0,0 +1,81 @@
+package com.ecom.common.reliability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit-of-work buffer for outbox rows. Rows added inside a transaction are collected per transaction and
+ * handed to {@code writer} in one call right before the transaction commits, so a business operation that
+ * emits many events (a timeout sweep over 100 orders) writes them as one JDBC batch instead of one
+ * {@code INSERT} each. A rolled-back transaction drops its rows without touching the database. Outside a
+ * transaction a row is written immediately. Buffered rows are not visible to queries in the same
+ * transaction until {@link #flush()} is called.
+ */
+public final class TransactionalOutboxBuffer<T> {
+
+    private final Consumer<List<T>> writer;
+
+    public TransactionalOutboxBuffer(Consumer<List<T>> writer) {
+        this.writer = writer;
+    }
+
+    public void add(T record) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            writer.accept(List.of(record));
+            return;
+        }
+        List<T> pending = pending();
+        if (pending == null) {
+            pending = bind();
+        }
+        pending.add(record);
+    }
+
+    /** Writes the rows buffered by the current transaction now, for callers that read them back before commit. */
+    public void flush() {
+        List<T> pending = pending();
+        if (pending != null && !pending.isEmpty()) {
+            List<T> rows = new ArrayList<>(pending);
+            pending.clear();
+            writer.accept(rows);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> pending() {
+        return (List<T>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private List<T> bind() {
+        List<T> pending = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                // Resources are not suspended with the transaction; a REQUIRES_NEW inner one gets its own buffer.
+                TransactionSynchronizationManager.unbindResource(TransactionalOutboxBuffer.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TransactionalOutboxBuffer.this, pending);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                TransactionalOutboxBuffer.this.flush();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalOutboxBuffer.this);
+            }
+        });
+        return pending;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecom.common.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class ConsumerLagMonitorTest {
+
+    @Test
+    void lagIsSummedPerTopicAndSkipsPartitionsWithoutOffsets() {
+        TopicPartition created0 = new TopicPartition("order.created.v1", 0);
+        TopicPartition created1 = new TopicPartition("order.created.v1", 1);
+        TopicPartition retry0 = new TopicPartition("order.created.v1.retry-1s", 0);
+        TopicPartition failed0 = new TopicPartition("payment.failed.v1", 0);
+
+        Map<String, Long> lag = ConsumerLagMonitor.lagByTopic(
+                Map.of(created0, new OffsetAndMetadata(90), created1, new OffsetAndMetadata(40),
+                        retry0, new OffsetAndMetadata(12), failed0, new OffsetAndMetadata(5)),
+                Map.of(created0, 100L, created1, 45L, retry0, 10L));
+
+        assertEquals(Map.of("order.created.v1", 15L, "order.created.v1.retry-1s", 0L), lag);
+    }
+}
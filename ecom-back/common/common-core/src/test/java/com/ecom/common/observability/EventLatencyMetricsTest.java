@@ -0,0 +1,58 @@
+package com.ecom.common.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EventLatencyMetricsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EventLatencyMetrics metrics = new EventLatencyMetrics(meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void consumedParserRecordsLatencyPerTopicAndGroupFromOccurredAt() {
+        Function<ConsumerRecord<String, byte[]>, Optional<Instant>> parser = metrics.consumed(
+                "order-service",
+                record -> record.value() == null
+                        ? Optional.empty()
+                        : Optional.of(Instant.parse(new String(record.value(), StandardCharsets.UTF_8))),
+                Function.identity());
+
+        parser.apply(record("payment.authorized.v1", NOW.minusMillis(250).toString()));
+        parser.apply(record("payment.authorized.v1", NOW.plusSeconds(5).toString()));
+        parser.apply(record("payment.authorized.v1", null));
+
+        Timer timer = meterRegistry.get("events.consume.latency")
+                .tag("topic", "payment.authorized.v1").tag("group", "order-service").timer();
+        assertEquals(2, timer.count());
+        assertEquals(250, timer.totalTime(TimeUnit.MILLISECONDS), 0.001, "clock skew into the future counts as zero");
+    }
+
+    @Test
+    void sagaHopsAreTaggedByBothSteps() {
+        metrics.recordSagaHop("order.created", "payment.authorized.v1", Duration.ofSeconds(2));
+
+        assertEquals(2, meterRegistry.get("saga.hop.duration")
+                .tag("from", "order.created").tag("to", "payment.authorized.v1").timer().totalTime(TimeUnit.SECONDS), 0.001);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, String value) {
+        return new ConsumerRecord<>(topic, 0, 0, "ord-1", value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,198 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConsumerBatchSupportTest {
+
+    private final InMemoryDedup dedup = new InMemoryDedup();
+    private final List<String> handled = new ArrayList<>();
+
+    @Test
+    void batchIsDeduplicatedWithOneLookupAndHandledInOrder() {
+        dedup.seen.add("e1");
+
+        ConsumerBatchSupport.consume(
+                records("e1", "e2", "bad", "e3", "e2"),
+                record -> parse(record.value()),
+                event -> event,
+                dedup,
+                TransactionOperations.withoutTransaction(),
+                handled::add);
+
+        assertEquals(List.of("e2", "e3"), handled);
+        assertEquals(1, dedup.batchCalls);
+        assertEquals(0, dedup.singleCalls);
+    }
+
+    @Test
+    void failedBatchIsReplayedPerRecordAndReportsTheFailingIndex() {
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class, () ->
+                ConsumerBatchSupport.consume(
+                        records("e1", "e2", "e3"),
+                        record -> parse(record.value()),
+                        event -> event,
+                        dedup,
+                        rollingBack(),
+                        event -> {
+                            if (event.equals("e2")) {
+                                throw new IllegalStateException("boom");
+                            }
+                            handled.add(event);
+                        }));
+
+        assertEquals(1, failure.getIndex());
+        assertEquals(List.of("e1"), handled);
+        assertEquals(Set.of("e1"), dedup.seen);
+
+        // The container redelivers from the failed record; its mark rolled back with the handler.
+        ConsumerBatchSupport.consume(records("e2", "e3"), record -> parse(record.value()), event -> event,
+                dedup, rollingBack(), handled::add);
+        assertEquals(List.of("e1", "e2", "e3"), handled);
+    }
+
+    @Test
+    void failedRecordWithoutATransactionHasItsMarkRemovedForRedelivery() {
+        assertThrows(BatchListenerFailedException.class, () ->
+                ConsumerBatchSupport.consume(
+                        records("e1", "e2"),
+                        record -> parse(record.value()),
+                        event -> event,
+                        dedup,
+                        TransactionOperations.withoutTransaction(),
+                        event -> {
+                            if (event.equals("e2")) {
+                                throw new IllegalStateException("index unavailable");
+                            }
+                            handled.add(event);
+                        }));
+        assertEquals(Set.of("e1"), dedup.seen);
+
+        ConsumerBatchSupport.consume(records("e2"), record -> parse(record.value()), event -> event,
+                dedup, TransactionOperations.withoutTransaction(), handled::add);
+
+        assertEquals(List.of("e1", "e2"), handled);
+    }
+
+    @Test
+    void failedRecordIsForwardedToItsFirstTierAndTheRestOfTheBatchIsHandled() {
+        @SuppressWarnings("unchecked")
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        List<String> forwarded = new ArrayList<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, byte[]> record = invocation.getArgument(0);
+            forwarded.add(record.topic() + ":" + new String(record.value(), StandardCharsets.UTF_8));
+            return CompletableFuture.completedFuture(null);
+        });
+        RetryTopics retryTopics = new RetryTopics(kafkaTemplate, null, List.of(Duration.ofSeconds(1)),
+                Duration.ofSeconds(1), "group", new SimpleMeterRegistry());
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (String value : List.of("e1", "e2", "bad", "e3")) {
+            records.add(new ConsumerRecord<>("topic", 0, records.size(), "key", value.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        ConsumerBatchSupport.consume(
+                records,
+                record -> parse(new String(record.value(), StandardCharsets.UTF_8)),
+                event -> event,
+                dedup,
+                rollingBack(),
+                retryTopics,
+                event -> {
+                    if (event.equals("e2")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    handled.add(event);
+                });
+
+        assertEquals(List.of("e1", "e3"), handled);
+        assertEquals(List.of("topic.group.dlq:bad", "topic.group.retry-1s:e2"), forwarded);
+        assertTrue(dedup.seen.contains("e2"), "the retry tier owns e2, so its redelivery here is a duplicate");
+    }
+
+    /** Undoes dedup marks and handled events when the callback throws, like a rolled-back transaction. */
+    private TransactionOperations rollingBack() {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                Set<String> seenBefore = new HashSet<>(dedup.seen);
+                int handledBefore = handled.size();
+                try {
+                    return action.doInTransaction(new SimpleTransactionStatus());
+                } catch (RuntimeException ex) {
+                    dedup.seen.retainAll(seenBefore);
+                    handled.subList(handledBefore, handled.size()).clear();
+                    throw ex;
+                }
+            }
+        };
+    }
+
+    private Optional<String> parse(String value) {
+        return value.equals("bad") ? Optional.empty() : Optional.of(value);
+    }
+
+    private List<ConsumerRecord<String, String>> records(String... values) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            records.add(new ConsumerRecord<>("topic", 0, i, "key", values[i]));
+        }
+        return records;
+    }
+
+    private static final class InMemoryDedup implements EventDeduplicator {
+
+        private final Set<String> seen = new HashSet<>();
+        private int batchCalls;
+        private int singleCalls;
+
+        @Override
+        public boolean markIfNew(String eventId) {
+            singleCalls++;
+            return seen.add(eventId);
+        }
+
+        @Override
+        public Set<String> markAllIfNew(Collection<String> eventIds) {
+            batchCalls++;
+            Set<String> fresh = new LinkedHashSet<>();
+            for (String eventId : eventIds) {
+                if (seen.add(eventId)) {
+                    fresh.add(eventId);
+                }
+            }
+            return fresh;
+        }
+
+        @Override
+        public void forget(String eventId) {
+            seen.remove(eventId);
+        }
+    }
+}
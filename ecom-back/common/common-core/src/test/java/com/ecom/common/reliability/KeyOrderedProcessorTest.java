@@ -0,0 +1,189 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+class KeyOrderedProcessorTest {
+
+    private final KeyOrderedProcessor processor = new KeyOrderedProcessor("test", 4);
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final EventDeduplicator dedup = new EventDeduplicator() {
+        @Override
+        public boolean markIfNew(String eventId) {
+            return seen.add(eventId);
+        }
+
+        @Override
+        public Set<String> markAllIfNew(Collection<String> eventIds) {
+            throw new AssertionError("key-ordered mode marks records one at a time");
+        }
+
+        @Override
+        public void forget(String eventId) {
+            seen.remove(eventId);
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void slowKeyDoesNotBlockOtherKeysButKeepsItsOwnOrder() {
+        CountDownLatch otherKeyDone = new CountDownLatch(1);
+        List<String> handled = new CopyOnWriteArrayList<>();
+
+        processor.consume(
+                records(Map.entry("order-1", "a1"), Map.entry("order-2", "b1"), Map.entry("order-1", "a2")),
+                record -> Optional.of(record.value()),
+                event -> event,
+                dedup,
+                TransactionOperations.withoutTransaction(),
+                event -> {
+                    if (event.equals("a1")) {
+                        // Sequential processing would wait here forever: b1 sits behind a1 in the batch.
+                        await(otherKeyDone);
+                    }
+                    handled.add(event);
+                    if (event.equals("b1")) {
+                        otherKeyDone.countDown();
+                    }
+                });
+
+        assertEquals(List.of("b1", "a1", "a2"), handled);
+    }
+
+    @Test
+    void earliestFailedOffsetIsReportedAndItsKeyStops() {
+        List<String> handled = new CopyOnWriteArrayList<>();
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class, () ->
+                processor.consume(
+                        records(Map.entry("k1", "ok"), Map.entry("k2", "bad-2"), Map.entry("k2", "after"),
+                                Map.entry("k3", "bad-4"), Map.entry("k4", "other")),
+                        record -> Optional.of(record.value()),
+                        event -> event,
+                        dedup,
+                        TransactionOperations.withoutTransaction(),
+                        event -> {
+                            if (event.startsWith("bad")) {
+                                throw new IllegalStateException(event);
+                            }
+                            handled.add(event);
+                        }));
+
+        assertEquals(1, failure.getIndex());
+        assertTrue(handled.containsAll(List.of("ok", "other")));
+        assertEquals(2, handled.size());
+    }
+
+    @Test
+    void eachRecordRunsInItsOwnTransactionAndAFailedOneIsHandledOnRedelivery() {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        AtomicInteger transactions = new AtomicInteger();
+        TransactionOperations counting = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                transactions.incrementAndGet();
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        };
+
+        assertThrows(BatchListenerFailedException.class, () -> processor.consume(
+                records(Map.entry("k1", "ok"), Map.entry("k2", "flaky")),
+                record -> Optional.of(record.value()),
+                event -> event,
+                dedup,
+                counting,
+                event -> {
+                    if (event.equals("flaky")) {
+                        throw new IllegalStateException("forward failed");
+                    }
+                    handled.add(event);
+                }));
+        assertEquals(2, transactions.get());
+        assertEquals(Set.of("ok"), seen);
+
+        processor.consume(records(Map.entry("k2", "flaky")), record -> Optional.of(record.value()), event -> event,
+                dedup, counting, handled::add);
+
+        assertEquals(List.of("ok", "flaky"), handled);
+    }
+
+    @Test
+    void parallelismOfOneKeepsTheBatchTransactionPath() {
+        KeyOrderedProcessor sequential = new KeyOrderedProcessor("sequential", 1);
+        List<String> handled = new ArrayList<>();
+        List<Integer> batchCalls = new ArrayList<>();
+
+        sequential.consume(
+                records(Map.entry("k1", "e1"), Map.entry("k2", "e2")),
+                record -> Optional.of(record.value()),
+                event -> event,
+                new EventDeduplicator() {
+                    @Override
+                    public boolean markIfNew(String eventId) {
+                        throw new AssertionError("batch path marks the whole batch at once");
+                    }
+
+                    @Override
+                    public Set<String> markAllIfNew(Collection<String> eventIds) {
+                        batchCalls.add(eventIds.size());
+                        return new LinkedHashSet<>(eventIds);
+                    }
+
+                    @Override
+                    public void forget(String eventId) {
+                        throw new AssertionError("nothing fails in this batch");
+                    }
+                },
+                TransactionOperations.withoutTransaction(),
+                handled::add);
+
+        assertEquals(List.of("e1", "e2"), handled);
+        assertEquals(List.of(2), batchCalls);
+    }
+
+    @SafeVarargs
+    private static List<ConsumerRecord<String, String>> records(Map.Entry<String, String>... entries) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            records.add(new ConsumerRecord<>("topic", 0, i, entries[i].getKey(), entries[i].getValue()));
+        }
+        return records;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("other key never ran");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
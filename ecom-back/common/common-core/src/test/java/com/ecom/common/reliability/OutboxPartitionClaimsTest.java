@@ -0,0 +1,55 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecom.common.reliability.OutboxPartitionClaims.Candidate;
+import com.ecom.common.reliability.OutboxPartitionClaims.Split;
+
+class OutboxPartitionClaimsTest {
+
+    @Test
+    void fairShareRoundsUpSoEveryPartitionHasRoom() {
+        assertEquals(16, OutboxPartitionClaims.fairShare(16, 0));
+        assertEquals(8, OutboxPartitionClaims.fairShare(16, 2));
+        assertEquals(6, OutboxPartitionClaims.fairShare(16, 3));
+    }
+
+    @Test
+    void holderGivesUpPartitionsBeyondItsShareWhenAReplicaJoins() {
+        List<Candidate> held = new ArrayList<>();
+        for (int partition = 0; partition < 16; partition++) {
+            held.add(new Candidate(partition, true));
+        }
+
+        Split split = OutboxPartitionClaims.split(held, 8, 0);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), split.keep());
+        assertEquals(List.of(8, 9, 10, 11, 12, 13, 14, 15), split.give());
+    }
+
+    @Test
+    void newcomerTakesFreePartitionsFromItsOffset() {
+        List<Candidate> free = new ArrayList<>();
+        for (int partition = 8; partition < 16; partition++) {
+            free.add(new Candidate(partition, false));
+        }
+
+        Split split = OutboxPartitionClaims.split(free, 3, 14);
+
+        assertEquals(List.of(8, 14, 15), split.keep());
+        assertEquals(List.of(), split.give());
+    }
+
+    @Test
+    void sameKeyAlwaysMapsToTheSamePartition() {
+        int partition = OutboxPublishSupport.partitionOf("order-42", 16);
+
+        assertEquals(partition, OutboxPublishSupport.partitionOf("order-42", 16));
+        assertEquals(0, OutboxPublishSupport.partitionOf(null, 16));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+class OutboxPublishSupportTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+
+    @Test
+    void sendBatchFiresAllSendsBeforeWaitingAndSplitsOutcomes() {
+        CompletableFuture<SendResult<String, byte[]>> slow = new CompletableFuture<>();
+        when(kafkaTemplate.send(keyed("k1"))).thenReturn(slow);
+        when(kafkaTemplate.send(keyed("k2"))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send(keyed("k3"))).thenAnswer(invocation -> {
+            // The first ack is still outstanding when the third send is issued.
+            slow.complete(null);
+            return CompletableFuture.completedFuture(null);
+        });
+        TestRecord first = new TestRecord("k1", "p1", 0);
+        TestRecord second = new TestRecord("k2", "p2", 4);
+        TestRecord third = new TestRecord("k3", "p3", 0);
+
+        OutboxBatchResult<TestRecord> result = OutboxPublishSupport.sendBatch(
+                List.of(first, second, third), kafkaTemplate, 5, 10, Duration.ofSeconds(1));
+
+        assertEquals(List.of(first, third), result.sent());
+        assertEquals(List.of(second), result.unsent());
+        assertEquals("SENT", first.status);
+        assertNull(first.lastError);
+        assertEquals("FAILED", second.status);
+        assertEquals(5, second.attempts);
+        assertEquals("broker down", second.lastError);
+    }
+
+    @Test
+    void sendBatchTimesOutUnackedRecordsAsRetryable() {
+        when(kafkaTemplate.send(keyed("k1"))).thenReturn(new CompletableFuture<>());
+        TestRecord record = new TestRecord("k1", "p1", 0);
+
+        OutboxBatchResult<TestRecord> result = OutboxPublishSupport.sendBatch(
+                List.of(record), kafkaTemplate, 5, 1, Duration.ofMillis(50));
+
+        assertEquals(List.of(record), result.unsent());
+        assertEquals("PENDING", record.status);
+        assertEquals(1, record.attempts);
+    }
+
+    @Test
+    void binaryRecordsCarryTheirSchemaIdHeaderAndJsonRecordsNone() {
+        TestRecord json = new TestRecord("k1", "{}", 0);
+        TestRecord binary = new TestRecord("k2", null, 0);
+        binary.payloadBytes = new byte[] {1, 2};
+        binary.schemaId = "order.created.v1#0a0b0c0d";
+
+        ProducerRecord<String, byte[]> jsonRecord = OutboxPublishSupport.toProducerRecord(json);
+        ProducerRecord<String, byte[]> binaryRecord = OutboxPublishSupport.toProducerRecord(binary);
+
+        assertEquals("{}", new String(jsonRecord.value(), StandardCharsets.UTF_8));
+        assertNull(jsonRecord.headers().lastHeader(OutboxPublishSupport.SCHEMA_ID_HEADER));
+        assertEquals(binary.payloadBytes, binaryRecord.value());
+        assertEquals("order.created.v1#0a0b0c0d", new String(
+                binaryRecord.headers().lastHeader(OutboxPublishSupport.SCHEMA_ID_HEADER).value(), StandardCharsets.UTF_8));
+    }
+
+    private static ProducerRecord<String, byte[]> keyed(String key) {
+        return argThat(record -> record != null && key.equals(record.key()));
+    }
+
+    private static final class TestRecord implements RetryableOutboxRecord {
+
+        private final String key;
+        private final String payload;
+        private byte[] payloadBytes;
+        private String schemaId;
+        private int attempts;
+        private String lastError;
+        private String status = "PENDING";
+
+        private TestRecord(String key, String payload, int attempts) {
+            this.key = key;
+            this.payload = payload;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public String getId() {
+            return key + "-" + payload;
+        }
+
+        @Override
+        public String getTopic() {
+            return "t";
+        }
+
+        @Override
+        public String getEventType() {
+            return "test.v1";
+        }
+
+        @Override
+        public int getPartitionNo() {
+            return 0;
+        }
+
+        @Override
+        public String getMessageKey() {
+            return key;
+        }
+
+        @Override
+        public String getPayload() {
+            return payload;
+        }
+
+        @Override
+        public byte[] getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        @Override
+        public String getSchemaId() {
+            return schemaId;
+        }
+
+        @Override
+        public Instant getCreatedAt() {
+            return null;
+        }
+
+        @Override
+        public int getAttempts() {
+            return attempts;
+        }
+
+        @Override
+        public void setAttempts(Integer attempts) {
+            this.attempts = attempts;
+        }
+
+        @Override
+        public void setLastError(String lastError) {
+            this.lastError = lastError;
+        }
+
+        @Override
+        public void markSent() {
+            status = "SENT";
+        }
+
+        @Override
+        public void markPending() {
+            status = "PENDING";
+        }
+
+        @Override
+        public void markFailed() {
+            status = "FAILED";
+        }
+    }
+}
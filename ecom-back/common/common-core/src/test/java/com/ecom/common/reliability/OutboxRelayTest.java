@@ -0,0 +1,71 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class OutboxRelayTest {
+
+    private final AtomicInteger drains = new AtomicInteger();
+    private OutboxRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        relay.shutdown();
+    }
+
+    @Test
+    void signalWaitsForCommitBeforeDraining() throws InterruptedException {
+        CountDownLatch drained = new CountDownLatch(1);
+        relay = new OutboxRelay("test", () -> {
+            drains.incrementAndGet();
+            drained.countDown();
+        });
+        TransactionSynchronizationManager.initSynchronization();
+
+        relay.signalAfterCommit();
+        assertEquals(0, drains.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(drained.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void wakesDuringADrainCollapseIntoOneFollowUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch followUp = new CountDownLatch(2);
+        relay = new OutboxRelay("test", () -> {
+            drains.incrementAndGet();
+            started.countDown();
+            followUp.countDown();
+            try {
+                release.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        relay.wake();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            relay.wake();
+        }
+        release.countDown();
+
+        assertTrue(followUp.await(1, TimeUnit.SECONDS));
+        relay.shutdown();
+        assertEquals(2, drains.get());
+    }
+}
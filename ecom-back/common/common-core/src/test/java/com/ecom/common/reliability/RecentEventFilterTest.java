@@ -0,0 +1,77 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RecentEventFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void seededIdsAreNeverReportedAsDefinitelyNew() {
+        RecentEventFilter filter = new RecentEventFilter(meterRegistry, 10, 1_000, Duration.ofDays(1), 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.seed("event-" + i);
+        }
+        filter.seeded();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("event-" + i));
+        }
+        int positives = 0;
+        for (int i = 1_000; i < 11_000; i++) {
+            if (filter.mightContain("event-" + i)) {
+                positives++;
+            }
+        }
+        assertTrue(positives < 300, "false positives: " + positives);
+    }
+
+    @Test
+    void unseededFilterSendsEveryIdToTheQuery() {
+        RecentEventFilter filter = new RecentEventFilter(meterRegistry, 10, 1_000, Duration.ofDays(1), 0.01);
+
+        assertTrue(filter.mightContain("never-consumed"));
+    }
+
+    @Test
+    void definiteMissSkipsTheExistenceQueryAndRecentHitSkipsTheInsert() {
+        RecentEventFilter filter = new RecentEventFilter(meterRegistry, 10, 1_000, Duration.ofDays(1), 0.01);
+        filter.seeded();
+        AtomicInteger existsQueries = new AtomicInteger();
+        Set<String> table = new HashSet<>();
+
+        assertTrue(ConsumerDedupSupport.markIfNew("e1", filter, id -> {
+            existsQueries.incrementAndGet();
+            return table.contains(id);
+        }, table::add));
+        assertFalse(ConsumerDedupSupport.markIfNew("e1", filter, id -> {
+            existsQueries.incrementAndGet();
+            return table.contains(id);
+        }, table::add));
+
+        assertEquals(0, existsQueries.get());
+        assertEquals(Set.of("e1"), table);
+        assertEquals(1.0, filter.hitRatio());
+    }
+
+    @Test
+    void conflictingInsertIsADuplicateEvenWhenTheFilterMissedIt() {
+        RecentEventFilter filter = new RecentEventFilter(meterRegistry, 10, 1_000, Duration.ofDays(1), 0.01);
+        filter.seeded();
+        Set<String> table = new HashSet<>(List.of("consumed-elsewhere"));
+
+        assertFalse(ConsumerDedupSupport.markIfNew("consumed-elsewhere", filter, table::contains, table::add));
+    }
+}
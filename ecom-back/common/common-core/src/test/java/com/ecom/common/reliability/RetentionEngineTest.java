@@ -0,0 +1,86 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetentionEngineTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetentionEngine engine = new RetentionEngine(
+            jdbcTemplate, meterRegistry, 2, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void deletesInChunksUntilAShortChunkAndRepeatsTheExpiryCondition() {
+        RetentionPolicy sent = RetentionPolicy.olderThan("sentOutbox", "order_outbox_events", "id", "updated_at", Duration.ofDays(7))
+                .withStatus("status", "SENT");
+        String select = "select id from order_outbox_events where status = ? and updated_at < ? order by updated_at limit 2";
+        when(jdbcTemplate.queryForList(eq(select), eq(Object.class), any(Object[].class)))
+                .thenReturn(List.of("e1", "e2"), List.of("e3"));
+        List<Object[]> deleteArgs = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            deleteArgs.add(Arrays.copyOfRange(args, 1, args.length));
+            return args.length - 3;
+        });
+
+        long purged = engine.purge(sent);
+
+        assertEquals(3, purged);
+        Timestamp cutoff = Timestamp.from(NOW.minus(Duration.ofDays(7)));
+        assertArrayEquals(new Object[] {"e1", "e2", "SENT", cutoff}, deleteArgs.get(0));
+        assertArrayEquals(new Object[] {"e3", "SENT", cutoff}, deleteArgs.get(1));
+        verify(jdbcTemplate).update(
+                eq("delete from order_outbox_events where id in (?) and status = ? and updated_at < ?"), any(Object[].class));
+        assertEquals(3.0, meterRegistry.get("reliability.cleanup.purged").tag("policy", "sentOutbox").counter().count());
+        assertEquals(1, meterRegistry.get("reliability.cleanup.duration").tag("table", "order_outbox_events").timer().count());
+    }
+
+    @Test
+    void failedPolicyIsReportedAndTheNextOneStillRuns() {
+        RetentionPolicy broken = RetentionPolicy.olderThan("sagaTimeline", "order_saga_timeline", "id", "recorded_at", Duration.ofDays(30));
+        RetentionPolicy dedup = RetentionPolicy.olderThan("dedup", "order_consumed_events", "event_id", "consumed_at", Duration.ofDays(14));
+        when(jdbcTemplate.queryForList(eq("select id from order_saga_timeline where recorded_at < ? order by recorded_at limit 2"),
+                eq(Object.class), any(Object[].class))).thenThrow(new IllegalStateException("lock wait timeout"));
+        when(jdbcTemplate.queryForList(eq("select event_id from order_consumed_events where consumed_at < ? order by consumed_at limit 2"),
+                eq(Object.class), any(Object[].class))).thenReturn(List.of());
+
+        Map<String, Long> purged = engine.purgeAll(List.of(broken, dedup));
+
+        assertEquals(Map.of("sagaTimeline", 0L, "dedup", 0L), purged);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void policyRejectsIdentifiersThatAreNotPlainNames() {
+        assertThrows(IllegalArgumentException.class, () ->
+                RetentionPolicy.olderThan("dedup", "events; drop table orders", "id", "consumed_at", Duration.ofDays(1)));
+        assertThrows(IllegalArgumentException.class, () ->
+                RetentionPolicy.olderThan("dedup", "events", "id", "consumed_at", Duration.ZERO));
+    }
+}
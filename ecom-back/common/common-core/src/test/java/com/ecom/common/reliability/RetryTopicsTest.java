@@ -0,0 +1,173 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryTopicsTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, byte[]> consumerFactory = mock(ConsumerFactory.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ProducerRecord<String, byte[]>> sent = new ArrayList<>();
+    private final RetryTopics retryTopics = new RetryTopics(
+            kafkaTemplate, consumerFactory, List.of(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofSeconds(60)),
+            Duration.ofSeconds(1), "order-service", meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    RetryTopicsTest() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @Test
+    void failuresWalkTheTiersAndEndInTheDeadLetterTopic() {
+        assertArrayEquals(new String[] {"payment.failed.v1.order-service.retry-1s", "payment.failed.v1.order-service.retry-10s",
+                        "payment.failed.v1.order-service.retry-60s"},
+                retryTopics.retryTopicsOf("payment.failed.v1"));
+
+        ConsumerRecord<String, byte[]> record = record("payment.failed.v1", 0);
+        for (int attempt = 1; attempt <= 4; attempt++) {
+            retryTopics.forward(record, new IllegalStateException("db down"));
+            ProducerRecord<String, byte[]> forwarded = sent.get(sent.size() - 1);
+            ConsumerRecord<String, byte[]> next = new ConsumerRecord<>(forwarded.topic(), 0, attempt, forwarded.key(), forwarded.value());
+            forwarded.headers().forEach(header -> next.headers().add(header));
+            record = next;
+        }
+
+        assertEquals(List.of("payment.failed.v1.order-service.retry-1s", "payment.failed.v1.order-service.retry-10s",
+                "payment.failed.v1.order-service.retry-60s", "payment.failed.v1.order-service.dlq"),
+                sent.stream().map(ProducerRecord::topic).toList());
+        ProducerRecord<String, byte[]> secondTier = sent.get(1);
+        assertEquals("ord-1", secondTier.key());
+        assertEquals("trace", header(secondTier, "traceparent"));
+        assertEquals("2", header(secondTier, RetryTopics.ATTEMPT_HEADER));
+        assertEquals(Long.toString(NOW.plusSeconds(10).toEpochMilli()), header(secondTier, RetryTopics.DUE_AT_HEADER));
+        assertEquals("java.lang.IllegalStateException: db down", header(secondTier, RetryTopics.ERROR_HEADER));
+        assertEquals(4, secondTier.headers().toArray().length, "retry headers are replaced, not stacked");
+        assertNull(sent.get(3).headers().lastHeader(RetryTopics.DUE_AT_HEADER));
+        assertEquals("e1#retry-4", retryTopics.dedupId(record, "e1"));
+        assertEquals(1.0, meterRegistry.get("kafka.retry.forwarded").tag("tier", "dlq").counter().count());
+    }
+
+    @Test
+    void mainTopicRecordsKeepTheirEventIdAndUnreadableOnesSkipTheTiers() {
+        ConsumerRecord<String, byte[]> record = record("order.created.v1", 0);
+
+        retryTopics.deadLetter(record, "Event could not be read");
+        retryTopics.deadLetter(new ConsumerRecord<>("order.created.v1", 0, 1, "ord-2", null), "tombstone");
+
+        assertEquals("e1", retryTopics.dedupId(record, "e1"));
+        assertEquals(1, sent.size());
+        assertEquals("order.created.v1.order-service.dlq", sent.get(0).topic());
+        assertEquals("0", header(sent.get(0), RetryTopics.ATTEMPT_HEADER));
+    }
+
+    @Test
+    void groupsReadingOneTopicKeepSeparateTiers() {
+        RetryTopics paymentTiers = new RetryTopics(
+                kafkaTemplate, consumerFactory, List.of(Duration.ofSeconds(1)),
+                Duration.ofSeconds(1), "payment-service", meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+        RetryTopics inventoryTiers = new RetryTopics(
+                kafkaTemplate, consumerFactory, List.of(Duration.ofSeconds(1)),
+                Duration.ofSeconds(1), "inventory-service", meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertArrayEquals(new String[] {"order.created.v1.payment-service.retry-1s"}, paymentTiers.retryTopicsOf("order.created.v1"));
+        assertArrayEquals(new String[] {"order.created.v1.inventory-service.retry-1s"}, inventoryTiers.retryTopicsOf("order.created.v1"));
+
+        inventoryTiers.forward(record("order.created.v1", 0), new IllegalStateException("out of stock"));
+        inventoryTiers.forward(record("order.created.v1.inventory-service.retry-1s", 1), new IllegalStateException("out of stock"));
+        paymentTiers.forward(record("order.created.v1", 0), new IllegalStateException("provider down"));
+
+        assertEquals(List.of("order.created.v1.inventory-service.retry-1s", "order.created.v1.inventory-service.dlq",
+                "order.created.v1.payment-service.retry-1s"), sent.stream().map(ProducerRecord::topic).toList());
+        assertEquals("order.created.v1.payment-service.dlq", paymentTiers.deadLetterTopicOf("order.created.v1.payment-service.retry-1s"));
+        assertEquals(1.0, meterRegistry.get("kafka.retry.forwarded").tag("topic", "order.created.v1").tag("tier", "dlq").counter().count());
+    }
+
+    @Test
+    void failedForwardIsReportedToTheCaller() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(IllegalStateException.class,
+                () -> retryTopics.forward(record("order.created.v1", 0), new IllegalStateException("db down")));
+    }
+
+    @Test
+    void replayMovesDeadLettersBackToTheFirstTierOnce() {
+        retryTopics.retryTopicsOf("order.created.v1");
+        TopicPartition dlq = new TopicPartition("order.created.v1.order-service.dlq", 0);
+        Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+        MockConsumer<String, byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                committed.putAll(offsets);
+                super.commitSync(offsets);
+            }
+        };
+        consumer.updatePartitions(dlq.topic(), List.of(new PartitionInfo(dlq.topic(), 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(dlq, 0L));
+        for (int offset = 0; offset < 3; offset++) {
+            ConsumerRecord<String, byte[]> dead = record(dlq.topic(), offset);
+            dead.headers().add(RetryTopics.ATTEMPT_HEADER, "3".getBytes(StandardCharsets.UTF_8));
+            consumer.schedulePollTask(() -> consumer.addRecord(dead));
+        }
+        when(consumerFactory.createConsumer(eq("order-service-dlq-replay"), isNull(), eq("-dlq-replay"), any(Properties.class)))
+                .thenReturn(consumer);
+
+        int replayed = retryTopics.replayDeadLetters(2);
+
+        assertEquals(2, replayed);
+        assertEquals(List.of("order.created.v1.order-service.retry-1s", "order.created.v1.order-service.retry-1s"), sent.stream().map(ProducerRecord::topic).toList());
+        assertEquals("4", header(sent.get(0), RetryTopics.ATTEMPT_HEADER));
+        assertEquals(new OffsetAndMetadata(2), committed.get(dlq));
+        assertTrue(consumer.closed());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset) {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(topic, 0, offset, "ord-1", "{}".getBytes(StandardCharsets.UTF_8));
+        record.headers().add("traceparent", "trace".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecom.common.reliability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class TransactionalOutboxBufferTest {
+
+    private final List<List<String>> writes = new ArrayList<>();
+    private final TransactionalOutboxBuffer<String> buffer = new TransactionalOutboxBuffer<>(rows -> writes.add(List.copyOf(rows)));
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+    @Test
+    void rowsOfOneTransactionAreWrittenOnceRightBeforeCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            buffer.add("e1");
+            buffer.add("e2");
+            assertTrue(writes.isEmpty(), "nothing is written before commit");
+        });
+
+        assertEquals(List.of(List.of("e1", "e2")), writes);
+    }
+
+    @Test
+    void rolledBackTransactionWritesNothingAndOutsideATransactionWritesAtOnce() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            buffer.add("lost");
+            throw new IllegalStateException("order save failed");
+        }));
+        buffer.add("direct");
+
+        assertEquals(List.of(List.of("direct")), writes);
+    }
+
+    @Test
+    void requiresNewTransactionFlushesItsOwnRows() {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(outer -> {
+            buffer.add("outer-1");
+            requiresNew.executeWithoutResult(inner -> buffer.add("inner"));
+            buffer.add("outer-2");
+        });
+
+        assertEquals(List.of(List.of("inner"), List.of("outer-1", "outer-2")), writes);
+    }
+
+    /** Runs real synchronization callbacks without a resource behind them. */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.ecom.common.events;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.ecom.common.DomainEvent;
+import com.ecom.common.events.EventSchema.Field;
+import com.ecom.common.events.EventSchema.Node;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Schema-driven binary layout of a {@code DomainEvent}.
+ * The envelope is a version byte, the event id as 16 raw bytes, the occurrence time as epoch seconds and
+ * nanos, and the remaining envelope strings. The payload follows in {@link EventSchema} order without
+ * field names: varint lengths and counts, zig-zag varint integers and unscaled decimals. Every value
+ * starts with a byte or varint that is 0 for null or absent. Object fields the schema does not declare
+ * are kept as a trailing JSON blob, so nothing a producer adds is lost.
+ */
+final class BinaryEventFormat {
+
+    private static final int VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    BinaryEventFormat(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** Thrown when a payload value does not have the type its schema declares. */
+    static final class SchemaMismatchException extends IllegalArgumentException {
+
+        SchemaMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    byte[] write(DomainEvent<?> event, EventSchema schema, JsonNode payload) throws IOException {
+        Output out = new Output();
+        out.write(VERSION);
+        if (event.eventId() == null) {
+            out.write(0);
+        } else {
+            out.write(1);
+            out.writeFixedLong(event.eventId().getMostSignificantBits());
+            out.writeFixedLong(event.eventId().getLeastSignificantBits());
+        }
+        out.writeString(event.eventType());
+        if (event.occurredAt() == null) {
+            out.write(0);
+        } else {
+            out.write(1);
+            out.writeZigZag(event.occurredAt().getEpochSecond());
+            out.writeVarLong(event.occurredAt().getNano());
+        }
+        out.writeString(event.producer());
+        out.writeString(event.schemaVersion());
+        out.writeString(event.traceId());
+        write(schema.payload(), payload, out);
+        return out.toByteArray();
+    }
+
+    Optional<EventEnvelope> readEnvelope(byte[] bytes, EventSchema schema) {
+        try {
+            Input in = new Input(bytes, 0);
+            if (in.read() != VERSION) {
+                return Optional.empty();
+            }
+            String eventId = in.read() == 0 ? null : new UUID(in.readFixedLong(), in.readFixedLong()).toString();
+            String eventType = in.readString();
+            Instant occurredAt = in.read() == 0 ? null : Instant.ofEpochSecond(in.readZigZag(), in.readVarLong());
+            String producer = in.readString();
+            String schemaVersion = in.readString();
+            String traceId = in.readString();
+            int payloadOffset = in.position();
+            EventEnvelope.Payload payload = bytes[payloadOffset] == 0
+                    ? null
+                    : () -> decodePayload(schema, bytes, payloadOffset).asParser();
+            return Optional.of(new EventEnvelope(eventId, eventType, occurredAt, producer, schemaVersion, traceId, payload));
+        } catch (IOException | RuntimeException ex) {
+            return Optional.empty();
+        }
+    }
+
+    TokenBuffer decodePayload(EventSchema schema, byte[] bytes, int offset) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        read(schema.payload(), new Input(bytes, offset), buffer, null);
+        return buffer;
+    }
+
+    private void write(Node node, JsonNode value, Output out) throws IOException {
+        if (value == null || value.isNull() || value.isMissingNode()) {
+            out.write(0);
+            return;
+        }
+        switch (node.kind()) {
+            case STRING -> {
+                require(value.isTextual(), node, value);
+                out.writeString(value.textValue());
+            }
+            case INTEGER -> {
+                require(value.isIntegralNumber() && value.canConvertToLong(), node, value);
+                out.write(1);
+                out.writeZigZag(value.longValue());
+            }
+            case NUMBER -> {
+                require(value.isNumber(), node, value);
+                writeNumber(value, 1, out);
+            }
+            case STRING_OR_NUMBER -> {
+                require(value.isTextual() || value.isNumber(), node, value);
+                if (value.isTextual()) {
+                    out.write(3);
+                    out.writeString(value.textValue());
+                } else {
+                    writeNumber(value, 1, out);
+                }
+            }
+            case BOOLEAN -> {
+                require(value.isBoolean(), node, value);
+                out.write(value.booleanValue() ? 2 : 1);
+            }
+            case ARRAY -> {
+                require(value.isArray(), node, value);
+                out.writeVarLong(value.size() + 1L);
+                for (JsonNode item : value) {
+                    write(node.items(), item, out);
+                }
+            }
+            case OBJECT -> {
+                require(value.isObject(), node, value);
+                out.write(1);
+                for (Field field : node.fields()) {
+                    write(field.node(), value.get(field.name()), out);
+                }
+                ObjectNode extras = null;
+                for (Map.Entry<String, JsonNode> property : value.properties()) {
+                    if (!node.names().contains(property.getKey())) {
+                        if (extras == null) {
+                            extras = objectMapper.createObjectNode();
+                        }
+                        extras.set(property.getKey(), property.getValue());
+                    }
+                }
+                writeJson(extras, out);
+            }
+            case ANY -> writeJson(value, out);
+        }
+    }
+
+    /** Integral numbers as tag {@code first} plus a zig-zag varint, others as tag {@code first + 1} plus a decimal. */
+    private void writeNumber(JsonNode value, int first, Output out) {
+        if (value.isIntegralNumber() && value.canConvertToLong()) {
+            out.write(first);
+            out.writeZigZag(value.longValue());
+            return;
+        }
+        BigDecimal decimal = value.decimalValue();
+        out.write(first + 1);
+        out.writeZigZag(decimal.scale());
+        out.writeBytes(decimal.unscaledValue().toByteArray());
+    }
+
+    private void writeJson(JsonNode value, Output out) throws IOException {
+        if (value == null) {
+            out.write(0);
+            return;
+        }
+        out.writeBytes(objectMapper.writeValueAsBytes(value));
+    }
+
+    private static void require(boolean matches, Node node, JsonNode value) {
+        if (!matches) {
+            throw new SchemaMismatchException("Expected " + node.kind() + " but got " + value.getNodeType());
+        }
+    }
+
+    /** Writes the value at {@code in} to {@code gen}; inside an object, null values leave the field out. */
+    private void read(Node node, Input in, JsonGenerator gen, String field) throws IOException {
+        switch (node.kind()) {
+            case STRING -> {
+                String value = in.readString();
+                if (start(value != null, gen, field)) {
+                    gen.writeString(value);
+                }
+            }
+            case INTEGER -> {
+                if (start(in.read() != 0, gen, field)) {
+                    gen.writeNumber(in.readZigZag());
+                }
+            }
+            case NUMBER, STRING_OR_NUMBER -> {
+                int tag = in.read();
+                if (start(tag != 0, gen, field)) {
+                    switch (tag) {
+                        case 1 -> gen.writeNumber(in.readZigZag());
+                        case 2 -> {
+                            int scale = (int) in.readZigZag();
+                            gen.writeNumber(new BigDecimal(new BigInteger(in.readBytes()), scale));
+                        }
+                        case 3 -> gen.writeString(in.readString());
+                        default -> throw new IOException("Unknown number tag " + tag);
+                    }
+                }
+            }
+            case BOOLEAN -> {
+                int tag = in.read();
+                if (start(tag != 0, gen, field)) {
+                    gen.writeBoolean(tag == 2);
+                }
+            }
+            case ARRAY -> {
+                long count = in.readVarLong() - 1;
+                if (start(count >= 0, gen, field)) {
+                    gen.writeStartArray();
+                    for (long i = 0; i < count; i++) {
+                        read(node.items(), in, gen, null);
+                    }
+                    gen.writeEndArray();
+                }
+            }
+            case OBJECT -> {
+                if (start(in.read() != 0, gen, field)) {
+                    gen.writeStartObject();
+                    for (Field child : node.fields()) {
+                        read(child.node(), in, gen, child.name());
+                    }
+                    byte[] extras = in.readBytes();
+                    if (extras != null) {
+                        try (JsonParser parser = objectMapper.getFactory().createParser(extras)) {
+                            parser.nextToken();
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                gen.writeFieldName(parser.currentName());
+                                parser.nextToken();
+                                gen.copyCurrentStructure(parser);
+                            }
+                        }
+                    }
+                    gen.writeEndObject();
+                }
+            }
+            case ANY -> {
+                byte[] json = in.readBytes();
+                if (start(json != null, gen, field)) {
+                    try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+                        parser.nextToken();
+                        gen.copyCurrentStructure(parser);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean start(boolean present, JsonGenerator gen, String field) throws IOException {
+        if (!present) {
+            if (field == null) {
+                gen.writeNull();
+            }
+            return false;
+        }
+        if (field != null) {
+            gen.writeFieldName(field);
+        }
+        return true;
+    }
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void write(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeFixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /** Length plus one, then the bytes; a lone 0 is null. */
+        void writeBytes(byte[] value) {
+            if (value == null) {
+                write(0);
+                return;
+            }
+            writeVarLong(value.length + 1L);
+            ensure(value.length);
+            System.arraycopy(value, 0, buffer, size, value.length);
+            size += value.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int position() {
+            return position;
+        }
+
+        int read() throws IOException {
+            if (position >= buffer.length) {
+                throw new IOException("Truncated binary event");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        long readFixedLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | read();
+            }
+            return value;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int next = read();
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in binary event");
+        }
+
+        long readZigZag() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        byte[] readBytes() throws IOException {
+            long length = readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.length - position) {
+                throw new IOException("Truncated binary event");
+            }
+            byte[] value = Arrays.copyOfRange(buffer, position, position + (int) length);
+            position += (int) length;
+            return value;
+        }
+
+        String readString() throws IOException {
+            long length = readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.length - position) {
+                throw new IOException("Truncated binary event");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecom.common.events;
+
+/**
+ * An event ready for the outbox: either JSON text, or binary bytes plus the schema id that has to
+ * travel with them in the {@link EventCodec#SCHEMA_ID_HEADER} header.
+ */
+public record EncodedEvent(String schemaId, String json, byte[] binary) {
+
+    static EncodedEvent json(String json) {
+        return new EncodedEvent(null, json, null);
+    }
+
+    static EncodedEvent binary(String schemaId, byte[] binary) {
+        return new EncodedEvent(schemaId, null, binary);
+    }
+
+    public boolean isBinary() {
+        return binary != null;
+    }
+}
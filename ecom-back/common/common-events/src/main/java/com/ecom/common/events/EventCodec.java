@@ -0,0 +1,279 @@
+package com.ecom.common.events;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ecom.common.DomainEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Encodes and decodes {@code DomainEvent} messages in JSON or in the schema-driven binary format.
+ * Decoding takes two steps: {@link #envelope} reads the top-level fields and only remembers where the
+ * payload is, and {@link #payload} binds the payload to a record through an {@link ObjectReader} built
+ * once per type. Unknown payload fields are ignored so producers can add fields without breaking
+ * consumers. The wire format of a Kafka record is chosen by its {@link #SCHEMA_ID_HEADER} header, so
+ * JSON and binary records can share a topic while producers migrate.
+ */
+public final class EventCodec {
+
+    /** Header carrying the {@link EventSchema#id()} of a binary record; records without it are JSON. */
+    public static final String SCHEMA_ID_HEADER = "ecom-schema-id";
+
+    private static final Logger log = LoggerFactory.getLogger(EventCodec.class);
+
+    private final JsonFactory jsonFactory;
+    private final ObjectMapper objectMapper;
+    private final EventSchemaRegistry schemas;
+    private final Set<String> binaryEventTypes;
+    private final MeterRegistry meterRegistry;
+    private final BinaryEventFormat binaryFormat;
+    private final ObjectReader mapReader;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public EventCodec(ObjectMapper objectMapper) {
+        this(objectMapper, EventSchemaRegistry.load(), Set.of(), Metrics.globalRegistry);
+    }
+
+    public EventCodec(
+            ObjectMapper objectMapper,
+            EventSchemaRegistry schemas,
+            Set<String> binaryEventTypes,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.schemas = schemas;
+        this.binaryEventTypes = Set.copyOf(binaryEventTypes);
+        this.meterRegistry = meterRegistry;
+        this.binaryFormat = new BinaryEventFormat(objectMapper);
+        this.mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+    }
+
+    /**
+     * Encodes an event for the outbox. Event types listed in {@code app.events.binary-event-types} that
+     * have a schema are written in the binary format. Every other event is written as JSON, and so is a
+     * binary-enabled event whose payload does not match its schema.
+     */
+    public EncodedEvent encode(DomainEvent<?> event) {
+        String eventType = event.eventType();
+        Optional<EventSchema> schema = binaryEventTypes.contains(eventType) ? schemas.forEventType(eventType) : Optional.empty();
+        if (schema.isPresent()) {
+            try {
+                byte[] binary = binaryFormat.write(event, schema.get(), objectMapper.valueToTree(event.payload()));
+                recordSize(eventType, "binary", binary.length);
+                return EncodedEvent.binary(schema.get().id(), binary);
+            } catch (IOException | IllegalArgumentException ex) {
+                meterRegistry.counter("events.encoded.fallback", "event.type", eventType).increment();
+                log.warn("Event {} does not match schema {}, writing JSON: {}", eventType, schema.get().id(), ex.getMessage());
+            }
+        }
+        try {
+            String json = objectMapper.writeValueAsString(event);
+            recordSize(eventType, "json", utf8Length(json));
+            return EncodedEvent.json(json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize event " + eventType, ex);
+        }
+    }
+
+    /** Reads the envelope of a Kafka record in the format its {@link #SCHEMA_ID_HEADER} header names. */
+    public Optional<EventEnvelope> envelope(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(SCHEMA_ID_HEADER);
+        return envelope(record.value(), header == null ? null : new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    /** Reads the envelope of {@code value}: JSON when {@code schemaId} is null, binary otherwise. */
+    public Optional<EventEnvelope> envelope(byte[] value, String schemaId) {
+        if (value == null || value.length == 0) {
+            return Optional.empty();
+        }
+        if (schemaId == null) {
+            try {
+                return readJson(jsonFactory.createParser(value), true,
+                        (start, end) -> () -> jsonFactory.createParser(value, start, end - start));
+            } catch (IOException ex) {
+                return Optional.empty();
+            }
+        }
+        Optional<EventSchema> schema = schemas.forId(schemaId);
+        if (schema.isEmpty()) {
+            log.warn("Skipping event with unknown schema id {}", schemaId);
+            return Optional.empty();
+        }
+        return binaryFormat.readEnvelope(value, schema.get());
+    }
+
+    /** Reads the envelope of a JSON message; empty when the message is blank or not a JSON object. */
+    public Optional<EventEnvelope> envelope(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return readJson(jsonFactory.createParser(raw), false,
+                    (start, end) -> () -> jsonFactory.createParser(raw.substring(start, end)));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /** Binds the envelope's payload to {@code type}; empty when there is no payload or it does not bind. */
+    public <T> Optional<T> payload(EventEnvelope envelope, Class<T> type) {
+        return read(envelope, reader(type));
+    }
+
+    /**
+     * The event with its payload as a generic map, for consumers that render the whole payload rather
+     * than binding a record. Empty when the payload does not decode or the event id is not a UUID.
+     */
+    public Optional<DomainEvent<Map<String, Object>>> domainEvent(EventEnvelope envelope) {
+        UUID eventId;
+        try {
+            eventId = envelope.eventId() == null ? null : UUID.fromString(envelope.eventId());
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        Map<String, Object> payload = null;
+        if (envelope.hasPayload()) {
+            Optional<Map<String, Object>> decoded = read(envelope, mapReader);
+            if (decoded.isEmpty()) {
+                return Optional.empty();
+            }
+            payload = decoded.get();
+        }
+        return Optional.of(new DomainEvent<>(eventId, envelope.eventType(), envelope.occurredAt(),
+                envelope.producer(), envelope.schemaVersion(), envelope.traceId(), payload));
+    }
+
+    private <T> Optional<T> read(EventEnvelope envelope, ObjectReader reader) {
+        if (!envelope.hasPayload()) {
+            return Optional.empty();
+        }
+        try (JsonParser parser = envelope.payload().open()) {
+            return Optional.ofNullable(reader.readValue(parser));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, key -> objectMapper.readerFor(key)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    }
+
+    private Optional<EventEnvelope> readJson(JsonParser parser, boolean bytes, PayloadSpan span) throws IOException {
+        try (parser) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            String eventId = null;
+            String eventType = null;
+            Instant occurredAt = null;
+            String producer = null;
+            String schemaVersion = null;
+            String traceId = null;
+            EventEnvelope.Payload payload = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "eventId" -> eventId = text(parser, value);
+                    case "eventType" -> eventType = text(parser, value);
+                    case "occurredAt" -> occurredAt = instant(parser, value);
+                    case "producer" -> producer = text(parser, value);
+                    case "schemaVersion" -> schemaVersion = text(parser, value);
+                    case "traceId" -> traceId = text(parser, value);
+                    case "payload" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            int start = offset(parser.currentTokenLocation(), bytes);
+                            parser.skipChildren();
+                            payload = span.of(start, offset(parser.currentLocation(), bytes));
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            return Optional.of(new EventEnvelope(eventId, eventType, occurredAt, producer, schemaVersion, traceId, payload));
+        } catch (IOException | DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private void recordSize(String eventType, String format, int bytes) {
+        DistributionSummary.builder("events.encoded.size")
+                .baseUnit("bytes")
+                .tag("event.type", eventType == null ? "unknown" : eventType)
+                .tag("format", format)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static int offset(JsonLocation location, boolean bytes) {
+        return (int) (bytes ? location.getByteOffset() : location.getCharOffset());
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Two bytes below U+0800, three above; each half of a surrogate pair adds one of the four.
+                length += c < 0x800 || Character.isSurrogate(c) ? 1 : 2;
+            }
+        }
+        return length;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static Instant instant(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return Instant.parse(parser.getText());
+        }
+        if (value.isNumeric()) {
+            // Jackson's timestamp form: seconds with a nanosecond fraction.
+            BigDecimal seconds = parser.getDecimalValue();
+            return Instant.ofEpochSecond(seconds.longValue(), seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+        }
+        text(parser, value);
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface PayloadSpan {
+
+        EventEnvelope.Payload of(int start, int end);
+    }
+}
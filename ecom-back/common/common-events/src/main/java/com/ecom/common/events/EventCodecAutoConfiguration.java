@@ -0,0 +1,34 @@
+package com.ecom.common.events;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@ConditionalOnBean(ObjectMapper.class)
+public class EventCodecAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventCodec eventCodec(
+            ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.events.binary-event-types:}") Set<String> binaryEventTypes) {
+        return new EventCodec(
+                objectMapper,
+                EventSchemaRegistry.load(),
+                binaryEventTypes,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
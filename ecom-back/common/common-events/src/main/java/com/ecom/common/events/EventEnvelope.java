@@ -0,0 +1,78 @@
+package com.ecom.common.events;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Envelope fields of a {@code DomainEvent}, read without decoding the payload.
+ * The payload stays in the raw message (a JSON span or the binary remainder) until
+ * {@link EventCodec#payload} is asked for it, so events dropped by dedup never build a payload object.
+ */
+public final class EventEnvelope {
+
+    private final String eventId;
+    private final String eventType;
+    private final Instant occurredAt;
+    private final String producer;
+    private final String schemaVersion;
+    private final String traceId;
+    private final Payload payload;
+
+    EventEnvelope(
+            String eventId,
+            String eventType,
+            Instant occurredAt,
+            String producer,
+            String schemaVersion,
+            String traceId,
+            Payload payload) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.occurredAt = occurredAt;
+        this.producer = producer;
+        this.schemaVersion = schemaVersion;
+        this.traceId = traceId;
+        this.payload = payload;
+    }
+
+    public String eventId() {
+        return eventId;
+    }
+
+    public String eventType() {
+        return eventType;
+    }
+
+    public Instant occurredAt() {
+        return occurredAt;
+    }
+
+    public String producer() {
+        return producer;
+    }
+
+    public String schemaVersion() {
+        return schemaVersion;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public boolean hasPayload() {
+        return payload != null;
+    }
+
+    Payload payload() {
+        return payload;
+    }
+
+    /** Opens a parser positioned before the payload's first token. */
+    @FunctionalInterface
+    interface Payload {
+
+        JsonParser open() throws IOException;
+    }
+}
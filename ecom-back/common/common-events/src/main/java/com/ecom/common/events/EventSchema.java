@@ -0,0 +1,101 @@
+package com.ecom.common.events;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Binary field layout compiled from one payload schema in {@code contracts/events/schemas}.
+ * Properties are written in the order the schema declares them, without names; the id is the event
+ * type plus a checksum of the schema, so producer and consumer only decode with the same layout.
+ */
+public final class EventSchema {
+
+    enum Kind {
+        STRING, INTEGER, NUMBER, STRING_OR_NUMBER, BOOLEAN, ARRAY, OBJECT, ANY
+    }
+
+    record Field(String name, Node node) {
+    }
+
+    record Node(Kind kind, Node items, List<Field> fields, Set<String> names) {
+
+        static Node leaf(Kind kind) {
+            return new Node(kind, null, List.of(), Set.of());
+        }
+    }
+
+    private final String id;
+    private final String eventType;
+    private final Node payload;
+
+    private EventSchema(String id, String eventType, Node payload) {
+        this.id = id;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    static EventSchema compile(String eventType, JsonNode schema, byte[] canonical) {
+        CRC32 checksum = new CRC32();
+        checksum.update(canonical);
+        return new EventSchema(String.format("%s#%08x", eventType, checksum.getValue()), eventType, node(schema));
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String eventType() {
+        return eventType;
+    }
+
+    Node payload() {
+        return payload;
+    }
+
+    private static Node node(JsonNode schema) {
+        if (schema == null || !schema.isObject()) {
+            return Node.leaf(Kind.ANY);
+        }
+        Set<String> types = new HashSet<>();
+        JsonNode type = schema.get("type");
+        if (type != null && type.isTextual()) {
+            types.add(type.asText());
+        } else if (type != null && type.isArray()) {
+            type.forEach(value -> types.add(value.asText()));
+        }
+        types.remove("null");
+        if (types.equals(Set.of("string", "number"))) {
+            return Node.leaf(Kind.STRING_OR_NUMBER);
+        }
+        if (types.size() != 1) {
+            return Node.leaf(Kind.ANY);
+        }
+        return switch (types.iterator().next()) {
+            case "string" -> Node.leaf(Kind.STRING);
+            case "integer" -> Node.leaf(Kind.INTEGER);
+            case "number" -> Node.leaf(Kind.NUMBER);
+            case "boolean" -> Node.leaf(Kind.BOOLEAN);
+            case "array" -> new Node(Kind.ARRAY, node(schema.get("items")), List.of(), Set.of());
+            case "object" -> object(schema.get("properties"));
+            default -> Node.leaf(Kind.ANY);
+        };
+    }
+
+    private static Node object(JsonNode properties) {
+        List<Field> fields = new ArrayList<>();
+        if (properties != null && properties.isObject()) {
+            for (Map.Entry<String, JsonNode> property : properties.properties()) {
+                fields.add(new Field(property.getKey(), node(property.getValue())));
+            }
+        }
+        Set<String> names = new HashSet<>();
+        fields.forEach(field -> names.add(field.name()));
+        return new Node(Kind.OBJECT, null, List.copyOf(fields), Set.copyOf(names));
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecom.common.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Payload schemas packaged from {@code contracts/events/schemas}, compiled once at startup and looked
+ * up by event type when encoding and by schema id when decoding.
+ */
+public final class EventSchemaRegistry {
+
+    private static final String LOCATION = "classpath*:contracts/events/schemas/*.json";
+    // Plain mapper so schema ids do not depend on a service's ObjectMapper customizations.
+    private static final ObjectMapper SCHEMA_MAPPER = new ObjectMapper();
+
+    private final Map<String, EventSchema> byEventType = new HashMap<>();
+    private final Map<String, EventSchema> byId = new HashMap<>();
+
+    EventSchemaRegistry(Collection<EventSchema> schemas) {
+        for (EventSchema schema : schemas) {
+            byEventType.put(schema.eventType(), schema);
+            byId.put(schema.id(), schema);
+        }
+    }
+
+    public static EventSchemaRegistry load() {
+        Map<String, EventSchema> schemas = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String filename = resource.getFilename();
+                if (filename == null || !filename.endsWith(".json")) {
+                    continue;
+                }
+                String eventType = filename.substring(0, filename.length() - ".json".length());
+                try (InputStream in = resource.getInputStream()) {
+                    JsonNode schema = SCHEMA_MAPPER.readTree(in);
+                    schemas.put(eventType, EventSchema.compile(eventType, schema, SCHEMA_MAPPER.writeValueAsBytes(schema)));
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not load event schemas from " + LOCATION, ex);
+        }
+        return new EventSchemaRegistry(schemas.values());
+    }
+
+    public Optional<EventSchema> forEventType(String eventType) {
+        return Optional.ofNullable(byEventType.get(eventType));
+    }
+
+    public Optional<EventSchema> forId(String schemaId) {
+        return Optional.ofNullable(byId.get(schemaId));
+    }
+}
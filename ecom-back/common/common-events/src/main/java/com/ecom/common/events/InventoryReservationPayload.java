@@ -0,0 +1,5 @@
+package com.ecom.common.events;
+
+/** Payload of both {@code inventory.reserved.v1} and {@code inventory.reservation.failed.v1}. */
+public record InventoryReservationPayload(String orderId, String reason, String emittedAt) {
+}
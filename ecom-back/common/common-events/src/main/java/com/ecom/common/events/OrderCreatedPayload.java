@@ -0,0 +1,16 @@
+package com.ecom.common.events;
+
+import java.util.List;
+
+public record OrderCreatedPayload(
+        String orderId,
+        Long userId,
+        String currency,
+        String status,
+        String createdAt,
+        List<Item> items
+) {
+
+    public record Item(String productId, String sku, int quantity, String unitPrice) {
+    }
+}
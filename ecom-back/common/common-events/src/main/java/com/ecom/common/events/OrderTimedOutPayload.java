@@ -0,0 +1,4 @@
+package com.ecom.common.events;
+
+public record OrderTimedOutPayload(String orderId, Long userId, String status, String timedOutAt) {
+}
@@ -0,0 +1,12 @@
+package com.ecom.common.events;
+
+/** Payload of both {@code payment.authorized.v1} and {@code payment.failed.v1}. */
+public record PaymentResultPayload(
+        String orderId,
+        String paymentId,
+        String providerPaymentId,
+        String status,
+        String reason,
+        String occurredAt
+) {
+}
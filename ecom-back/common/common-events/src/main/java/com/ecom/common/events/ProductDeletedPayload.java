@@ -0,0 +1,4 @@
+package com.ecom.common.events;
+
+public record ProductDeletedPayload(String productId) {
+}
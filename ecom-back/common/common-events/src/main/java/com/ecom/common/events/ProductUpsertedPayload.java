@@ -0,0 +1,17 @@
+package com.ecom.common.events;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductUpsertedPayload(
+        String productId,
+        String name,
+        String description,
+        String category,
+        String brand,
+        BigDecimal price,
+        List<String> colors,
+        List<String> sizes,
+        Boolean active
+) {
+}
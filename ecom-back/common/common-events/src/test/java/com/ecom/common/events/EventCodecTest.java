@@ -0,0 +1,130 @@
+package com.ecom.common.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ecom.common.DomainEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EventCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final EventCodec codec = new EventCodec(objectMapper);
+
+    @Test
+    void readsEnvelopeAndBindsPayloadOnDemand() throws Exception {
+        UUID eventId = UUID.randomUUID();
+        Instant occurredAt = Instant.parse("2026-03-01T10:15:30.123456Z");
+        Map<String, Object> payload = Map.of(
+                "orderId", "order-1",
+                "userId", 7,
+                "currency", "INR",
+                "items", List.of(Map.of("sku", "SKU-1", "quantity", "2", "extra", true)));
+        String raw = objectMapper.writeValueAsString(new DomainEvent<>(
+                eventId, "order.created.v1", occurredAt, "order-service", "v1", "trace-1", payload));
+
+        EventEnvelope envelope = codec.envelope(raw).orElseThrow();
+        OrderCreatedPayload order = codec.payload(envelope, OrderCreatedPayload.class).orElseThrow();
+
+        assertEquals(eventId.toString(), envelope.eventId());
+        assertEquals("order.created.v1", envelope.eventType());
+        assertEquals(occurredAt, envelope.occurredAt());
+        assertEquals("trace-1", envelope.traceId());
+        assertEquals("order-1", order.orderId());
+        assertEquals(7L, order.userId());
+        assertEquals(List.of(new OrderCreatedPayload.Item(null, "SKU-1", 2, null)), order.items());
+    }
+
+    @Test
+    void envelopeWithoutPayloadOrMalformedMessageYieldsEmpty() {
+        EventEnvelope envelope = codec.envelope("{\"eventId\":\"e1\",\"payload\":null}").orElseThrow();
+
+        assertFalse(envelope.hasPayload());
+        assertTrue(codec.payload(envelope, ProductDeletedPayload.class).isEmpty());
+        assertTrue(codec.envelope("not json").isEmpty());
+        assertTrue(codec.envelope("[1,2]").isEmpty());
+    }
+
+    @Test
+    void payloadSpanSurvivesFieldsAfterIt() {
+        EventEnvelope envelope = codec.envelope(
+                "{\"payload\":{\"productId\":\"p-1\",\"nested\":{\"a\":[1,{\"b\":2}]}},\"eventId\":\"e2\"}").orElseThrow();
+
+        assertEquals("e2", envelope.eventId());
+        assertEquals("p-1", codec.payload(envelope, ProductDeletedPayload.class).orElseThrow().productId());
+    }
+
+    @Test
+    void binaryEventRoundTripsThroughTheSchemaAndKeepsUndeclaredFields() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventCodec binaryCodec = new EventCodec(
+                objectMapper, EventSchemaRegistry.load(), Set.of("order.created.v1"), meterRegistry);
+        UUID eventId = UUID.randomUUID();
+        Map<String, Object> item = Map.of("productId", "p-1", "sku", "SKU-1", "quantity", 2, "unitPrice", "499.00");
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", "order-1");
+        payload.put("userId", 7);
+        payload.put("currency", "INR");
+        payload.put("status", "PENDING_PAYMENT");
+        payload.put("items", List.of(item));
+        payload.put("createdAt", "2026-03-01T10:15:30Z");
+        payload.put("couponCode", "SPRING");
+        DomainEvent<Object> event = new DomainEvent<>(
+                eventId, "order.created.v1", Instant.parse("2026-03-01T10:15:30.5Z"), "order-service", "v1", "trace-1", payload);
+
+        EncodedEvent encoded = binaryCodec.encode(event);
+        EventEnvelope envelope = binaryCodec.envelope(encoded.binary(), encoded.schemaId()).orElseThrow();
+
+        assertTrue(encoded.isBinary());
+        assertTrue(encoded.schemaId().startsWith("order.created.v1#"));
+        assertEquals(eventId.toString(), envelope.eventId());
+        assertEquals(Instant.parse("2026-03-01T10:15:30.5Z"), envelope.occurredAt());
+        assertEquals(List.of(new OrderCreatedPayload.Item("p-1", "SKU-1", 2, "499.00")),
+                binaryCodec.payload(envelope, OrderCreatedPayload.class).orElseThrow().items());
+        Map<String, Object> decoded = binaryCodec.domainEvent(envelope).orElseThrow().payload();
+        assertEquals("SPRING", decoded.get("couponCode"));
+        assertEquals(7, ((Number) decoded.get("userId")).intValue());
+        assertTrue(encoded.binary().length < objectMapper.valueToTree(event).toString().length());
+        assertEquals(1, meterRegistry.get("events.encoded.size").tag("format", "binary").summary().count());
+    }
+
+    @Test
+    void payloadThatBreaksItsSchemaFallsBackToJsonReadableWithoutHeader() {
+        EventCodec binaryCodec = new EventCodec(
+                objectMapper, EventSchemaRegistry.load(), Set.of("product.upserted.v1"), new SimpleMeterRegistry());
+        DomainEvent<Object> event = new DomainEvent<>(
+                UUID.randomUUID(), "product.upserted.v1", Instant.now(), "product-service", "v1", null,
+                Map.of("productId", "p-1", "name", 42, "price", new BigDecimal("9.50")));
+
+        EncodedEvent encoded = binaryCodec.encode(event);
+        EventEnvelope envelope = binaryCodec.envelope(encoded.json().getBytes(StandardCharsets.UTF_8), null).orElseThrow();
+
+        assertFalse(encoded.isBinary());
+        assertNull(encoded.schemaId());
+        assertNull(envelope.traceId());
+        ProductUpsertedPayload product = binaryCodec.payload(envelope, ProductUpsertedPayload.class).orElseThrow();
+        assertEquals("42", product.name());
+        assertEquals(new BigDecimal("9.50"), product.price());
+        assertTrue(binaryCodec.envelope(new byte[] {1, 2, 3}, "product.upserted.v1#00000000").isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecom.common.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecom.common.reliability.ConsumerDedupSupport;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.RecentEventFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Consumer-side dedup over {@code <prefix>_consumed_events}, with a {@link RecentEventFilter} in front of the table. */
+public class ConsumerDedupService implements EventDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerDedupService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final RecentEventFilter filter;
+    private final Duration retention;
+
+    public ConsumerDedupService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            String tablePrefix,
+            Duration retention,
+            int recentSize,
+            long expectedEventsPerDay,
+            double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = tablePrefix + "_consumed_events";
+        this.retention = retention;
+        this.filter = new RecentEventFilter(meterRegistry, recentSize, expectedEventsPerDay, retention, falsePositiveRate);
+    }
+
+    /** Loads the ids still inside the retention window; until this finishes every id takes the query path. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFilter() {
+        try {
+            ConsumerDedupSupport.forEachConsumedSince(
+                    jdbcTemplate, table, Instant.now().minus(retention), 10_000, filter::seed);
+            filter.seeded();
+        } catch (RuntimeException ex) {
+            log.warn("Consumed-event filter seeding failed, existence queries stay on: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean markIfNew(String eventId) {
+        return ConsumerDedupSupport.markIfNew(
+                eventId,
+                filter,
+                this::exists,
+                id -> ConsumerDedupSupport.insertIfAbsent(jdbcTemplate, table, id));
+    }
+
+    @Override
+    @Transactional
+    public Set<String> markAllIfNew(Collection<String> eventIds) {
+        return ConsumerDedupSupport.markAllIfNew(
+                eventIds,
+                filter,
+                this::findExisting,
+                fresh -> ConsumerDedupSupport.insertAll(jdbcTemplate, table, fresh));
+    }
+
+    @Override
+    public void forget(String eventId) {
+        filter.forget(eventId);
+        jdbcTemplate.update("delete from " + table + " where event_id = ?", eventId);
+    }
+
+    private boolean exists(String eventId) {
+        return !findExisting(List.of(eventId)).isEmpty();
+    }
+
+    private List<String> findExisting(Collection<String> eventIds) {
+        return jdbcTemplate.queryForList(
+                "select event_id from " + table + " where event_id in ("
+                        + String.join(",", Collections.nCopies(eventIds.size(), "?")) + ")",
+                String.class,
+                eventIds.toArray());
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecom.common.outbox;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventCodecAutoConfiguration;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.observability.ObservabilityAutoConfiguration;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.RetentionPolicy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Transactional outbox, consumer dedup and retention for a service that names its tables with
+ * {@code app.reliability.table-prefix}: {@code <prefix>_outbox_events}, {@code <prefix>_outbox_partitions},
+ * {@code <prefix>_outbox_publishers} and {@code <prefix>_consumed_events}. A service without an outbox sets
+ * {@code app.outbox.enabled=false}; one with its own {@link EventDeduplicator} keeps it. Extra tables join
+ * the cleanup run by declaring a {@link RetentionPolicy} bean.
+ */
+@AutoConfiguration(after = {
+        JdbcTemplateAutoConfiguration.class,
+        TransactionAutoConfiguration.class,
+        KafkaAutoConfiguration.class,
+        EventCodecAutoConfiguration.class,
+        ObservabilityAutoConfiguration.class})
+@ConditionalOnProperty("app.reliability.table-prefix")
+@ConditionalOnBean(JdbcTemplate.class)
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReliabilityCleanupService reliabilityCleanupService(
+            JdbcTemplate jdbcTemplate,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<RetentionPolicy> policies,
+            @Value("${app.reliability.table-prefix}") String tablePrefix,
+            @Value("${app.cleanup.chunk-size:1000}") int chunkSize,
+            @Value("${app.cleanup.chunk-pause:PT0.1S}") Duration chunkPause) {
+        return new ReliabilityCleanupService(
+                tablePrefix,
+                jdbcTemplate,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                policies.orderedStream().toList(),
+                chunkSize,
+                chunkPause);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnMissingBean(EventDeduplicator.class)
+    static class DedupConfiguration {
+
+        @Bean
+        public ConsumerDedupService consumerDedupService(
+                JdbcTemplate jdbcTemplate,
+                ObjectProvider<MeterRegistry> meterRegistry,
+                @Value("${app.reliability.table-prefix}") String tablePrefix,
+                @Value("${app.cleanup.dedup-retention:P14D}") Duration retention,
+                @Value("${app.dedup.filter.recent-size:10000}") int recentSize,
+                @Value("${app.dedup.filter.expected-events-per-day:200000}") long expectedEventsPerDay,
+                @Value("${app.dedup.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+            return new ConsumerDedupService(
+                    jdbcTemplate,
+                    meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                    tablePrefix,
+                    retention,
+                    recentSize,
+                    expectedEventsPerDay,
+                    falsePositiveRate);
+        }
+
+        @Bean
+        public RetentionPolicy dedupRetentionPolicy(
+                @Value("${app.reliability.table-prefix}") String tablePrefix,
+                @Value("${app.cleanup.dedup-retention:P14D}") Duration retention) {
+            return RetentionPolicy.olderThan("dedup", tablePrefix + "_consumed_events", "event_id", "consumed_at", retention);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.outbox.enabled", havingValue = "true", matchIfMissing = true)
+    static class PublisherConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxStore outboxStore(JdbcTemplate jdbcTemplate, @Value("${app.reliability.table-prefix}") String tablePrefix) {
+            return new OutboxStore(jdbcTemplate, tablePrefix);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxPublisher outboxPublisher(
+                OutboxStore store,
+                KafkaTemplate<String, byte[]> kafkaTemplate,
+                TransactionTemplate transactionTemplate,
+                JdbcTemplate jdbcTemplate,
+                EventLatencyMetrics latencyMetrics,
+                @Value("${app.reliability.table-prefix}") String tablePrefix,
+                @Value("${app.outbox.max-retry:5}") int maxRetry,
+                @Value("${app.outbox.publisher.batch-size:500}") int batchSize,
+                @Value("${app.outbox.publisher.max-in-flight:200}") int maxInFlight,
+                @Value("${app.outbox.publisher.send-timeout:PT10S}") Duration sendTimeout,
+                @Value("${app.outbox.publisher.partitions:16}") int partitions,
+                @Value("${app.outbox.publisher.lease-ttl:PT30S}") Duration leaseTtl) {
+            return new OutboxPublisher(
+                    tablePrefix,
+                    store,
+                    kafkaTemplate,
+                    transactionTemplate,
+                    jdbcTemplate,
+                    latencyMetrics,
+                    maxRetry,
+                    batchSize,
+                    maxInFlight,
+                    sendTimeout,
+                    partitions,
+                    leaseTtl);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxService outboxService(OutboxStore store, EventCodec eventCodec, OutboxPublisher publisher) {
+            return new OutboxService(store, eventCodec, publisher);
+        }
+
+        @Bean
+        public RetentionPolicy sentOutboxRetentionPolicy(
+                @Value("${app.reliability.table-prefix}") String tablePrefix,
+                @Value("${app.cleanup.outbox-sent-retention:P7D}") Duration retention) {
+            return RetentionPolicy.olderThan("sentOutbox", tablePrefix + "_outbox_events", "id", "updated_at", retention)
+                    .withStatus("status", OutboxStatus.SENT.name());
+        }
+
+        @Bean
+        public RetentionPolicy failedOutboxRetentionPolicy(
+                @Value("${app.reliability.table-prefix}") String tablePrefix,
+                @Value("${app.cleanup.outbox-failed-retention:P30D}") Duration retention) {
+            return RetentionPolicy.olderThan("failedOutbox", tablePrefix + "_outbox_events", "id", "updated_at", retention)
+                    .withStatus("status", OutboxStatus.FAILED.name());
+        }
+    }
+}
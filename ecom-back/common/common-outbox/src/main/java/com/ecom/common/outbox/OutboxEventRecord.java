@@ -0,0 +1,154 @@
+package com.ecom.common.outbox;
+
+import java.time.Instant;
+
+import com.ecom.common.reliability.RetryableOutboxRecord;
+
+/** One row of a {@code <prefix>_outbox_events} table, read and written through {@link OutboxStore}. */
+public class OutboxEventRecord implements RetryableOutboxRecord {
+
+    private String id;
+    private String topic;
+    private String messageKey;
+    private String eventType;
+    private int partitionNo;
+    private String payload;
+    private byte[] payloadBytes;
+    private String schemaId;
+    private OutboxStatus status;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    @Override
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public void setMessageKey(String messageKey) {
+        this.messageKey = messageKey;
+    }
+
+    @Override
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    @Override
+    public int getPartitionNo() {
+        return partitionNo;
+    }
+
+    public void setPartitionNo(int partitionNo) {
+        this.partitionNo = partitionNo;
+    }
+
+    @Override
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    @Override
+    public byte[] getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    public void setPayloadBytes(byte[] payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    @Override
+    public String getSchemaId() {
+        return schemaId;
+    }
+
+    public void setSchemaId(String schemaId) {
+        this.schemaId = schemaId;
+    }
+
+    public OutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts == null ? 0 : attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public void markSent() {
+        this.status = OutboxStatus.SENT;
+    }
+
+    @Override
+    public void markPending() {
+        this.status = OutboxStatus.PENDING;
+    }
+
+    @Override
+    public void markFailed() {
+        this.status = OutboxStatus.FAILED;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecom.common.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.reliability.OutboxBatchResult;
+import com.ecom.common.reliability.OutboxPartitionClaims;
+import com.ecom.common.reliability.OutboxPublishSupport;
+import com.ecom.common.reliability.OutboxRelay;
+
+import jakarta.annotation.PreDestroy;
+
+public class OutboxPublisher {
+
+    private final String service;
+    private final OutboxStore store;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventLatencyMetrics latencyMetrics;
+    private final int maxRetry;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Duration sendTimeout;
+    private final OutboxPartitionClaims claims;
+    private final OutboxRelay relay;
+
+    public OutboxPublisher(
+            String service,
+            OutboxStore store,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            EventLatencyMetrics latencyMetrics,
+            int maxRetry,
+            int batchSize,
+            int maxInFlight,
+            Duration sendTimeout,
+            int partitions,
+            Duration leaseTtl) {
+        this.service = service;
+        this.store = store;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.latencyMetrics = latencyMetrics;
+        this.maxRetry = maxRetry;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = maxInFlight;
+        this.sendTimeout = sendTimeout;
+        this.claims = new OutboxPartitionClaims(jdbcTemplate, transactionTemplate, service, partitions, leaseTtl);
+        this.relay = new OutboxRelay(service, this::publishPending);
+    }
+
+    public int partitionOf(String messageKey) {
+        return OutboxPublishSupport.partitionOf(messageKey, claims.partitions());
+    }
+
+    /** Schedules a drain for when the caller's transaction commits. */
+    public void signal() {
+        relay.signalAfterCommit();
+    }
+
+    /**
+     * Recovery poll for rows no signal covered: failed sends, retries and rows written while this
+     * instance was down. Runs on the relay thread like every other drain.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.publisher.poll-interval:PT5S}")
+    public void recover() {
+        relay.wake();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        relay.shutdown();
+        claims.release();
+    }
+
+    /**
+     * Drains the outbox: sends a batch asynchronously, records the outcome in one transaction and goes
+     * straight on to the next batch while full batches keep coming back. Stops early when a batch had
+     * failures so a broker outage backs off to the poll interval. Only rows in partitions leased to this
+     * instance are read, so replicas drain disjoint slices and each message key keeps its send order.
+     */
+    public void publishPending() {
+        while (true) {
+            List<Integer> partitions = claims.owned();
+            if (partitions.isEmpty()) {
+                return;
+            }
+            List<OutboxEventRecord> batch = store.findPending(partitions, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            OutboxBatchResult<OutboxEventRecord> result =
+                    OutboxPublishSupport.sendBatch(batch, kafkaTemplate, maxRetry, maxInFlight, sendTimeout);
+            latencyMetrics.recordOutboxSent(service, result.sent());
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                store.markSent(result.sent().stream().map(OutboxEventRecord::getId).toList(), now);
+                store.saveUnsent(result.unsent(), now);
+            });
+            if (batch.size() < batchSize || !result.unsent().isEmpty()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecom.common.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecom.common.DomainEvent;
+import com.ecom.common.events.EncodedEvent;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.reliability.TransactionalOutboxBuffer;
+
+public class OutboxService {
+
+    private final OutboxStore store;
+    private final EventCodec eventCodec;
+    private final OutboxPublisher publisher;
+    private final TransactionalOutboxBuffer<OutboxEventRecord> buffer;
+
+    public OutboxService(OutboxStore store, EventCodec eventCodec, OutboxPublisher publisher) {
+        this.store = store;
+        this.eventCodec = eventCodec;
+        this.publisher = publisher;
+        this.buffer = new TransactionalOutboxBuffer<>(store::insertAll);
+    }
+
+    /**
+     * Buffers the event in the current transaction; every event enqueued by the transaction is inserted
+     * with one batched statement right before it commits.
+     */
+    @Transactional
+    public void enqueue(String topic, String messageKey, String eventType, Object payload, String producer) {
+        DomainEvent<Object> event = new DomainEvent<>(
+                UUID.randomUUID(),
+                eventType,
+                Instant.now(),
+                producer,
+                "v1",
+                UUID.randomUUID().toString(),
+                payload);
+
+        OutboxEventRecord record = new OutboxEventRecord();
+        record.setId(event.eventId().toString());
+        record.setTopic(topic);
+        record.setMessageKey(messageKey);
+        record.setPartitionNo(publisher.partitionOf(messageKey));
+        record.setEventType(eventType);
+        EncodedEvent encoded = eventCodec.encode(event);
+        record.setPayload(encoded.json());
+        record.setPayloadBytes(encoded.binary());
+        record.setSchemaId(encoded.schemaId());
+        record.setStatus(OutboxStatus.PENDING);
+        record.setAttempts(0);
+        record.setCreatedAt(event.occurredAt());
+        buffer.add(record);
+        publisher.signal();
+    }
+
+    /** Puts up to {@code limit} FAILED rows, oldest first, back in line for the publisher. */
+    @Transactional
+    public int replayFailed(int limit) {
+        int replayed = store.replayFailed(limit, Instant.now());
+        if (replayed > 0) {
+            publisher.signal();
+        }
+        return replayed;
+    }
+
+    public long countByStatus(OutboxStatus status) {
+        return store.countByStatus(status);
+    }
+}
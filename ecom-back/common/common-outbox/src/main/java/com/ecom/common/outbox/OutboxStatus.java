@@ -1,4 +1,4 @@
-package com.ecom.order.entity;
+package com.ecom.common.outbox;
 
 public enum OutboxStatus {
     PENDING,
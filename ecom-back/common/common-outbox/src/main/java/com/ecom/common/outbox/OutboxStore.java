@@ -0,0 +1,144 @@
+package com.ecom.common.outbox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ecom.common.reliability.OutboxPublishSupport;
+
+/**
+ * JDBC access to one service's {@code <prefix>_outbox_events} table. Every statement is plain SQL so the
+ * hot path never goes through entity loading or dirty checking: rows are inserted as one batch, the pending
+ * scan reads {@code (status, created_at, partition_no)} in index order and stops at the limit, and
+ * outcomes are written back with one statement per batch.
+ */
+public class OutboxStore {
+
+    private static final String COLUMNS = "id, topic, message_key, event_type, partition_no, payload, payload_bytes,"
+            + " schema_id, status, attempts, last_error, created_at, updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public OutboxStore(JdbcTemplate jdbcTemplate, String tablePrefix) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = tablePrefix + "_outbox_events";
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public void insertAll(List<OutboxEventRecord> records) {
+        OutboxPublishSupport.insertAll(jdbcTemplate, table, records);
+    }
+
+    /** Oldest PENDING rows of the given partitions, at most {@code limit} of them. */
+    public List<OutboxEventRecord> findPending(Collection<Integer> partitions, int limit) {
+        if (partitions.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(partitions.size() + 2);
+        args.add(OutboxStatus.PENDING.name());
+        args.addAll(partitions);
+        args.add(limit);
+        return jdbcTemplate.query(
+                "select " + COLUMNS + " from " + table + " where status = ? and partition_no in ("
+                        + placeholders(partitions.size()) + ") order by created_at limit ?",
+                OutboxStore::mapRow,
+                args.toArray());
+    }
+
+    public int markSent(Collection<String> ids, Instant updatedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(OutboxStatus.SENT.name());
+        args.add(Timestamp.from(updatedAt));
+        args.addAll(ids);
+        return jdbcTemplate.update(
+                "update " + table + " set status = ?, last_error = null, updated_at = ? where id in ("
+                        + placeholders(ids.size()) + ")",
+                args.toArray());
+    }
+
+    /** Writes back status, attempts and last error of rows whose send failed, in one batch. */
+    public void saveUnsent(List<OutboxEventRecord> records, Instant updatedAt) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(updatedAt);
+        jdbcTemplate.batchUpdate(
+                "update " + table + " set status = ?, attempts = ?, last_error = ?, updated_at = ? where id = ?",
+                records,
+                records.size(),
+                (statement, record) -> {
+                    statement.setString(1, record.getStatus().name());
+                    statement.setInt(2, record.getAttempts());
+                    statement.setString(3, record.getLastError());
+                    statement.setTimestamp(4, now);
+                    statement.setString(5, record.getId());
+                });
+    }
+
+    /** Moves the oldest FAILED rows, at most {@code limit}, back to PENDING and returns how many moved. */
+    public int replayFailed(int limit, Instant updatedAt) {
+        List<String> ids = jdbcTemplate.queryForList(
+                "select id from " + table + " where status = ? order by updated_at limit ?",
+                String.class,
+                OutboxStatus.FAILED.name(),
+                limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 3);
+        args.add(OutboxStatus.PENDING.name());
+        args.add(Timestamp.from(updatedAt));
+        args.addAll(ids);
+        args.add(OutboxStatus.FAILED.name());
+        return jdbcTemplate.update(
+                "update " + table + " set status = ?, last_error = null, updated_at = ? where id in ("
+                        + placeholders(ids.size()) + ") and status = ?",
+                args.toArray());
+    }
+
+    public long countByStatus(OutboxStatus status) {
+        Long count = jdbcTemplate.queryForObject(
+                "select count(*) from " + table + " where status = ?", Long.class, status.name());
+        return count == null ? 0 : count;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static OutboxEventRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        OutboxEventRecord record = new OutboxEventRecord();
+        record.setId(rs.getString("id"));
+        record.setTopic(rs.getString("topic"));
+        record.setMessageKey(rs.getString("message_key"));
+        record.setEventType(rs.getString("event_type"));
+        record.setPartitionNo(rs.getInt("partition_no"));
+        record.setPayload(rs.getString("payload"));
+        record.setPayloadBytes(rs.getBytes("payload_bytes"));
+        record.setSchemaId(rs.getString("schema_id"));
+        record.setStatus(OutboxStatus.valueOf(rs.getString("status")));
+        record.setAttempts(rs.getInt("attempts"));
+        record.setLastError(rs.getString("last_error"));
+        record.setCreatedAt(toInstant(rs.getTimestamp("created_at")));
+        record.setUpdatedAt(toInstant(rs.getTimestamp("updated_at")));
+        return record;
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecom.common.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.ecom.common.reliability.RetentionEngine;
+import com.ecom.common.reliability.RetentionPolicy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Purges expired reliability rows through the shared {@link RetentionEngine}: every {@link RetentionPolicy}
+ * bean of the service, the outbox and dedup ones included. Chunked deletes each commit on their own, so
+ * this method deliberately runs without a transaction.
+ */
+public class ReliabilityCleanupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReliabilityCleanupService.class);
+
+    private final String service;
+    private final RetentionEngine retentionEngine;
+    private final List<RetentionPolicy> policies;
+
+    public ReliabilityCleanupService(
+            String service,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            List<RetentionPolicy> policies,
+            int chunkSize,
+            Duration chunkPause) {
+        this.service = service;
+        this.retentionEngine = new RetentionEngine(jdbcTemplate, meterRegistry, chunkSize, chunkPause);
+        this.policies = List.copyOf(policies);
+    }
+
+    public List<RetentionPolicy> policies() {
+        return policies;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cleanup.fixed-delay:PT6H}")
+    public void cleanupReliabilityData() {
+        Map<String, Long> purged = retentionEngine.purgeAll(policies);
+        if (purged.values().stream().mapToLong(Long::longValue).sum() > 0) {
+            log.info("Cleanup removed {} reliability records: {}", service, purged);
+        }
+    }
+}
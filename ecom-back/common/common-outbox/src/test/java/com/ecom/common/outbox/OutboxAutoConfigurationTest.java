@@ -0,0 +1,72 @@
+package com.ecom.common.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.RetentionPolicy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(OutboxAutoConfiguration.class))
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(JdbcTemplate.class, () -> mock(JdbcTemplate.class))
+            .withBean(TransactionTemplate.class, () -> mock(TransactionTemplate.class))
+            .withBean(KafkaTemplate.class, () -> mock(KafkaTemplate.class))
+            .withBean(EventCodec.class, () -> mock(EventCodec.class))
+            .withBean(EventLatencyMetrics.class, () -> new EventLatencyMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void staysOffWithoutATablePrefix() {
+        runner.run(context -> assertThat(context)
+                .doesNotHaveBean(OutboxService.class)
+                .doesNotHaveBean(ConsumerDedupService.class)
+                .doesNotHaveBean(ReliabilityCleanupService.class));
+    }
+
+    @Test
+    void wiresOutboxDedupAndCleanupForThePrefixedTables() {
+        runner.withPropertyValues("app.reliability.table-prefix=order")
+                .withBean("sagaTimelineRetentionPolicy", RetentionPolicy.class, () -> RetentionPolicy.olderThan(
+                        "sagaTimeline", "order_saga_timeline", "id", "recorded_at", Duration.ofDays(30)))
+                .run(context -> {
+                    assertThat(context).hasSingleBean(OutboxService.class).hasSingleBean(ConsumerDedupService.class);
+                    assertThat(context.getBean(OutboxStore.class).table()).isEqualTo("order_outbox_events");
+                    assertThat(tables(context.getBean(ReliabilityCleanupService.class)))
+                            .containsExactlyInAnyOrder(
+                                    "order_outbox_events", "order_outbox_events", "order_consumed_events", "order_saga_timeline");
+                });
+    }
+
+    @Test
+    void dedupOnlyServiceKeepsItsOwnDeduplicator() {
+        EventDeduplicator own = mock(EventDeduplicator.class);
+        runner.withPropertyValues("app.reliability.table-prefix=notification", "app.outbox.enabled=false")
+                .withBean(EventDeduplicator.class, () -> own)
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(OutboxPublisher.class).doesNotHaveBean(ConsumerDedupService.class);
+                    assertThat(context.getBean(EventDeduplicator.class)).isSameAs(own);
+                    assertThat(tables(context.getBean(ReliabilityCleanupService.class))).isEmpty();
+                });
+    }
+
+    private static List<String> tables(ReliabilityCleanupService cleanup) {
+        return cleanup.policies().stream().map(RetentionPolicy::table).toList();
+    }
+}
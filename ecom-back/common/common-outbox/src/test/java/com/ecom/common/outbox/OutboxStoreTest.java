@@ -0,0 +1,69 @@
+package com.ecom.common.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class OutboxStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final OutboxStore store = new OutboxStore(jdbcTemplate, "payment");
+
+    @Test
+    void pendingScanFollowsTheStatusCreatedAtIndexAndStopsAtTheLimit() {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), args.capture())).thenReturn(List.of());
+
+        store.findPending(List.of(3, 7), 500);
+
+        verify(jdbcTemplate).query(
+                eq("select id, topic, message_key, event_type, partition_no, payload, payload_bytes, schema_id, status,"
+                        + " attempts, last_error, created_at, updated_at from payment_outbox_events"
+                        + " where status = ? and partition_no in (?,?) order by created_at limit ?"),
+                any(RowMapper.class),
+                any(Object[].class));
+        assertArrayEquals(new Object[] {"PENDING", 3, 7, 500}, args.getValue());
+    }
+
+    @Test
+    void replayMovesOnlyRowsThatAreStillFailed() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("e1", "e2"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(2);
+
+        int replayed = store.replayFailed(100, NOW);
+
+        assertEquals(2, replayed);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(
+                eq("update payment_outbox_events set status = ?, last_error = null, updated_at = ?"
+                        + " where id in (?,?) and status = ?"),
+                args.capture());
+        assertArrayEquals(new Object[] {"PENDING", Timestamp.from(NOW), "e1", "e2", "FAILED"}, args.getValue());
+    }
+
+    @Test
+    void emptyOutcomesIssueNoStatements() {
+        assertEquals(0, store.markSent(List.of(), NOW));
+        store.saveUnsent(List.of(), NOW);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecom.bench;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ecom.common.DomainEvent;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.events.OrderCreatedPayload;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Decoding cost of an {@code order.created.v1} message: the consumers' former
+ * {@code DomainEvent<Map<String, Object>>} path against {@link EventCodec}, both for a fresh event
+ * (envelope and payload) and a duplicate (envelope only, payload never bound).
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDecodeBenchmark {
+
+    private static final TypeReference<DomainEvent<Map<String, Object>>> MAP_EVENT = new TypeReference<>() {};
+
+    @Param({"1", "10"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private EventCodec eventCodec;
+    private String raw;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        eventCodec = new EventCodec(objectMapper);
+
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", "product-" + i);
+            line.put("sku", "SKU-" + i);
+            line.put("quantity", i + 1);
+            line.put("unitPrice", new BigDecimal("499.00"));
+            lines.add(line);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", UUID.randomUUID().toString());
+        payload.put("userId", 42L);
+        payload.put("currency", "INR");
+        payload.put("status", "PENDING_PAYMENT");
+        payload.put("createdAt", Instant.now().toString());
+        payload.put("items", lines);
+        raw = objectMapper.writeValueAsString(new DomainEvent<>(
+                UUID.randomUUID(), "order.created.v1", Instant.now(), "order-service", "v1", "trace", payload));
+    }
+
+    @Benchmark
+    public int mapPath() throws Exception {
+        DomainEvent<Map<String, Object>> event = objectMapper.readValue(raw, MAP_EVENT);
+        int quantity = 0;
+        if (event.payload().get("items") instanceof List<?> lines) {
+            for (Object line : lines) {
+                if (line instanceof Map<?, ?> item) {
+                    quantity += Integer.parseInt(String.valueOf(item.get("quantity")));
+                }
+            }
+        }
+        return quantity + event.eventId().hashCode();
+    }
+
+    @Benchmark
+    public int codecPath() {
+        EventEnvelope envelope = eventCodec.envelope(raw).orElseThrow();
+        OrderCreatedPayload order = eventCodec.payload(envelope, OrderCreatedPayload.class).orElseThrow();
+        int quantity = 0;
+        for (OrderCreatedPayload.Item item : order.items()) {
+            quantity += item.quantity();
+        }
+        return quantity + envelope.eventId().hashCode();
+    }
+
+    @Benchmark
+    public int codecDuplicate() {
+        return eventCodec.envelope(raw).orElseThrow().eventId().hashCode();
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecom.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ecom.common.DomainEvent;
+import com.ecom.common.events.EncodedEvent;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventSchemaRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Encode and decode throughput of the JSON and binary wire formats per event type. The encoded size of
+ * each combination is printed once per trial; production sizes come from {@code events.encoded.size}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventWireFormatBenchmark {
+
+    @Param({"order.created.v1", "payment.authorized.v1", "product.upserted.v1"})
+    public String eventType;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private EventCodec eventCodec;
+    private DomainEvent<Object> event;
+    private byte[] value;
+    private String schemaId;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        eventCodec = new EventCodec(objectMapper, EventSchemaRegistry.load(),
+                format.equals("binary") ? Set.of(eventType) : Set.of(), new SimpleMeterRegistry());
+        event = new DomainEvent<>(UUID.randomUUID(), eventType, Instant.now(), "bench", "v1",
+                UUID.randomUUID().toString(), payload(eventType));
+
+        EncodedEvent encoded = eventCodec.encode(event);
+        value = encoded.isBinary() ? encoded.binary() : encoded.json().getBytes(StandardCharsets.UTF_8);
+        schemaId = encoded.schemaId();
+        System.out.printf("%n%s %s: %d bytes%n", eventType, format, value.length);
+    }
+
+    @Benchmark
+    public EncodedEvent encode() {
+        return eventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return eventCodec.envelope(value, schemaId).flatMap(eventCodec::domainEvent).orElseThrow();
+    }
+
+    private static Map<String, Object> payload(String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        switch (eventType) {
+            case "order.created.v1" -> {
+                payload.put("orderId", UUID.randomUUID().toString());
+                payload.put("userId", 42L);
+                payload.put("currency", "INR");
+                payload.put("status", "PENDING_PAYMENT");
+                payload.put("createdAt", Instant.now().toString());
+                payload.put("items", List.of(
+                        Map.of("productId", "product-1", "sku", "SKU-1", "quantity", 2, "unitPrice", "499.00"),
+                        Map.of("productId", "product-2", "sku", "SKU-2", "quantity", 1, "unitPrice", "1299.00")));
+            }
+            case "payment.authorized.v1" -> {
+                payload.put("orderId", UUID.randomUUID().toString());
+                payload.put("paymentId", UUID.randomUUID().toString());
+                payload.put("providerPaymentId", "pay_" + UUID.randomUUID());
+                payload.put("status", "AUTHORIZED");
+                payload.put("occurredAt", Instant.now().toString());
+            }
+            case "product.upserted.v1" -> {
+                payload.put("productId", UUID.randomUUID().toString());
+                payload.put("name", "Running Shoe");
+                payload.put("description", "Lightweight running shoe with a breathable mesh upper");
+                payload.put("category", "footwear");
+                payload.put("brand", "Stride");
+                payload.put("price", "2499.00");
+                payload.put("colors", List.of("black", "white"));
+                payload.put("sizes", List.of("8", "9", "10"));
+                payload.put("active", true);
+            }
+            default -> throw new IllegalArgumentException("No sample payload for " + eventType);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecom.bench;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import com.ecom.search.query.ProductQueryPlanner;
+import com.ecom.search.query.ProductSearchCriteria;
+import com.ecom.search.query.ProductSearchPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * Cost of turning a product search request into an Elasticsearch query: the former string-concatenated
+ * DSL of {@code SearchService} against {@link ProductQueryPlanner}. {@code typedPlan} stops at the
+ * {@link NativeQuery} handed to Spring Data; {@code typedPlanSerialized} also writes the query and sort to
+ * JSON, which is what the client does before sending, so it compares like for like with the string path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchQueryBuildBenchmark {
+
+    @Param({"text", "textFiltered", "browse"})
+    public String shape;
+
+    private ObjectMapper objectMapper;
+    private JsonpMapper jsonpMapper;
+    private ProductQueryPlanner planner;
+    private ProductSearchCriteria criteria;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        jsonpMapper = new JacksonJsonpMapper(objectMapper);
+        planner = new ProductQueryPlanner();
+        criteria = switch (shape) {
+            case "text" -> new ProductSearchCriteria("nike running shoes", null, null, true, 0, 20, "score", "desc");
+            case "textFiltered" -> new ProductSearchCriteria("iphone 15", "electronics", "Apple", true, 2, 20, "price", "asc");
+            case "browse" -> new ProductSearchCriteria(null, "fashion", null, true, 0, 20, null, "desc");
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        };
+    }
+
+    @Benchmark
+    public String legacyStringDsl() {
+        return legacySearchDsl(criteria);
+    }
+
+    @Benchmark
+    public NativeQuery typedPlan() {
+        return planner.plan(criteria).toNativeQuery();
+    }
+
+    @Benchmark
+    public String typedPlanSerialized() {
+        ProductSearchPlan plan = planner.plan(criteria);
+        StringWriter out = new StringWriter(512);
+        try (JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.write("from", plan.from());
+            generator.write("size", plan.size());
+            generator.writeKey("query");
+            plan.query().serialize(generator, jsonpMapper);
+            generator.writeStartArray("sort");
+            plan.sort().forEach(sort -> sort.serialize(generator, jsonpMapper));
+            generator.writeEnd();
+            generator.writeEnd();
+        }
+        return out.toString();
+    }
+
+    /** {@code SearchService.buildSearchDsl} as it was before the query planner. */
+    private String legacySearchDsl(ProductSearchCriteria c) {
+        String q = c.q();
+        String mustClause = q == null ? "{\"match_all\":{}}" : "{\"multi_match\":{\"query\":" + json(q)
+                + ",\"fields\":[\"name^4\",\"description^2\",\"brand^2\",\"category\"],\"fuzziness\":\"AUTO\",\"operator\":\"and\"}}";
+
+        List<String> shouldClauses = new ArrayList<>();
+        if (q != null) {
+            shouldClauses.add("{\"match_phrase\":{\"name\":{\"query\":" + json(q) + ",\"boost\":8}}}");
+            shouldClauses.add("{\"match_phrase_prefix\":{\"name\":{\"query\":" + json(q) + ",\"boost\":5}}}");
+            shouldClauses.add("{\"match_phrase_prefix\":{\"brand\":{\"query\":" + json(q) + ",\"boost\":2}}}");
+        }
+
+        List<String> filters = new ArrayList<>();
+        if (c.activeOnly()) {
+            filters.add("{\"term\":{\"active\":true}}");
+        }
+        if (c.category() != null) {
+            filters.add("{\"term\":{\"category\":" + json(c.category()) + "}}");
+        }
+        if (c.brand() != null) {
+            filters.add("{\"term\":{\"brand\":" + json(c.brand()) + "}}");
+        }
+
+        String filterSection = filters.isEmpty() ? "" : ",\"filter\":[" + String.join(",", filters) + "]";
+        String shouldSection = shouldClauses.isEmpty() ? "" : ",\"should\":[" + String.join(",", shouldClauses) + "],\"minimum_should_match\":0";
+        String order = "desc".equalsIgnoreCase(c.direction()) ? "desc" : "asc";
+        String sortClause;
+        if ("price".equalsIgnoreCase(c.sortBy())) {
+            sortClause = "{\"price\":{\"order\":\"" + order + "\"}},{\"_score\":{\"order\":\"desc\"}}";
+        } else if (q == null) {
+            sortClause = "{\"updatedAt\":{\"order\":\"desc\"}}";
+        } else {
+            sortClause = "{\"_score\":{\"order\":\"desc\"}}";
+        }
+
+        return "{"
+                + "\"from\":" + (c.page() * c.size()) + ","
+                + "\"size\":" + c.size() + ","
+                + "\"query\":{\"bool\":{\"must\":[" + mustClause + "]" + filterSection + shouldSection + "}},"
+                + "\"sort\":[" + sortClause + "]"
+                + "}";
+    }
+
+    private String json(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecom.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ecom.search.query.ProductQueryPlanner;
+import com.ecom.search.query.ProductSearchCriteria;
+import com.ecom.search.query.ProductSearchPlan;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+
+/**
+ * End-to-end latency of one product search against a running Elasticsearch holding the {@code products}
+ * index: the former string DSL posted as the request body against a request built by
+ * {@link ProductQueryPlanner} and sent with the typed client. Both parse the full response. Point it at
+ * another cluster or index with {@code -p esUrl=... -p index=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SearchRoundTripBenchmark {
+
+    private static final String LEGACY_DSL = "{\"from\":0,\"size\":20,"
+            + "\"query\":{\"bool\":{\"must\":[{\"multi_match\":{\"query\":\"running shoes\","
+            + "\"fields\":[\"name^4\",\"description^2\",\"brand^2\",\"category\"],\"fuzziness\":\"AUTO\",\"operator\":\"and\"}}],"
+            + "\"filter\":[{\"term\":{\"active\":true}}],"
+            + "\"should\":[{\"match_phrase\":{\"name\":{\"query\":\"running shoes\",\"boost\":8}}},"
+            + "{\"match_phrase_prefix\":{\"name\":{\"query\":\"running shoes\",\"boost\":5}}},"
+            + "{\"match_phrase_prefix\":{\"brand\":{\"query\":\"running shoes\",\"boost\":2}}}],\"minimum_should_match\":0}},"
+            + "\"sort\":[{\"_score\":{\"order\":\"desc\"}}]}";
+
+    @Param("http://localhost:9200")
+    public String esUrl;
+
+    @Param("products")
+    public String index;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductQueryPlanner planner = new ProductQueryPlanner();
+    private final ProductSearchCriteria criteria =
+            new ProductSearchCriteria("running shoes", null, null, true, 0, 20, "score", "desc");
+
+    private RestClient restClient;
+    private ElasticsearchClient client;
+
+    @Setup
+    public void setUp() {
+        restClient = RestClient.builder(HttpHost.create(esUrl)).build();
+        client = new ElasticsearchClient(new RestClientTransport(restClient, new JacksonJsonpMapper(objectMapper)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client._transport().close();
+    }
+
+    @Benchmark
+    public JsonNode legacyStringDsl() throws IOException {
+        Request request = new Request("POST", "/" + index + "/_search");
+        request.setEntity(new NStringEntity(LEGACY_DSL, ContentType.APPLICATION_JSON));
+        Response response = restClient.performRequest(request);
+        try (InputStream body = response.getEntity().getContent()) {
+            return objectMapper.readTree(body);
+        }
+    }
+
+    @Benchmark
+    public SearchResponse<ObjectNode> typedPlan() throws IOException {
+        ProductSearchPlan plan = planner.plan(criteria);
+        return client.search(search -> search
+                .index(index)
+                .query(plan.query())
+                .sort(plan.sort())
+                .from(plan.from())
+                .size(plan.size()), ObjectNode.class);
+    }
+}
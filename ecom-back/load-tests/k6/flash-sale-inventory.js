@@ -3,6 +3,8 @@ import { check, sleep } from "k6";
 import { Counter, Rate } from "k6/metrics";
 
 const BASE_URL = __ENV.BASE_URL || "http://localhost:8084";
+// Comma-separated replica URLs; reservations are spread across them by VU to exercise escrow mode.
+const BASE_URLS = (__ENV.BASE_URLS || BASE_URL).split(",").map((url) => url.trim()).filter((url) => url);
 const TTL_MINUTES = Number(__ENV.TTL_MINUTES || "30");
 const STOCK_QTY = Number(__ENV.STOCK_QTY || "10000");
 const ITERATIONS = Number(__ENV.ITERATIONS || "10000");
@@ -55,7 +57,8 @@ export default function (data) {
     ttlMinutes: TTL_MINUTES,
   });
   const headers = { "Content-Type": "application/json" };
-  const response = http.post(`${BASE_URL}/api/inventory/reserve`, payload, { headers });
+  const baseUrl = BASE_URLS[__VU % BASE_URLS.length];
+  const response = http.post(`${baseUrl}/api/inventory/reserve`, payload, { headers });
 
   const ok = response.status === 200;
   reserveSuccessRate.add(ok);
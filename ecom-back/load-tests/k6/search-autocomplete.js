@@ -0,0 +1,36 @@
+import http from "k6/http";
+import { check } from "k6";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8089";
+const RATE = Number(__ENV.RATE || "400");
+const DURATION = __ENV.DURATION || "60s";
+const P99_TARGET_MS = Number(__ENV.AUTOCOMPLETE_P99_MS || "15");
+const FAIL_RATE_MAX = __ENV.AUTOCOMPLETE_FAIL_RATE_MAX || "0.01";
+
+// Each iteration is one keystroke: a shopper types one of these terms a character at a time.
+const TERMS = ["nike running shoes", "iphone 15", "wireless earbuds", "air max", "samsung galaxy", "levis jeans"];
+
+export const options = {
+  discardResponseBodies: true,
+  scenarios: {
+    typing: {
+      executor: "constant-arrival-rate",
+      rate: RATE,
+      timeUnit: "1s",
+      duration: DURATION,
+      preAllocatedVUs: Math.max(20, Math.ceil(RATE / 20)),
+      maxVUs: Math.max(100, RATE),
+    },
+  },
+  thresholds: {
+    http_req_failed: [`rate<${FAIL_RATE_MAX}`],
+    http_req_duration: [`p(99)<${P99_TARGET_MS}`],
+  },
+};
+
+export default function () {
+  const term = TERMS[(__VU + __ITER) % TERMS.length];
+  const prefix = term.substring(0, 1 + (__ITER % term.length));
+  const response = http.get(`${BASE_URL}/api/search/autocomplete?q=${encodeURIComponent(prefix)}&size=8`);
+  check(response, { "autocomplete 200": (r) => r.status === 200 });
+}
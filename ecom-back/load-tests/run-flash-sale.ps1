@@ -1,5 +1,6 @@
 param(
   [string]$BaseUrl = "http://localhost:8084",
+  [string]$BaseUrls = "",
   [int]$Vus = 200,
   [int]$Iterations = 10000,
   [int]$StockQty = 10000,
@@ -19,6 +20,7 @@ $k6Command = Resolve-K6Command
 $scriptPath = Join-Path $PSScriptRoot "k6/flash-sale-inventory.js"
 
 $env:BASE_URL = $BaseUrl
+$env:BASE_URLS = $BaseUrls
 $env:VUS = "$Vus"
 $env:ITERATIONS = "$Iterations"
 $env:STOCK_QTY = "$StockQty"
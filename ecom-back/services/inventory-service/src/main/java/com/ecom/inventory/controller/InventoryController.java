@@ -1,5 +1,7 @@
 package com.ecom.inventory.controller;
 
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ecom.inventory.dto.ReservationActionRequest;
@@ -53,6 +56,11 @@ public class InventoryController {
         return response;
     }
 
+    @GetMapping("/stock")
+    public List<StockResponse> getStocks(@RequestParam List<String> skus) {
+        return inventoryService.getStocks(skus);
+    }
+
     @PostMapping("/reserve")
     public StockResponse reserve(@Valid @RequestBody ReservationRequest request) {
         return inventoryService.reserve(request);
@@ -68,6 +76,12 @@ public class InventoryController {
         return inventoryService.confirm(request);
     }
 
+    @PostMapping("/admin/kafka/dlq/replay")
+    public ResponseEntity<String> replayDeadLetters() {
+        int replayed = inventoryService.replayDeadLetteredEvents();
+        return ResponseEntity.ok("Dead-lettered events sent back for retry: " + replayed);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
         log.warn("Inventory request validation error: {}", ex.getMessage());
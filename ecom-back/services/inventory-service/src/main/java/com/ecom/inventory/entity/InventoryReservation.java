@@ -5,13 +5,16 @@ import java.time.Instant;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "inventory_reservation")
+@Table(name = "inventory_reservation", indexes = {
+        @Index(name = "idx_inventory_reservation_order_status", columnList = "order_id,status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +24,9 @@ public class InventoryReservation {
     @Column(length = 100)
     private String reservationId;
 
+    @Column(name = "order_id", length = 100)
+    private String orderId;
+
     @Column(nullable = false, length = 100)
     private String sku;
 
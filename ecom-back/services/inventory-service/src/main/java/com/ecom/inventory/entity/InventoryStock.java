@@ -34,6 +34,13 @@ public class InventoryStock {
     @Column(nullable = false)
     private int reservedQuantity;
 
+    /** Part of the stock handed to replicas as escrow quota; see {@code InventoryStockEscrow}. */
+    @Column(nullable = false)
+    private int escrowedQuantity;
+
+    @Column(nullable = false)
+    private long fencingToken;
+
     @Column(nullable = false)
     private Instant updatedAt;
 
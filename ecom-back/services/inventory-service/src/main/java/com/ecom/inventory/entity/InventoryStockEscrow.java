@@ -0,0 +1,51 @@
+package com.ecom.inventory.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "inventory_stock_escrow", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_stock_escrow_sku_owner", columnNames = {"sku", "owner_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class InventoryStockEscrow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String sku;
+
+    @Column(name = "owner_id", nullable = false, length = 100)
+    private String ownerId;
+
+    @Column(nullable = false)
+    private int quotaQuantity;
+
+    @Column(nullable = false)
+    private Instant leaseExpiresAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
+}
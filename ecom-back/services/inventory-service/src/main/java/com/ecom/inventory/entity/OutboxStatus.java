@@ -1,7 +0,0 @@
-package com.ecom.inventory.entity;
-
-public enum OutboxStatus {
-    PENDING,
-    SENT,
-    FAILED
-}
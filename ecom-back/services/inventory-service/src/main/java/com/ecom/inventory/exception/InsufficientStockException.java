@@ -0,0 +1,22 @@
+package com.ecom.inventory.exception;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.ecom.inventory.service.StockShortfall;
+
+public class InsufficientStockException extends IllegalArgumentException {
+
+    private final List<StockShortfall> shortfalls;
+
+    public InsufficientStockException(List<StockShortfall> shortfalls) {
+        super(shortfalls.stream()
+                .map(s -> s.sku() + " (requested " + s.requestedQuantity() + ", available " + s.availableQuantity() + ")")
+                .collect(Collectors.joining(", ", "Insufficient stock for ", "")));
+        this.shortfalls = List.copyOf(shortfalls);
+    }
+
+    public List<StockShortfall> getShortfalls() {
+        return shortfalls;
+    }
+}
@@ -1,161 +1,152 @@
 package com.ecom.inventory.kafka;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
-
-import com.ecom.common.DomainEvent;
-import com.ecom.inventory.service.ConsumerDedupService;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.events.OrderCreatedPayload;
+import com.ecom.common.events.OrderTimedOutPayload;
+import com.ecom.common.events.PaymentResultPayload;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.outbox.OutboxService;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.KeyOrderedProcessor;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.inventory.service.InventoryUseCases;
-import com.ecom.inventory.service.OutboxService;
 import com.ecom.inventory.service.OrderItemReservation;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
 
 @Component
 public class InventorySagaConsumer {
 
     private final InventoryUseCases inventoryService;
-    private final ConsumerDedupService dedupService;
+    private final EventDeduplicator dedupService;
     private final OutboxService outboxService;
-    private final ObjectMapper objectMapper;
+    private final EventCodec eventCodec;
+    private final Function<ConsumerRecord<String, byte[]>, Optional<EventEnvelope>> envelopes;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate reservationTransaction;
+    private final KeyOrderedProcessor processor;
     private final int reservationTtlMinutes;
     private final String inventoryReservedTopic;
     private final String inventoryReservationFailedTopic;
 
     public InventorySagaConsumer(
             InventoryUseCases inventoryService,
-            ConsumerDedupService dedupService,
+            EventDeduplicator dedupService,
             OutboxService outboxService,
-            ObjectMapper objectMapper,
+            EventCodec eventCodec,
+            EventLatencyMetrics latencyMetrics,
+            TransactionTemplate transactionTemplate,
+            RetryTopics retryTopics,
             @Value("${app.inventory.reservation-ttl-minutes:30}") int reservationTtlMinutes,
             @Value("${app.kafka.topics.inventory-reserved:inventory.reserved.v1}") String inventoryReservedTopic,
-            @Value("${app.kafka.topics.inventory-reservation-failed:inventory.reservation.failed.v1}") String inventoryReservationFailedTopic) {
+            @Value("${app.kafka.topics.inventory-reservation-failed:inventory.reservation.failed.v1}") String inventoryReservationFailedTopic,
+            @Value("${app.kafka.consumer.key-parallelism:1}") int keyParallelism) {
         this.inventoryService = inventoryService;
         this.dedupService = dedupService;
         this.outboxService = outboxService;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
+        this.envelopes = latencyMetrics.consumed("inventory-service", eventCodec::envelope, EventEnvelope::occurredAt);
+        this.transactionTemplate = transactionTemplate;
+        this.reservationTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.reservationTtlMinutes = reservationTtlMinutes;
         this.inventoryReservedTopic = inventoryReservedTopic;
         this.inventoryReservationFailedTopic = inventoryReservationFailedTopic;
+        this.processor = new KeyOrderedProcessor("inventory-saga", keyParallelism, retryTopics);
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "inventory-service")
-    public void onOrderCreated(String rawEvent) {
-        parseEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            String orderId = readString(event.payload(), "orderId");
-            if (orderId == null) {
-                return;
-            }
-            List<OrderItemReservation> items = readItems(event.payload());
-            if (items.isEmpty()) {
-                publishReservationFailed(orderId, "No order items in order.created event");
-                return;
-            }
-
-            try {
-                inventoryService.reserveForOrder(orderId, items, reservationTtlMinutes);
-                publishReserved(orderId);
-            } catch (Exception ex) {
-                publishReservationFailed(orderId, ex.getMessage());
-            }
-        });
+    @PreDestroy
+    void shutdown() {
+        processor.shutdown();
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "inventory-service")
-    public void onPaymentAuthorized(String rawEvent) {
-        parseEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            String orderId = readString(event.payload(), "orderId");
-            if (orderId != null) {
-                inventoryService.confirmForOrder(orderId);
-            }
-        });
+    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "inventory-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.order-created:order.created.v1}')}", groupId = "inventory-service", batch = "true")
+    public void onOrderCreated(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> eventCodec.payload(envelope, OrderCreatedPayload.class).ifPresent(this::reserve));
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "inventory-service")
-    public void onPaymentFailed(String rawEvent) {
-        parseEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            String orderId = readString(event.payload(), "orderId");
-            if (orderId != null) {
-                inventoryService.releaseForOrder(orderId);
-            }
-        });
+    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "inventory-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.payment-authorized:payment.authorized.v1}')}", groupId = "inventory-service", batch = "true")
+    public void onPaymentAuthorized(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> eventCodec.payload(envelope, PaymentResultPayload.class)
+                        .map(PaymentResultPayload::orderId)
+                        .filter(this::present)
+                        .ifPresent(inventoryService::confirmForOrder));
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.order-timed-out:order.timed-out.v1}", groupId = "inventory-service")
-    public void onOrderTimedOut(String rawEvent) {
-        parseEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            String orderId = readString(event.payload(), "orderId");
-            if (orderId != null) {
-                inventoryService.releaseForOrder(orderId);
-            }
-        });
+    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "inventory-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.payment-failed:payment.failed.v1}')}", groupId = "inventory-service", batch = "true")
+    public void onPaymentFailed(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> eventCodec.payload(envelope, PaymentResultPayload.class)
+                        .map(PaymentResultPayload::orderId)
+                        .filter(this::present)
+                        .ifPresent(inventoryService::releaseForOrder));
     }
 
-    private java.util.Optional<DomainEvent<Map<String, Object>>> parseEvent(String rawEvent) {
-        if (rawEvent == null || rawEvent.isBlank()) {
-            return java.util.Optional.empty();
-        }
-        try {
-            var typeRef = new TypeReference<DomainEvent<Map<String, Object>>>() {};
-            return java.util.Optional.of(objectMapper.readValue(rawEvent, typeRef));
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
+    @KafkaListener(topics = "${app.kafka.topics.order-timed-out:order.timed-out.v1}", groupId = "inventory-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.order-timed-out:order.timed-out.v1}')}", groupId = "inventory-service", batch = "true")
+    public void onOrderTimedOut(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> eventCodec.payload(envelope, OrderTimedOutPayload.class)
+                        .map(OrderTimedOutPayload::orderId)
+                        .filter(this::present)
+                        .ifPresent(inventoryService::releaseForOrder));
     }
 
-    private List<OrderItemReservation> readItems(Map<String, Object> payload) {
-        Object rawItems = payload.get("items");
-        if (!(rawItems instanceof List<?> rawList)) {
-            return List.of();
+    /**
+     * Reserves the order and enqueues {@code inventory.reserved} in a transaction of their own. A failed
+     * reservation rolls back only that transaction; left to join the record's transaction it would mark
+     * it rollback-only, and the failure event and dedup mark would be lost with it at commit.
+     * {@code reserveForOrder} skips SKUs already reserved, so a record replayed after its reservation
+     * committed does not reserve twice.
+     */
+    private void reserve(OrderCreatedPayload order) {
+        String orderId = order.orderId();
+        if (!present(orderId)) {
+            return;
         }
-        return rawList.stream()
-                .filter(Map.class::isInstance)
-                .map(Map.class::cast)
-                .map(item -> new OrderItemReservation(readString(item, "sku"), readInt(item, "quantity")))
-                .filter(item -> item.sku() != null && !item.sku().isBlank() && item.quantity() > 0)
+        List<OrderItemReservation> items = order.items() == null ? List.of() : order.items().stream()
+                .filter(item -> item != null && present(item.sku()) && item.quantity() > 0)
+                .map(item -> new OrderItemReservation(item.sku(), item.quantity()))
                 .toList();
-    }
-
-    private String readString(Map<String, Object> payload, String key) {
-        if (payload == null) {
-            return null;
-        }
-        Object value = payload.get(key);
-        if (value == null) {
-            return null;
+        if (items.isEmpty()) {
+            publishReservationFailed(orderId, "No order items in order.created event");
+            return;
         }
-        String text = value.toString();
-        return text.isBlank() ? null : text;
-    }
 
-    private int readInt(Map<String, Object> payload, String key) {
-        if (payload == null || payload.get(key) == null) {
-            return 0;
-        }
         try {
-            return Integer.parseInt(payload.get(key).toString());
-        } catch (Exception ex) {
-            return 0;
+            reservationTransaction.executeWithoutResult(status -> {
+                inventoryService.reserveForOrder(orderId, items, reservationTtlMinutes);
+                publishReserved(orderId);
+            });
+        } catch (RuntimeException ex) {
+            publishReservationFailed(orderId, ex.getMessage());
         }
     }
 
+    private boolean present(String value) {
+        return value != null && !value.isBlank();
+    }
+
     private void publishReserved(String orderId) {
         publish(inventoryReservedTopic, "inventory.reserved.v1", orderId, null);
     }
@@ -165,7 +156,7 @@ public class InventorySagaConsumer {
     }
 
     private void publish(String topic, String eventType, String orderId, String reason) {
-        Map<String, Object> payload = new java.util.LinkedHashMap<>();
+        Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("orderId", orderId);
         if (reason != null && !reason.isBlank()) {
             payload.put("reason", reason);
@@ -0,0 +1,14 @@
+package com.ecom.inventory.repository;
+
+import java.util.Collection;
+
+import com.ecom.inventory.entity.InventoryReservation;
+
+public interface InventoryReservationBatchOperations {
+
+    /**
+     * Persists brand-new reservations without the per-row existence SELECT that {@code saveAll} issues
+     * for assigned ids, letting Hibernate send them as one JDBC batch.
+     */
+    void insertAll(Collection<InventoryReservation> reservations);
+}
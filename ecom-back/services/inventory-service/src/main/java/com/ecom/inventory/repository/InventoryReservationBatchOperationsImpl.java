@@ -0,0 +1,22 @@
+package com.ecom.inventory.repository;
+
+import java.util.Collection;
+
+import com.ecom.inventory.entity.InventoryReservation;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+class InventoryReservationBatchOperationsImpl implements InventoryReservationBatchOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<InventoryReservation> reservations) {
+        for (InventoryReservation reservation : reservations) {
+            entityManager.persist(reservation);
+        }
+        entityManager.flush();
+    }
+}
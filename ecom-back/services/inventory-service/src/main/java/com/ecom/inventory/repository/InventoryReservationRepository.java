@@ -1,15 +1,63 @@
 package com.ecom.inventory.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
 
 import com.ecom.inventory.entity.InventoryReservation;
 
-public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, String> {
+public interface InventoryReservationRepository
+        extends JpaRepository<InventoryReservation, String>, InventoryReservationBatchOperations {
+
+    List<InventoryReservation> findByOrderIdAndStatus(String orderId, String status);
+
+    /**
+     * Keyset page of reservations expired before {@code cutoff}, ordered by {@code (expiresAt, reservationId)}
+     * and starting strictly after the given cursor. Served by {@code idx_inventory_reservation_status_expires}.
+     */
+    @Query("select r from InventoryReservation r where r.status = :status and r.expiresAt < :cutoff "
+            + "and (r.expiresAt > :afterExpiresAt "
+            + "or (r.expiresAt = :afterExpiresAt and r.reservationId > :afterReservationId)) "
+            + "order by r.expiresAt asc, r.reservationId asc")
+    List<InventoryReservation> findExpiredAfter(
+            @Param("status") String status,
+            @Param("cutoff") Instant cutoff,
+            @Param("afterExpiresAt") Instant afterExpiresAt,
+            @Param("afterReservationId") String afterReservationId,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from InventoryReservation r where r.reservationId in :reservationIds "
+            + "and r.status = :status and r.expiresAt <= :cutoff")
+    List<InventoryReservation> findExpiredByIdsForUpdate(
+            @Param("reservationIds") Collection<String> reservationIds,
+            @Param("status") String status,
+            @Param("cutoff") Instant cutoff);
 
-    List<InventoryReservation> findByReservationIdStartingWith(String prefix);
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :toStatus, r.updatedAt = :updatedAt "
+            + "where r.reservationId in :reservationIds and r.status = :fromStatus")
+    int updateStatusForIds(
+            @Param("reservationIds") Collection<String> reservationIds,
+            @Param("fromStatus") String fromStatus,
+            @Param("toStatus") String toStatus,
+            @Param("updatedAt") Instant updatedAt);
 
-    List<InventoryReservation> findTop100ByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(String status, Instant cutoff);
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :toStatus, r.updatedAt = :updatedAt "
+            + "where r.orderId = :orderId and r.status = :fromStatus")
+    int updateStatusForOrder(
+            @Param("orderId") String orderId,
+            @Param("fromStatus") String fromStatus,
+            @Param("toStatus") String toStatus,
+            @Param("updatedAt") Instant updatedAt);
 }
@@ -0,0 +1,29 @@
+package com.ecom.inventory.repository;
+
+import java.time.Instant;
+import java.util.Map;
+
+public interface InventoryStockBatchOperations {
+
+    /**
+     * Moves the requested quantities from available to reserved for every SKU in one UPDATE statement.
+     * Rows whose available quantity is below the requested amount are left untouched.
+     *
+     * @return number of stock rows updated
+     */
+    int reserveAll(Map<String, Integer> quantitiesBySku, Instant updatedAt);
+
+    /**
+     * Moves the given quantities from reserved back to available for every SKU in one UPDATE statement.
+     *
+     * @return number of stock rows updated
+     */
+    int releaseAll(Map<String, Integer> quantitiesBySku, Instant updatedAt);
+
+    /**
+     * Consumes the given reserved quantities for every SKU in one UPDATE statement.
+     *
+     * @return number of stock rows updated
+     */
+    int confirmAll(Map<String, Integer> quantitiesBySku, Instant updatedAt);
+}
@@ -0,0 +1,75 @@
+package com.ecom.inventory.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+class InventoryStockBatchOperationsImpl implements InventoryStockBatchOperations {
+
+    private static final String QUANTITY = "{quantity}";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reserveAll(Map<String, Integer> quantitiesBySku, Instant updatedAt) {
+        return updateAll(
+                quantitiesBySku,
+                updatedAt,
+                "available_quantity = available_quantity - " + QUANTITY + ", "
+                        + "reserved_quantity = reserved_quantity + " + QUANTITY,
+                "available_quantity >= " + QUANTITY);
+    }
+
+    @Override
+    public int releaseAll(Map<String, Integer> quantitiesBySku, Instant updatedAt) {
+        return updateAll(
+                quantitiesBySku,
+                updatedAt,
+                "available_quantity = available_quantity + " + QUANTITY + ", "
+                        + "reserved_quantity = greatest(0, reserved_quantity - " + QUANTITY + ")",
+                null);
+    }
+
+    @Override
+    public int confirmAll(Map<String, Integer> quantitiesBySku, Instant updatedAt) {
+        return updateAll(
+                quantitiesBySku,
+                updatedAt,
+                "reserved_quantity = greatest(0, reserved_quantity - " + QUANTITY + ")",
+                null);
+    }
+
+    private int updateAll(Map<String, Integer> quantitiesBySku, Instant updatedAt, String assignments, String guard) {
+        if (quantitiesBySku.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(quantitiesBySku.entrySet());
+        StringBuilder quantityCase = new StringBuilder("case sku");
+        List<String> skuParams = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            quantityCase.append(" when :sku").append(i).append(" then :qty").append(i);
+            skuParams.add(":sku" + i);
+        }
+        quantityCase.append(" end");
+
+        String sql = "update inventory_stock set "
+                + assignments.replace(QUANTITY, quantityCase) + ", "
+                + "updated_at = :updatedAt "
+                + "where sku in (" + String.join(", ", skuParams) + ")"
+                + (guard == null ? "" : " and " + guard.replace(QUANTITY, quantityCase));
+
+        Query query = entityManager.createNativeQuery(sql);
+        for (int i = 0; i < entries.size(); i++) {
+            query.setParameter("sku" + i, entries.get(i).getKey());
+            query.setParameter("qty" + i, entries.get(i).getValue());
+        }
+        query.setParameter("updatedAt", updatedAt);
+        return query.executeUpdate();
+    }
+}
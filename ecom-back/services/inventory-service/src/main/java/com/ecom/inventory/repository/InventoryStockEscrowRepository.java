@@ -0,0 +1,43 @@
+package com.ecom.inventory.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ecom.inventory.entity.InventoryStockEscrow;
+
+import jakarta.persistence.LockModeType;
+
+public interface InventoryStockEscrowRepository extends JpaRepository<InventoryStockEscrow, Long> {
+
+    Optional<InventoryStockEscrow> findBySkuAndOwnerId(String sku, String ownerId);
+
+    List<InventoryStockEscrow> findByLeaseExpiresAtBefore(Instant cutoff);
+
+    @Query("select coalesce(sum(e.quotaQuantity), 0) from InventoryStockEscrow e where e.sku = :sku")
+    int sumQuota(@Param("sku") String sku);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from InventoryStockEscrow e where e.sku = :sku order by e.ownerId")
+    List<InventoryStockEscrow> findAllBySkuForUpdate(@Param("sku") String sku);
+
+    /**
+     * Takes {@code quantity} from the owner's quota while its lease is live. Only the owner's own row is
+     * touched, so replicas never contend with each other here.
+     */
+    @Modifying
+    @Query("update InventoryStockEscrow e set e.quotaQuantity = e.quotaQuantity - :quantity, e.updatedAt = :now "
+            + "where e.sku = :sku and e.ownerId = :ownerId and e.quotaQuantity >= :quantity "
+            + "and e.leaseExpiresAt > :now")
+    int consume(
+            @Param("sku") String sku,
+            @Param("ownerId") String ownerId,
+            @Param("quantity") int quantity,
+            @Param("now") Instant now);
+}
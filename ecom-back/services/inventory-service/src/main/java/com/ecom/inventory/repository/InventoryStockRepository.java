@@ -1,9 +1,13 @@
 package com.ecom.inventory.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,11 +15,26 @@ import com.ecom.inventory.entity.InventoryStock;
 
 import jakarta.persistence.LockModeType;
 
-public interface InventoryStockRepository extends JpaRepository<InventoryStock, Long> {
+public interface InventoryStockRepository extends JpaRepository<InventoryStock, Long>, InventoryStockBatchOperations {
 
     Optional<InventoryStock> findBySku(String sku);
 
+    List<InventoryStock> findAllBySkuIn(Collection<String> skus);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select s from InventoryStock s where s.sku = :sku")
     Optional<InventoryStock> findBySkuForUpdate(@Param("sku") String sku);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from InventoryStock s where s.sku in :skus order by s.sku")
+    List<InventoryStock> findAllBySkuInForUpdate(@Param("skus") Collection<String> skus);
+
+    @Modifying
+    @Query("update InventoryStock s set s.availableQuantity = :available, s.reservedQuantity = :reserved, "
+            + "s.updatedAt = :updatedAt where s.sku = :sku")
+    int updateCounters(
+            @Param("sku") String sku,
+            @Param("available") int available,
+            @Param("reserved") int reserved,
+            @Param("updatedAt") Instant updatedAt);
 }
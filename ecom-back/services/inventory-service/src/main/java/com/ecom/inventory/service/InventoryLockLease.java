@@ -0,0 +1,7 @@
+package com.ecom.inventory.service;
+
+public record InventoryLockLease(
+        String sku,
+        String ownerToken,
+        long fencingToken) {
+}
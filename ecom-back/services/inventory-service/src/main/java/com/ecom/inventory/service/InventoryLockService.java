@@ -1,36 +1,148 @@
 package com.ecom.inventory.service;
 
 import java.time.Duration;
-import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Per-SKU Redis lease lock.
+ * Each acquisition stores a random owner token with a TTL and returns a fencing token from a per-SKU
+ * counter; release and renewal only touch the key while it still holds the caller's owner token.
+ * Contending callers retry with jittered backoff up to {@code app.inventory.lock.wait-timeout}.
+ * Fence counters are kept without TTL, so Redis must persist them across restarts.
+ */
 @Service
 public class InventoryLockService {
 
-    private static final Duration LOCK_TTL = Duration.ofSeconds(5);
+    private static final Logger log = LoggerFactory.getLogger(InventoryLockService.class);
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then "
+                    + "return redis.call('incr', KEYS[2]) else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 2;
+    private static final long MAX_BACKOFF_MILLIS = 50;
 
     private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration leaseTtl;
+    private final Duration waitTimeout;
+    private final Map<String, InventoryLockLease> heldLeases = new ConcurrentHashMap<>();
 
-    public InventoryLockService(StringRedisTemplate redisTemplate) {
+    public InventoryLockService(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.inventory.lock.lease-ttl:PT5S}") Duration leaseTtl,
+            @Value("${app.inventory.lock.wait-timeout:PT0.5S}") Duration waitTimeout) {
         this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.leaseTtl = leaseTtl;
+        this.waitTimeout = waitTimeout;
     }
 
-    public boolean acquire(String sku) {
-        String key = key(sku);
-        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(
-                key,
-                String.valueOf(Instant.now().toEpochMilli()),
-                LOCK_TTL);
-        return Boolean.TRUE.equals(acquired);
+    public Optional<InventoryLockLease> acquire(String sku) {
+        long start = System.nanoTime();
+        long deadline = start + waitTimeout.toNanos();
+        String ownerToken = UUID.randomUUID().toString();
+        long backoff = MIN_BACKOFF_MILLIS;
+        boolean contended = false;
+        while (true) {
+            Long fencingToken = redisTemplate.execute(
+                    ACQUIRE_SCRIPT,
+                    List.of(key(sku), fenceKey(sku)),
+                    ownerToken,
+                    String.valueOf(leaseTtl.toMillis()));
+            if (fencingToken != null && fencingToken > 0) {
+                InventoryLockLease lease = new InventoryLockLease(sku, ownerToken, fencingToken);
+                heldLeases.put(ownerToken, lease);
+                recordWait(sku, "acquired", start);
+                return Optional.of(lease);
+            }
+            if (!contended) {
+                contended = true;
+                meterRegistry.counter("inventory.lock.contention", "sku", sku).increment();
+            }
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                recordWait(sku, "timeout", start);
+                return Optional.empty();
+            }
+            long sleep = Math.min(remainingMillis, ThreadLocalRandom.current().nextLong(MIN_BACKOFF_MILLIS, backoff + 1));
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                recordWait(sku, "interrupted", start);
+                return Optional.empty();
+            }
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
     }
 
-    public void release(String sku) {
-        redisTemplate.delete(key(sku));
+    public void release(InventoryLockLease lease) {
+        heldLeases.remove(lease.ownerToken());
+        Long deleted = redisTemplate.execute(RELEASE_SCRIPT, List.of(key(lease.sku())), lease.ownerToken());
+        if (deleted == null || deleted == 0) {
+            meterRegistry.counter("inventory.lock.lost", "sku", lease.sku()).increment();
+            log.warn("Inventory lock lease was no longer held at release sku={} fencingToken={}",
+                    lease.sku(), lease.fencingToken());
+        }
+    }
+
+    public boolean renew(InventoryLockLease lease) {
+        Long renewed = redisTemplate.execute(
+                RENEW_SCRIPT,
+                List.of(key(lease.sku())),
+                lease.ownerToken(),
+                String.valueOf(leaseTtl.toMillis()));
+        return renewed != null && renewed > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.lock.renew-interval:PT1S}")
+    public void renewHeldLeases() {
+        for (InventoryLockLease lease : heldLeases.values()) {
+            if (!renew(lease)) {
+                heldLeases.remove(lease.ownerToken());
+            }
+        }
+    }
+
+    private void recordWait(String sku, String outcome, long startNanos) {
+        Timer.builder("inventory.lock.wait")
+                .tag("sku", sku)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
     }
 
     private String key(String sku) {
         return "inventory:lock:" + sku;
     }
+
+    private String fenceKey(String sku) {
+        return "inventory:lock:fence:" + sku;
+    }
 }
@@ -2,18 +2,30 @@ package com.ecom.inventory.service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.inventory.dto.ReservationActionRequest;
 import com.ecom.inventory.dto.ReservationRequest;
 import com.ecom.inventory.dto.StockResponse;
 import com.ecom.inventory.dto.StockUpsertRequest;
 import com.ecom.inventory.entity.InventoryReservation;
 import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.exception.InsufficientStockException;
 import com.ecom.inventory.exception.InventoryNotFoundException;
 import com.ecom.inventory.repository.InventoryReservationRepository;
 import com.ecom.inventory.repository.InventoryStockRepository;
@@ -21,43 +33,120 @@ import com.ecom.inventory.repository.InventoryStockRepository;
 @Service
 public class InventoryService implements InventoryUseCases {
 
+    private static final int MAX_BULK_SKUS = 200;
+
     private final InventoryStockRepository stockRepository;
     private final InventoryReservationRepository reservationRepository;
     private final InventoryLockService lockService;
+    private final ReservationExpiryQueue expiryQueue;
+    private final StockAvailabilityCache stockCache;
+    private final StockLedger stockLedger;
+    private final StockEscrow stockEscrow;
+    private final RetryTopics retryTopics;
 
     public InventoryService(
             InventoryStockRepository stockRepository,
             InventoryReservationRepository reservationRepository,
-            InventoryLockService lockService) {
+            InventoryLockService lockService,
+            ReservationExpiryQueue expiryQueue,
+            StockAvailabilityCache stockCache,
+            @Autowired(required = false) StockLedger stockLedger,
+            @Autowired(required = false) StockEscrow stockEscrow,
+            RetryTopics retryTopics) {
         this.stockRepository = stockRepository;
         this.reservationRepository = reservationRepository;
         this.lockService = lockService;
+        this.expiryQueue = expiryQueue;
+        this.stockCache = stockCache;
+        this.stockLedger = stockLedger;
+        this.stockEscrow = stockEscrow;
+        this.retryTopics = retryTopics;
     }
 
     @Transactional
     public StockResponse upsertStock(StockUpsertRequest request) {
+        if (stockLedger != null) {
+            return stockLedger.upsert(request.sku(), request.availableQuantity());
+        }
         InventoryStock stock = stockRepository.findBySku(request.sku()).orElseGet(InventoryStock::new);
         if (stock.getId() == null) {
             stock.setSku(request.sku());
             stock.setReservedQuantity(0);
         }
-        stock.setAvailableQuantity(request.availableQuantity());
+        int outstandingQuota = stockEscrow == null || stock.getId() == null ? 0 : stockEscrow.outstandingQuota(request.sku());
+        // Quota already handed to replicas still counts towards the requested total.
+        stock.setAvailableQuantity(Math.max(0, request.availableQuantity() - outstandingQuota));
         InventoryStock saved = stockRepository.save(stock);
+        stockCache.invalidate(List.of(request.sku()));
         return toResponse(saved);
     }
 
-    @Transactional(readOnly = true)
     public StockResponse getStock(String sku) {
-        InventoryStock stock = stockRepository.findBySku(sku)
-                .orElseThrow(() -> new InventoryNotFoundException("Inventory stock not found for SKU: " + sku));
-        return toResponse(stock);
+        if (stockLedger != null) {
+            var cached = stockLedger.peek(sku);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        return stockCache.get(sku, () -> stockRepository.findBySku(sku)
+                .map(this::toResponse)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory stock not found for SKU: " + sku)));
+    }
+
+    @Override
+    public List<StockResponse> getStocks(List<String> skus) {
+        if (skus == null || skus.isEmpty()) {
+            throw new IllegalArgumentException("skus are required");
+        }
+        if (skus.size() > MAX_BULK_SKUS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SKUS + " SKUs per request");
+        }
+        Map<String, StockResponse> ledgered = new LinkedHashMap<>();
+        if (stockLedger != null) {
+            skus.forEach(sku -> stockLedger.peek(sku).ifPresent(stock -> ledgered.put(sku, stock)));
+        }
+        List<String> remaining = skus.stream().filter(sku -> !ledgered.containsKey(sku)).toList();
+        Map<String, StockResponse> cached = new HashMap<>();
+        if (!remaining.isEmpty()) {
+            stockCache.getAll(remaining, missing -> stockRepository.findAllBySkuIn(missing).stream()
+                            .map(this::toResponse)
+                            .toList())
+                    .forEach(stock -> cached.put(stock.sku(), stock));
+        }
+        List<StockResponse> result = new ArrayList<>();
+        for (String sku : new LinkedHashSet<>(skus)) {
+            StockResponse stock = ledgered.containsKey(sku) ? ledgered.get(sku) : cached.get(sku);
+            if (stock != null) {
+                result.add(stock);
+            }
+        }
+        return result;
     }
 
     @Transactional
     public StockResponse reserve(ReservationRequest request) {
-        if (!lockService.acquire(request.sku())) {
-            throw new IllegalStateException("Could not acquire inventory lock for SKU");
+        if (stockLedger != null) {
+            StockResponse response = stockLedger.reserve(request);
+            expiryQueue.schedule(request.reservationId(), Instant.now().plusSeconds(request.ttlMinutes() * 60L));
+            return response;
         }
+        if (stockEscrow != null && stockEscrow.manages(request.sku())) {
+            if (reservationRepository.existsById(request.reservationId())) {
+                throw new IllegalArgumentException("Reservation already exists");
+            }
+            if (stockEscrow.take(request.sku(), request.quantity())) {
+                InventoryReservation reservation = newReservation(
+                        request.reservationId(), null, request.sku(), request.quantity(), request.ttlMinutes(), Instant.now());
+                reservationRepository.insertAll(List.of(reservation));
+                expiryQueue.schedule(reservation.getReservationId(), reservation.getExpiresAt());
+                stockCache.invalidate(List.of(request.sku()));
+                return stockRepository.findBySku(request.sku())
+                        .map(this::toResponse)
+                        .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+            }
+        }
+        InventoryLockLease lease = lockService.acquire(request.sku())
+                .orElseThrow(() -> new IllegalStateException("Could not acquire inventory lock for SKU"));
         try {
             if (reservationRepository.findById(request.reservationId()).isPresent()) {
                 throw new IllegalArgumentException("Reservation already exists");
@@ -65,6 +154,7 @@ public class InventoryService implements InventoryUseCases {
 
             InventoryStock stock = stockRepository.findBySkuForUpdate(request.sku())
                     .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+            applyFence(stock, lease);
 
             if (stock.getAvailableQuantity() < request.quantity()) {
                 throw new IllegalArgumentException("Insufficient stock");
@@ -75,37 +165,37 @@ public class InventoryService implements InventoryUseCases {
             stockRepository.save(stock);
 
             Instant now = Instant.now();
-            InventoryReservation reservation = new InventoryReservation();
-            reservation.setReservationId(request.reservationId());
-            reservation.setSku(request.sku());
-            reservation.setQuantity(request.quantity());
-            reservation.setStatus("RESERVED");
-            reservation.setCreatedAt(now);
-            reservation.setUpdatedAt(now);
-            reservation.setExpiresAt(now.plusSeconds(request.ttlMinutes() * 60L));
+            InventoryReservation reservation = newReservation(
+                    request.reservationId(), null, request.sku(), request.quantity(), request.ttlMinutes(), now);
             reservationRepository.save(reservation);
+            expiryQueue.schedule(reservation.getReservationId(), reservation.getExpiresAt());
+            stockCache.invalidate(List.of(request.sku()));
 
             return toResponse(stock);
         } finally {
-            lockService.release(request.sku());
+            lockService.release(lease);
         }
     }
 
     @Transactional
     public StockResponse release(ReservationActionRequest request) {
-        InventoryReservation reservation = reservationRepository.findById(request.reservationId())
+        InventoryReservation reservation = findReservation(request.reservationId())
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
 
         if (!"RESERVED".equals(reservation.getStatus())) {
             throw new IllegalArgumentException("Reservation is not releasable");
         }
-
-        if (!lockService.acquire(reservation.getSku())) {
-            throw new IllegalStateException("Could not acquire inventory lock for SKU");
+        if (stockLedger != null) {
+            return stockLedger.release(reservation);
         }
+
+        InventoryLockLease lease = lockService.acquire(reservation.getSku())
+                .orElseThrow(() -> new IllegalStateException("Could not acquire inventory lock for SKU"));
         try {
             InventoryStock stock = stockRepository.findBySkuForUpdate(reservation.getSku())
                     .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+            applyFence(stock, lease);
+            reconcileEscrow(List.of(stock));
 
             stock.setAvailableQuantity(stock.getAvailableQuantity() + reservation.getQuantity());
             stock.setReservedQuantity(Math.max(0, stock.getReservedQuantity() - reservation.getQuantity()));
@@ -114,28 +204,33 @@ public class InventoryService implements InventoryUseCases {
             reservation.setStatus("RELEASED");
             reservation.setUpdatedAt(Instant.now());
             reservationRepository.save(reservation);
+            stockCache.invalidate(List.of(reservation.getSku()));
 
             return toResponse(stock);
         } finally {
-            lockService.release(reservation.getSku());
+            lockService.release(lease);
         }
     }
 
     @Transactional
     public StockResponse confirm(ReservationActionRequest request) {
-        InventoryReservation reservation = reservationRepository.findById(request.reservationId())
+        InventoryReservation reservation = findReservation(request.reservationId())
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
 
         if (!"RESERVED".equals(reservation.getStatus())) {
             throw new IllegalArgumentException("Reservation is not confirmable");
         }
-
-        if (!lockService.acquire(reservation.getSku())) {
-            throw new IllegalStateException("Could not acquire inventory lock for SKU");
+        if (stockLedger != null) {
+            return stockLedger.confirm(reservation);
         }
+
+        InventoryLockLease lease = lockService.acquire(reservation.getSku())
+                .orElseThrow(() -> new IllegalStateException("Could not acquire inventory lock for SKU"));
         try {
             InventoryStock stock = stockRepository.findBySkuForUpdate(reservation.getSku())
                     .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+            applyFence(stock, lease);
+            reconcileEscrow(List.of(stock));
 
             stock.setReservedQuantity(Math.max(0, stock.getReservedQuantity() - reservation.getQuantity()));
             stockRepository.save(stock);
@@ -143,10 +238,11 @@ public class InventoryService implements InventoryUseCases {
             reservation.setStatus("CONFIRMED");
             reservation.setUpdatedAt(Instant.now());
             reservationRepository.save(reservation);
+            stockCache.invalidate(List.of(reservation.getSku()));
 
             return toResponse(stock);
         } finally {
-            lockService.release(reservation.getSku());
+            lockService.release(lease);
         }
     }
 
@@ -160,7 +256,8 @@ public class InventoryService implements InventoryUseCases {
             throw new IllegalArgumentException("order items are required");
         }
 
-        Map<String, Integer> bySku = new java.util.LinkedHashMap<>();
+        // Sorted by SKU so concurrent orders always lock stock rows in the same order.
+        Map<String, Integer> bySku = new TreeMap<>();
         for (OrderItemReservation item : items) {
             if (item == null || item.sku() == null || item.sku().isBlank() || item.quantity() <= 0) {
                 throw new IllegalArgumentException("Invalid order item payload");
@@ -168,13 +265,57 @@ public class InventoryService implements InventoryUseCases {
             bySku.merge(item.sku(), item.quantity(), Integer::sum);
         }
 
+        if (stockLedger != null) {
+            reserveEachForOrder(orderId, bySku, ttlMinutes);
+            return;
+        }
+
+        Map<String, String> reservationIds = new LinkedHashMap<>();
+        bySku.keySet().forEach(sku -> reservationIds.put(sku, reservationId(orderId, sku)));
+        Set<String> existingIds = new HashSet<>();
+        reservationRepository.findAllById(reservationIds.values())
+                .forEach(reservation -> existingIds.add(reservation.getReservationId()));
+        bySku.keySet().removeIf(sku -> existingIds.contains(reservationIds.get(sku)));
+        if (bySku.isEmpty()) {
+            return;
+        }
+
+        Map<String, InventoryStock> locked = new HashMap<>();
+        stockRepository.findAllBySkuInForUpdate(bySku.keySet()).forEach(stock -> locked.put(stock.getSku(), stock));
+        List<StockShortfall> shortfalls = new ArrayList<>();
+        bySku.forEach((sku, quantity) -> {
+            InventoryStock stock = locked.get(sku);
+            int available = stock == null ? 0 : stock.getAvailableQuantity();
+            if (available < quantity) {
+                shortfalls.add(new StockShortfall(sku, quantity, available));
+            }
+        });
+        if (!shortfalls.isEmpty()) {
+            throw new InsufficientStockException(shortfalls);
+        }
+
+        Instant now = Instant.now();
+        if (stockRepository.reserveAll(bySku, now) != bySku.size()) {
+            throw new IllegalStateException("Stock changed while reserving order " + orderId);
+        }
+        stockCache.invalidate(bySku.keySet());
+
+        List<InventoryReservation> reservations = new ArrayList<>();
+        bySku.forEach((sku, quantity) ->
+                reservations.add(newReservation(reservationIds.get(sku), orderId, sku, quantity, ttlMinutes, now)));
+        reservationRepository.insertAll(reservations);
+        expiryQueue.scheduleAll(reservations);
+    }
+
+    private void reserveEachForOrder(String orderId, Map<String, Integer> bySku, int ttlMinutes) {
         List<String> reservedIds = new ArrayList<>();
         try {
             for (var entry : bySku.entrySet()) {
                 String reservationId = reservationId(orderId, entry.getKey());
                 ReservationRequest request = new ReservationRequest(reservationId, entry.getKey(), entry.getValue(), ttlMinutes);
                 try {
-                    reserve(request);
+                    stockLedger.reserve(request, orderId);
+                    expiryQueue.schedule(reservationId, Instant.now().plusSeconds(ttlMinutes * 60L));
                 } catch (IllegalArgumentException ex) {
                     if (!"Reservation already exists".equals(ex.getMessage())) {
                         throw ex;
@@ -193,48 +334,119 @@ public class InventoryService implements InventoryUseCases {
     @Override
     @Transactional
     public void releaseForOrder(String orderId) {
-        for (InventoryReservation reservation : findOrderReservations(orderId)) {
-            safeRelease(reservation.getReservationId());
+        if (stockLedger != null) {
+            for (InventoryReservation reservation : findOrderReservations(orderId)) {
+                safeRelease(reservation.getReservationId());
+            }
+            return;
         }
+        settleForOrder(orderId, "RELEASED");
     }
 
     @Override
     @Transactional
     public void confirmForOrder(String orderId) {
-        for (InventoryReservation reservation : findOrderReservations(orderId)) {
-            safeConfirm(reservation.getReservationId());
+        if (stockLedger != null) {
+            for (InventoryReservation reservation : findOrderReservations(orderId)) {
+                safeConfirm(reservation.getReservationId());
+            }
+            return;
+        }
+        settleForOrder(orderId, "CONFIRMED");
+    }
+
+    private void settleForOrder(String orderId, String toStatus) {
+        List<InventoryReservation> reservations = findOrderReservations(orderId);
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> bySku = new TreeMap<>();
+        reservations.forEach(reservation -> bySku.merge(reservation.getSku(), reservation.getQuantity(), Integer::sum));
+
+        // Lock rows in SKU order first, matching reserveForOrder, then settle the whole order in two statements.
+        reconcileEscrow(stockRepository.findAllBySkuInForUpdate(bySku.keySet()));
+        Instant now = Instant.now();
+        if ("RELEASED".equals(toStatus)) {
+            stockRepository.releaseAll(bySku, now);
+        } else {
+            stockRepository.confirmAll(bySku, now);
+        }
+        stockCache.invalidate(bySku.keySet());
+        int updated = reservationRepository.updateStatusForOrder(orderId, "RESERVED", toStatus, now);
+        if (updated != reservations.size()) {
+            throw new IllegalStateException("Reservations changed while settling order " + orderId);
         }
     }
 
     @Override
     @Transactional
-    public int releaseExpiredReservations(Instant cutoff, int batchSize) {
-        int safeBatchSize = Math.max(1, Math.min(batchSize, 500));
-        List<InventoryReservation> expired = reservationRepository
-                .findTop100ByStatusAndExpiresAtBeforeOrderByExpiresAtAsc("RESERVED", cutoff);
-
-        int releasedCount = 0;
-        for (int i = 0; i < Math.min(expired.size(), safeBatchSize); i++) {
-            InventoryReservation reservation = expired.get(i);
-            try {
-                safeRelease(reservation.getReservationId());
-                releasedCount++;
-            } catch (Exception ignored) {
-                // Keep sweep progressing even if a single reservation release fails.
+    public int releaseExpiredReservations(Collection<String> reservationIds, Instant cutoff) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+        if (stockLedger != null) {
+            int released = 0;
+            for (String reservationId : reservationIds) {
+                InventoryReservation reservation = findReservation(reservationId).orElse(null);
+                if (reservation == null || !"RESERVED".equals(reservation.getStatus())
+                        || reservation.getExpiresAt().isAfter(cutoff)) {
+                    continue;
+                }
+                try {
+                    stockLedger.release(reservation);
+                    released++;
+                } catch (IllegalArgumentException ignored) {
+                    // Settled concurrently by the saga; nothing left to release.
+                }
             }
+            return released;
+        }
+
+        Set<String> skus = new TreeSet<>();
+        reservationRepository.findAllById(reservationIds).forEach(reservation -> skus.add(reservation.getSku()));
+        if (skus.isEmpty()) {
+            return 0;
+        }
+        // Stock rows first, in SKU order like every other writer, then re-read the still-expired rows under lock.
+        reconcileEscrow(stockRepository.findAllBySkuInForUpdate(skus));
+        List<InventoryReservation> expired = reservationRepository
+                .findExpiredByIdsForUpdate(reservationIds, "RESERVED", cutoff);
+        if (expired.isEmpty()) {
+            return 0;
         }
-        return releasedCount;
+        Map<String, Integer> bySku = new TreeMap<>();
+        expired.forEach(reservation -> bySku.merge(reservation.getSku(), reservation.getQuantity(), Integer::sum));
+        Instant now = Instant.now();
+        stockRepository.releaseAll(bySku, now);
+        stockCache.invalidate(bySku.keySet());
+        return reservationRepository.updateStatusForIds(
+                expired.stream().map(InventoryReservation::getReservationId).toList(), "RESERVED", "RELEASED", now);
+    }
+
+    @Override
+    public int replayDeadLetteredEvents() {
+        return retryTopics.replayDeadLetters(100);
     }
 
     private List<InventoryReservation> findOrderReservations(String orderId) {
         if (orderId == null || orderId.isBlank()) {
             return List.of();
         }
-        return reservationRepository.findByReservationIdStartingWith(orderId + ":");
+        if (stockLedger != null) {
+            return stockLedger.findReservationsForOrder(orderId);
+        }
+        return reservationRepository.findByOrderIdAndStatus(orderId, "RESERVED");
+    }
+
+    private Optional<InventoryReservation> findReservation(String reservationId) {
+        if (stockLedger != null) {
+            return stockLedger.findReservation(reservationId);
+        }
+        return reservationRepository.findById(reservationId);
     }
 
     private void safeRelease(String reservationId) {
-        var found = reservationRepository.findById(reservationId);
+        var found = findReservation(reservationId);
         if (found.isEmpty()) {
             return;
         }
@@ -246,7 +458,7 @@ public class InventoryService implements InventoryUseCases {
     }
 
     private void safeConfirm(String reservationId) {
-        var found = reservationRepository.findById(reservationId);
+        var found = findReservation(reservationId);
         if (found.isEmpty()) {
             return;
         }
@@ -257,11 +469,48 @@ public class InventoryService implements InventoryUseCases {
         confirm(new ReservationActionRequest(reservationId));
     }
 
+    private void reconcileEscrow(List<InventoryStock> lockedStocks) {
+        if (stockEscrow == null) {
+            return;
+        }
+        List<InventoryStock> escrowed = lockedStocks.stream().filter(stock -> stock.getEscrowedQuantity() > 0).toList();
+        if (!escrowed.isEmpty()) {
+            escrowed.forEach(stockEscrow::reconcile);
+            // Flush before the bulk CASE updates so they apply on top of the reconciled counters.
+            stockRepository.saveAllAndFlush(escrowed);
+        }
+    }
+
+    private InventoryReservation newReservation(
+            String reservationId, String orderId, String sku, int quantity, int ttlMinutes, Instant now) {
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setReservationId(reservationId);
+        reservation.setOrderId(orderId);
+        reservation.setSku(sku);
+        reservation.setQuantity(quantity);
+        reservation.setStatus("RESERVED");
+        reservation.setCreatedAt(now);
+        reservation.setUpdatedAt(now);
+        reservation.setExpiresAt(now.plusSeconds(ttlMinutes * 60L));
+        return reservation;
+    }
+
+    private void applyFence(InventoryStock stock, InventoryLockLease lease) {
+        // A newer token on the row means our lease expired and another holder already wrote this SKU.
+        if (stock.getFencingToken() > lease.fencingToken()) {
+            throw new IllegalStateException("Inventory lock lease expired for SKU");
+        }
+        stock.setFencingToken(lease.fencingToken());
+    }
+
     private String reservationId(String orderId, String sku) {
         return orderId + ":" + sku;
     }
 
     private StockResponse toResponse(InventoryStock stock) {
+        if (stockEscrow != null) {
+            return stockEscrow.view(stock);
+        }
         return new StockResponse(stock.getSku(), stock.getAvailableQuantity(), stock.getReservedQuantity());
     }
 }
@@ -1,6 +1,7 @@
 package com.ecom.inventory.service;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 import com.ecom.inventory.dto.ReservationActionRequest;
@@ -14,6 +15,8 @@ public interface InventoryUseCases {
 
     StockResponse getStock(String sku);
 
+    List<StockResponse> getStocks(List<String> skus);
+
     StockResponse reserve(ReservationRequest request);
 
     StockResponse release(ReservationActionRequest request);
@@ -26,5 +29,7 @@ public interface InventoryUseCases {
 
     void confirmForOrder(String orderId);
 
-    int releaseExpiredReservations(Instant cutoff, int batchSize);
+    int releaseExpiredReservations(Collection<String> reservationIds, Instant cutoff);
+
+    int replayDeadLetteredEvents();
 }
@@ -0,0 +1,159 @@
+package com.ecom.inventory.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.ecom.inventory.entity.InventoryReservation;
+
+/**
+ * Redis sorted sets of reservation deadlines, split into fixed partitions.
+ * Members are reservation ids scored by {@code expiresAt} epoch millis; a reservation lands in
+ * partition {@code floorMod(hash(reservationId), partitions)}. Each partition is owned by one
+ * replica at a time through a renewable owner key, and replicas cap how many partitions they hold
+ * by the number of live members, so ownership spreads out as replicas join.
+ */
+@Component
+public class ReservationExpiryQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryQueue.class);
+
+    private static final String MEMBERS_KEY = "inventory:reservation-expiry:members";
+
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) "
+                    + "elseif redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 "
+                    + "else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> RELINQUISH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final int partitions;
+    private final Duration ownershipTtl;
+    private final String ownerToken = UUID.randomUUID().toString();
+
+    public ReservationExpiryQueue(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.inventory.reservation-expiry-partitions:16}") int partitions,
+            @Value("${app.inventory.reservation-expiry-ownership-ttl:PT10S}") Duration ownershipTtl) {
+        this.redisTemplate = redisTemplate;
+        this.partitions = Math.max(1, partitions);
+        this.ownershipTtl = ownershipTtl;
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    public void schedule(String reservationId, Instant expiresAt) {
+        schedule(Map.of(reservationId, expiresAt));
+    }
+
+    public void scheduleAll(Collection<InventoryReservation> reservations) {
+        Map<String, Instant> deadlines = new LinkedHashMap<>();
+        reservations.forEach(reservation -> deadlines.put(reservation.getReservationId(), reservation.getExpiresAt()));
+        schedule(deadlines);
+    }
+
+    /**
+     * Returns up to {@code limit} reservation ids of the partition whose deadline is at or before
+     * {@code now}, earliest first, with their deadlines.
+     */
+    public Map<String, Instant> due(int partition, Instant now, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(key(partition), 0, now.toEpochMilli(), 0, limit);
+        Map<String, Instant> due = new LinkedHashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    due.put(tuple.getValue(), Instant.ofEpochMilli(tuple.getScore().longValue()));
+                }
+            }
+        }
+        return due;
+    }
+
+    public void remove(int partition, Collection<String> reservationIds) {
+        if (!reservationIds.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key(partition), reservationIds.toArray());
+        }
+    }
+
+    /**
+     * Heartbeats this replica, then claims or renews partitions up to its fair share and gives back
+     * any it holds beyond that. Returns the partitions this replica owns until the next call.
+     */
+    public List<Integer> claimPartitions() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(MEMBERS_KEY, ownerToken, now);
+        redisTemplate.opsForZSet().removeRangeByScore(MEMBERS_KEY, 0, now - ownershipTtl.toMillis());
+        Long members = redisTemplate.opsForZSet().zCard(MEMBERS_KEY);
+        int liveMembers = members == null ? 1 : (int) Math.max(1, members);
+        int fairShare = (partitions + liveMembers - 1) / liveMembers;
+
+        // Start at a per-replica offset so replicas racing for free partitions mostly pick different ones.
+        int offset = Math.floorMod(ownerToken.hashCode(), partitions);
+        List<Integer> owned = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            int partition = (offset + i) % partitions;
+            if (owned.size() >= fairShare) {
+                redisTemplate.execute(RELINQUISH_SCRIPT, List.of(ownerKey(partition)), ownerToken);
+                continue;
+            }
+            Long claimed = redisTemplate.execute(
+                    CLAIM_SCRIPT,
+                    List.of(ownerKey(partition)),
+                    ownerToken,
+                    String.valueOf(ownershipTtl.toMillis()));
+            if (claimed != null && claimed > 0) {
+                owned.add(partition);
+            }
+        }
+        return owned;
+    }
+
+    private void schedule(Map<String, Instant> deadlines) {
+        if (deadlines.isEmpty()) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, Instant> entry : deadlines.entrySet()) {
+                redisTemplate.opsForZSet().add(
+                        key(partitionOf(entry.getKey())), entry.getKey(), entry.getValue().toEpochMilli());
+            }
+        } catch (RuntimeException ex) {
+            // The database sweep still finds these reservations, only later than their exact deadline.
+            log.warn("Could not schedule reservation expiry in Redis: reservations={}, error={}",
+                    deadlines.size(), ex.getMessage());
+        }
+    }
+
+    int partitionOf(String reservationId) {
+        return Math.floorMod(reservationId.hashCode(), partitions);
+    }
+
+    private String key(int partition) {
+        return "inventory:reservation-expiry:" + partition;
+    }
+
+    private String ownerKey(int partition) {
+        return "inventory:reservation-expiry:owner:" + partition;
+    }
+}
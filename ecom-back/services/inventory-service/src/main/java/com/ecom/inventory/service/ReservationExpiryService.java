@@ -1,33 +1,139 @@
 package com.ecom.inventory.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.ecom.inventory.entity.InventoryReservation;
+import com.ecom.inventory.repository.InventoryReservationRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Releases expired reservations close to their deadline.
+ * Every tick this replica renews its share of {@link ReservationExpiryQueue} partitions and drains
+ * the due entries of each in chunks of {@code app.inventory.reservation-expiry-batch-size}. A slower
+ * database sweep walks expired rows by keyset as a safety net for deadlines that never reached Redis;
+ * it runs on the owner of partition 0, or on every replica while Redis is unavailable.
+ */
 @Service
 public class ReservationExpiryService {
 
     private static final Logger log = LoggerFactory.getLogger(ReservationExpiryService.class);
 
     private final InventoryUseCases inventoryService;
+    private final InventoryReservationRepository reservationRepository;
+    private final ReservationExpiryQueue expiryQueue;
+    private final MeterRegistry meterRegistry;
     private final int batchSize;
+    private volatile List<Integer> ownedPartitions = List.of();
+    private volatile boolean queueAvailable = true;
 
     public ReservationExpiryService(
             InventoryUseCases inventoryService,
-            @Value("${app.inventory.reservation-expiry-batch-size:100}") int batchSize) {
+            InventoryReservationRepository reservationRepository,
+            ReservationExpiryQueue expiryQueue,
+            MeterRegistry meterRegistry,
+            @Value("${app.inventory.reservation-expiry-batch-size:500}") int batchSize) {
         this.inventoryService = inventoryService;
-        this.batchSize = batchSize;
+        this.reservationRepository = reservationRepository;
+        this.expiryQueue = expiryQueue;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.reservation-expiry-tick:PT1S}")
+    public void releaseDueReservations() {
+        try {
+            ownedPartitions = expiryQueue.claimPartitions();
+            queueAvailable = true;
+        } catch (RuntimeException ex) {
+            ownedPartitions = List.of();
+            queueAvailable = false;
+            log.warn("Reservation expiry queue unavailable, relying on database sweep: error={}", ex.getMessage());
+            return;
+        }
+        for (int partition : ownedPartitions) {
+            drainPartition(partition);
+        }
     }
 
     @Scheduled(fixedDelayString = "${app.inventory.reservation-expiry-scan-delay:PT60S}")
-    public void releaseExpiredReservations() {
-        int released = inventoryService.releaseExpiredReservations(Instant.now(), batchSize);
+    public void sweepExpiredReservations() {
+        if (queueAvailable && !ownedPartitions.contains(0)) {
+            return;
+        }
+        int released = releaseExpiredReservations(Instant.now());
         if (released > 0) {
-            log.info("Released {} expired inventory reservations", released);
+            log.info("Released {} expired inventory reservations missed by the expiry queue", released);
+        }
+    }
+
+    /**
+     * Walks every reservation expired before {@code cutoff} in keyset order and releases it in
+     * chunks, each in its own transaction. Rows that fail to release are skipped, not retried in the
+     * same pass, so one bad row cannot stall the sweep.
+     */
+    public int releaseExpiredReservations(Instant cutoff) {
+        Instant afterExpiresAt = Instant.EPOCH;
+        String afterReservationId = "";
+        int released = 0;
+        while (true) {
+            List<InventoryReservation> page = reservationRepository.findExpiredAfter(
+                    "RESERVED", cutoff, afterExpiresAt, afterReservationId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            InventoryReservation last = page.get(page.size() - 1);
+            afterExpiresAt = last.getExpiresAt();
+            afterReservationId = last.getReservationId();
+            try {
+                int chunk = inventoryService.releaseExpiredReservations(
+                        page.stream().map(InventoryReservation::getReservationId).toList(), cutoff);
+                released += chunk;
+                meterRegistry.counter("inventory.reservation.expiry.released", "source", "sweep").increment(chunk);
+            } catch (RuntimeException ex) {
+                log.warn("Expired reservation chunk release failed: after={}, error={}",
+                        afterReservationId, ex.getMessage());
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        return released;
+    }
+
+    private void drainPartition(int partition) {
+        while (true) {
+            Instant now = Instant.now();
+            Map<String, Instant> due = expiryQueue.due(partition, now, batchSize);
+            if (due.isEmpty()) {
+                return;
+            }
+            try {
+                int released = inventoryService.releaseExpiredReservations(due.keySet(), now);
+                meterRegistry.counter("inventory.reservation.expiry.released", "source", "queue").increment(released);
+            } catch (RuntimeException ex) {
+                // Entries stay queued and are retried on the next tick.
+                log.warn("Reservation expiry release failed: partition={}, reservations={}, error={}",
+                        partition, due.size(), ex.getMessage());
+                return;
+            }
+            Timer lag = meterRegistry.timer("inventory.reservation.expiry.lag");
+            due.values().forEach(deadline -> lag.record(Duration.between(deadline, now)));
+            expiryQueue.remove(partition, due.keySet());
+            if (due.size() < batchSize) {
+                return;
+            }
         }
     }
 }
@@ -0,0 +1,193 @@
+package com.ecom.inventory.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecom.inventory.dto.StockResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Two-tier read-through cache of stock counters: a per-instance Caffeine near cache in front of a
+ * shared Redis tier ({@code inventory:stock:{sku}}).
+ * Writers call {@link #invalidate(Collection)} and both tiers are evicted once their transaction
+ * commits. Other replicas' near caches are not told and a read racing a commit can repopulate a
+ * tier with the older value, so reads may lag a commit by up to {@code app.inventory.stock-cache.near-ttl}
+ * plus {@code redis-ttl}. Redis errors degrade to a database read.
+ */
+@Component
+public class StockAvailabilityCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAvailabilityCache.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration redisTtl;
+    private final Cache<String, StockResponse> nearCache;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+
+    public StockAvailabilityCache(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.inventory.stock-cache.near-ttl:PT1S}") Duration nearTtl,
+            @Value("${app.inventory.stock-cache.near-max-size:100000}") long nearMaxSize,
+            @Value("${app.inventory.stock-cache.redis-ttl:PT5S}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = redisTtl;
+        this.nearCache = Caffeine.newBuilder()
+                .expireAfterWrite(nearTtl)
+                .maximumSize(nearMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "inventory.stock.near");
+        Gauge.builder("inventory.stock.cache.hit.ratio", this, StockAvailabilityCache::hitRatio)
+                .description("Share of stock reads served by the near or Redis tier")
+                .register(meterRegistry);
+    }
+
+    public StockResponse get(String sku, Supplier<StockResponse> loader) {
+        requests.increment();
+        StockResponse near = nearCache.getIfPresent(sku);
+        if (near != null) {
+            nearHits.increment();
+            return near;
+        }
+        Optional<StockResponse> shared = readRedis(List.of(sku)).stream().findFirst();
+        if (shared.isPresent()) {
+            redisHits.increment();
+            nearCache.put(sku, shared.get());
+            return shared.get();
+        }
+        StockResponse loaded = loader.get();
+        put(List.of(loaded));
+        return loaded;
+    }
+
+    /**
+     * Resolves the given SKUs tier by tier; only SKUs missing from both tiers reach {@code loader}.
+     * Unknown SKUs are left out of the result.
+     */
+    public List<StockResponse> getAll(Collection<String> skus, Function<Set<String>, List<StockResponse>> loader) {
+        Set<String> wanted = new LinkedHashSet<>(skus);
+        requests.add(wanted.size());
+        Map<String, StockResponse> found = new LinkedHashMap<>(nearCache.getAllPresent(wanted));
+        nearHits.add(found.size());
+
+        Set<String> missing = new LinkedHashSet<>(wanted);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+            for (StockResponse shared : readRedis(List.copyOf(missing))) {
+                redisHits.increment();
+                nearCache.put(shared.sku(), shared);
+                found.put(shared.sku(), shared);
+                missing.remove(shared.sku());
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<StockResponse> loaded = loader.apply(missing);
+            put(loaded);
+            loaded.forEach(stock -> found.put(stock.sku(), stock));
+        }
+
+        List<StockResponse> ordered = new ArrayList<>();
+        for (String sku : wanted) {
+            StockResponse stock = found.get(sku);
+            if (stock != null) {
+                ordered.add(stock);
+            }
+        }
+        return ordered;
+    }
+
+    public void invalidate(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return;
+        }
+        List<String> keys = List.copyOf(skus);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(keys);
+                }
+            });
+        } else {
+            evict(keys);
+        }
+    }
+
+    double hitRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0.0 : (double) (nearHits.sum() + redisHits.sum()) / total;
+    }
+
+    private void evict(List<String> skus) {
+        nearCache.invalidateAll(skus);
+        try {
+            redisTemplate.delete(skus.stream().map(this::key).toList());
+        } catch (RuntimeException ex) {
+            // Entries left behind expire after redis-ttl.
+            log.warn("Stock cache Redis eviction failed: skus={}, error={}", skus.size(), ex.getMessage());
+        }
+    }
+
+    private List<StockResponse> readRedis(List<String> skus) {
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(skus.stream().map(this::key).toList());
+        } catch (RuntimeException ex) {
+            log.debug("Stock cache Redis read failed: {}", ex.getMessage());
+            return List.of();
+        }
+        List<StockResponse> hits = new ArrayList<>();
+        for (int i = 0; values != null && i < skus.size(); i++) {
+            String value = values.get(i);
+            if (value != null) {
+                String[] counters = value.split(":", 2);
+                hits.add(new StockResponse(skus.get(i), Integer.parseInt(counters[0]), Integer.parseInt(counters[1])));
+            }
+        }
+        return hits;
+    }
+
+    private void put(List<StockResponse> stocks) {
+        for (StockResponse stock : stocks) {
+            nearCache.put(stock.sku(), stock);
+        }
+        try {
+            for (StockResponse stock : stocks) {
+                redisTemplate.opsForValue().set(
+                        key(stock.sku()), stock.availableQuantity() + ":" + stock.reservedQuantity(), redisTtl);
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Stock cache Redis write failed: {}", ex.getMessage());
+        }
+    }
+
+    private String key(String sku) {
+        return "inventory:stock:" + sku;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecom.inventory.service;
+
+public record StockCounters(
+        String sku,
+        int availableQuantity,
+        int reservedQuantity) {
+}
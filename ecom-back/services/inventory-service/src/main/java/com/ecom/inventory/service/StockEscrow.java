@@ -0,0 +1,306 @@
+package com.ecom.inventory.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.inventory.dto.StockResponse;
+import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.entity.InventoryStockEscrow;
+import com.ecom.inventory.repository.InventoryStockEscrowRepository;
+import com.ecom.inventory.repository.InventoryStockRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Escrow mode for hot SKUs served by several replicas.
+ * Each replica draws a quota of {@code chunk-size} units from the SKU's shared pool into its own
+ * {@code inventory_stock_escrow} row and reserves against that row, so the hot {@code inventory_stock}
+ * row is only locked when a quota is granted, returned or reconciled.
+ * <p>
+ * {@code inventory_stock.escrowed_quantity} is the stock handed out as quota. Units reserved from a
+ * quota stay counted there until the next reconcile moves them into {@code reserved_quantity}, so any
+ * writer that changes {@code reserved_quantity} under the row lock must call {@link #reconcile} first.
+ * Every interval a replica renews its leases, gives back half its quota when the pool is empty and
+ * another replica is below {@code low-watermark}, returns idle quota, and reclaims quota whose lease
+ * expired with a dead replica.
+ * Enabled with {@code app.inventory.escrow.enabled=true} for the SKUs listed in
+ * {@code app.inventory.escrow.skus} (a trailing {@code *} matches a prefix).
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.escrow.enabled", havingValue = "true")
+public class StockEscrow {
+
+    private static final Logger log = LoggerFactory.getLogger(StockEscrow.class);
+
+    private final InventoryStockRepository stockRepository;
+    private final InventoryStockEscrowRepository escrowRepository;
+    private final TransactionTemplate requiresNew;
+    private final MeterRegistry meterRegistry;
+    private final List<String> skuPatterns;
+    private final int chunkSize;
+    private final int lowWatermark;
+    private final Duration leaseTtl;
+    private final Duration idleReturnAfter;
+    private final String ownerId = "inventory-" + UUID.randomUUID();
+    private final Map<String, AtomicInteger> localQuota = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastUsed = new ConcurrentHashMap<>();
+    private final Map<String, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public StockEscrow(
+            InventoryStockRepository stockRepository,
+            InventoryStockEscrowRepository escrowRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.inventory.escrow.skus:}") List<String> skuPatterns,
+            @Value("${app.inventory.escrow.chunk-size:100}") int chunkSize,
+            @Value("${app.inventory.escrow.low-watermark:10}") int lowWatermark,
+            @Value("${app.inventory.escrow.lease-ttl:PT30S}") Duration leaseTtl,
+            @Value("${app.inventory.escrow.idle-return-after:PT30S}") Duration idleReturnAfter) {
+        this.stockRepository = stockRepository;
+        this.escrowRepository = escrowRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.skuPatterns = skuPatterns.stream().map(String::trim).filter(pattern -> !pattern.isEmpty()).toList();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.lowWatermark = Math.max(0, lowWatermark);
+        this.leaseTtl = leaseTtl;
+        this.idleReturnAfter = idleReturnAfter;
+    }
+
+    public boolean manages(String sku) {
+        for (String pattern : skuPatterns) {
+            if (pattern.endsWith("*") ? sku.startsWith(pattern.substring(0, pattern.length() - 1)) : sku.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes {@code quantity} from this replica's quota in the caller's transaction, drawing a new chunk
+     * from the shared pool first when the local quota is short. Returns false when no quota could be
+     * had, in which case the caller falls back to the shared pool.
+     */
+    public boolean take(String sku, int quantity) {
+        AtomicInteger quota = localQuota.computeIfAbsent(sku, ignored -> new AtomicInteger());
+        if (quota.get() < quantity) {
+            refill(sku, quantity);
+        }
+        if (!tryDecrement(quota, quantity)) {
+            meterRegistry.counter("inventory.escrow.take", "outcome", "exhausted").increment();
+            return false;
+        }
+        Instant now = Instant.now();
+        if (escrowRepository.consume(sku, ownerId, quantity, now) != 1) {
+            // Local view drifted from the row (lease reclaimed or a rolled-back take); resync on the next tick.
+            quota.set(0);
+            meterRegistry.counter("inventory.escrow.take", "outcome", "drift").increment();
+            return false;
+        }
+        lastUsed.put(sku, now);
+        meterRegistry.counter("inventory.escrow.take", "outcome", "local").increment();
+        return true;
+    }
+
+    /**
+     * Moves units reserved from quotas into {@code reserved_quantity}. The caller must hold the stock
+     * row lock; the escrow rows of the SKU are locked here.
+     */
+    public void reconcile(InventoryStock stock) {
+        reconcile(stock, escrowRepository.findAllBySkuForUpdate(stock.getSku()));
+    }
+
+    /** Counters as clients see them: unreserved quota counts as available, consumed quota as reserved. */
+    public StockResponse view(InventoryStock stock) {
+        if (stock.getEscrowedQuantity() == 0) {
+            return new StockResponse(stock.getSku(), stock.getAvailableQuantity(), stock.getReservedQuantity());
+        }
+        int quota = escrowRepository.sumQuota(stock.getSku());
+        return new StockResponse(
+                stock.getSku(),
+                stock.getAvailableQuantity() + quota,
+                stock.getReservedQuantity() + stock.getEscrowedQuantity() - quota);
+    }
+
+    public int outstandingQuota(String sku) {
+        return escrowRepository.sumQuota(sku);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.escrow.rebalance-interval:PT1S}")
+    public void rebalance() {
+        Set<String> skus = new HashSet<>(localQuota.keySet());
+        escrowRepository.findByLeaseExpiresAtBefore(Instant.now())
+                .forEach(expired -> skus.add(expired.getSku()));
+        for (String sku : skus) {
+            try {
+                maintain(sku, false);
+            } catch (RuntimeException ex) {
+                log.warn("Escrow rebalance failed sku={} error={}", sku, ex.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void returnAllQuota() {
+        for (String sku : new ArrayList<>(localQuota.keySet())) {
+            try {
+                maintain(sku, true);
+            } catch (RuntimeException ex) {
+                log.warn("Escrow quota return failed on shutdown sku={} error={}", sku, ex.getMessage());
+            }
+        }
+    }
+
+    private void refill(String sku, int needed) {
+        synchronized (refillLocks.computeIfAbsent(sku, ignored -> new Object())) {
+            AtomicInteger quota = localQuota.computeIfAbsent(sku, ignored -> new AtomicInteger());
+            if (quota.get() >= needed) {
+                return;
+            }
+            Integer granted = requiresNew.execute(status -> {
+                Optional<InventoryStock> locked = stockRepository.findBySkuForUpdate(sku);
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                InventoryStock stock = locked.get();
+                List<InventoryStockEscrow> escrows = escrowRepository.findAllBySkuForUpdate(sku);
+                reconcile(stock, escrows);
+                int grant = Math.min(Math.max(chunkSize, needed), stock.getAvailableQuantity());
+                if (grant <= 0) {
+                    stockRepository.save(stock);
+                    return 0;
+                }
+                InventoryStockEscrow own = escrows.stream()
+                        .filter(escrow -> ownerId.equals(escrow.getOwnerId()))
+                        .findFirst()
+                        .orElseGet(() -> newEscrow(sku));
+                own.setQuotaQuantity(own.getQuotaQuantity() + grant);
+                own.setLeaseExpiresAt(Instant.now().plus(leaseTtl));
+                escrowRepository.save(own);
+                stock.setAvailableQuantity(stock.getAvailableQuantity() - grant);
+                stock.setEscrowedQuantity(stock.getEscrowedQuantity() + grant);
+                stockRepository.save(stock);
+                return grant;
+            });
+            if (granted != null && granted > 0) {
+                quota.addAndGet(granted);
+                meterRegistry.counter("inventory.escrow.granted").increment(granted);
+            }
+        }
+    }
+
+    private void maintain(String sku, boolean returnAll) {
+        Integer remaining = requiresNew.execute(status -> {
+            Optional<InventoryStock> locked = stockRepository.findBySkuForUpdate(sku);
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            InventoryStock stock = locked.get();
+            List<InventoryStockEscrow> escrows = escrowRepository.findAllBySkuForUpdate(sku);
+            reconcile(stock, escrows);
+            Instant now = Instant.now();
+
+            InventoryStockEscrow own = null;
+            boolean peerStarving = false;
+            for (InventoryStockEscrow escrow : escrows) {
+                if (ownerId.equals(escrow.getOwnerId())) {
+                    own = escrow;
+                } else if (escrow.getLeaseExpiresAt().isBefore(now)) {
+                    giveBack(stock, escrow, escrow.getQuotaQuantity());
+                    escrowRepository.delete(escrow);
+                    meterRegistry.counter("inventory.escrow.reclaimed").increment();
+                } else if (escrow.getQuotaQuantity() < lowWatermark) {
+                    peerStarving = true;
+                }
+            }
+
+            int left = 0;
+            if (own != null) {
+                Instant used = lastUsed.getOrDefault(sku, Instant.EPOCH);
+                boolean idle = returnAll || used.plus(idleReturnAfter).isBefore(now);
+                int give = 0;
+                if (idle) {
+                    give = own.getQuotaQuantity();
+                } else if (peerStarving && stock.getAvailableQuantity() == 0 && own.getQuotaQuantity() > lowWatermark) {
+                    give = own.getQuotaQuantity() / 2;
+                }
+                giveBack(stock, own, give);
+                if (idle) {
+                    escrowRepository.delete(own);
+                } else {
+                    own.setLeaseExpiresAt(now.plus(leaseTtl));
+                    escrowRepository.save(own);
+                    left = own.getQuotaQuantity();
+                }
+            }
+            stockRepository.save(stock);
+            return left;
+        });
+        int left = remaining == null ? 0 : remaining;
+        if (left == 0 && lastUsed.getOrDefault(sku, Instant.EPOCH).plus(idleReturnAfter).isBefore(Instant.now())) {
+            localQuota.remove(sku);
+            lastUsed.remove(sku);
+        } else {
+            localQuota.computeIfAbsent(sku, ignored -> new AtomicInteger()).set(left);
+        }
+    }
+
+    private void reconcile(InventoryStock stock, List<InventoryStockEscrow> escrows) {
+        int quota = escrows.stream().mapToInt(InventoryStockEscrow::getQuotaQuantity).sum();
+        int consumed = stock.getEscrowedQuantity() - quota;
+        if (consumed != 0) {
+            stock.setEscrowedQuantity(quota);
+            stock.setReservedQuantity(stock.getReservedQuantity() + consumed);
+        }
+    }
+
+    private void giveBack(InventoryStock stock, InventoryStockEscrow escrow, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        escrow.setQuotaQuantity(escrow.getQuotaQuantity() - quantity);
+        stock.setEscrowedQuantity(stock.getEscrowedQuantity() - quantity);
+        stock.setAvailableQuantity(stock.getAvailableQuantity() + quantity);
+        meterRegistry.counter("inventory.escrow.returned").increment(quantity);
+    }
+
+    private InventoryStockEscrow newEscrow(String sku) {
+        InventoryStockEscrow escrow = new InventoryStockEscrow();
+        escrow.setSku(sku);
+        escrow.setOwnerId(ownerId);
+        return escrow;
+    }
+
+    private static boolean tryDecrement(AtomicInteger quota, int quantity) {
+        while (true) {
+            int current = quota.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (quota.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
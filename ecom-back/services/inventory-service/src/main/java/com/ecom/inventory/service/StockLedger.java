@@ -0,0 +1,284 @@
+package com.ecom.inventory.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.ecom.inventory.dto.ReservationRequest;
+import com.ecom.inventory.dto.StockResponse;
+import com.ecom.inventory.entity.InventoryReservation;
+import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.repository.InventoryReservationRepository;
+import com.ecom.inventory.repository.InventoryStockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional in-memory stock ledger for flash-sale SKUs.
+ * Every SKU is hashed to one partition whose single worker thread owns its counters, so reserve,
+ * release and confirm are plain in-memory updates with no Redis lock or row lock. Results are
+ * persisted asynchronously by {@link StockLedgerJournal}.
+ * Enabled with {@code app.inventory.ledger.enabled=true}; assumes one inventory-service instance
+ * owns the ledgered SKUs.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.ledger.enabled", havingValue = "true")
+public class StockLedger {
+
+    private static final int RECENT_RESERVATION_IDS = 10_000;
+
+    private final InventoryStockRepository stockRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final StockLedgerJournal journal;
+    private final Duration operationTimeout;
+    private final List<Partition> partitions;
+
+    public StockLedger(
+            InventoryStockRepository stockRepository,
+            InventoryReservationRepository reservationRepository,
+            StockLedgerJournal journal,
+            @Value("${app.inventory.ledger.partitions:8}") int partitionCount,
+            @Value("${app.inventory.ledger.operation-timeout:PT2S}") Duration operationTimeout) {
+        this.stockRepository = stockRepository;
+        this.reservationRepository = reservationRepository;
+        this.journal = journal;
+        this.operationTimeout = operationTimeout;
+        List<Partition> created = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, partitionCount); i++) {
+            created.add(new Partition(i));
+        }
+        this.partitions = List.copyOf(created);
+    }
+
+    public Optional<StockResponse> peek(String sku) {
+        return Optional.ofNullable(partitionFor(sku).counters.get(sku)).map(this::toResponse);
+    }
+
+    public Optional<InventoryReservation> findReservation(String reservationId) {
+        Optional<InventoryReservation> pending = journal.pendingReservation(reservationId);
+        return pending.isPresent() ? pending : reservationRepository.findById(reservationId);
+    }
+
+    public List<InventoryReservation> findReservationsForOrder(String orderId) {
+        Map<String, InventoryReservation> merged = new LinkedHashMap<>();
+        for (InventoryReservation reservation : reservationRepository.findByOrderIdAndStatus(orderId, "RESERVED")) {
+            merged.put(reservation.getReservationId(), reservation);
+        }
+        for (InventoryReservation reservation : journal.pendingReservationsForOrder(orderId)) {
+            merged.put(reservation.getReservationId(), reservation);
+        }
+        return List.copyOf(merged.values());
+    }
+
+    public StockResponse upsert(String sku, int availableQuantity) {
+        Partition partition = partitionFor(sku);
+        return partition.execute(() -> {
+            StockCounters current = partition.counters.get(sku);
+            StockCounters next;
+            if (current == null) {
+                InventoryStock stock = stockRepository.findBySku(sku).orElseGet(InventoryStock::new);
+                if (stock.getId() == null) {
+                    stock.setSku(sku);
+                    stock.setReservedQuantity(0);
+                }
+                stock.setAvailableQuantity(availableQuantity);
+                InventoryStock saved = stockRepository.save(stock);
+                next = new StockCounters(sku, saved.getAvailableQuantity(), saved.getReservedQuantity());
+            } else {
+                next = new StockCounters(sku, availableQuantity, current.reservedQuantity());
+                journal.recordStock(next);
+            }
+            partition.counters.put(sku, next);
+            return toResponse(next);
+        });
+    }
+
+    public StockResponse reserve(ReservationRequest request) {
+        return reserve(request, null);
+    }
+
+    public StockResponse reserve(ReservationRequest request, String orderId) {
+        // The primary-key probe runs on the caller thread so the partition worker only touches memory.
+        if (reservationRepository.existsById(request.reservationId())) {
+            throw new IllegalArgumentException("Reservation already exists");
+        }
+        Partition partition = partitionFor(request.sku());
+        return partition.execute(() -> {
+            if (journal.pendingReservation(request.reservationId()).isPresent()
+                    || !partition.recentReservationIds.add(request.reservationId())) {
+                throw new IllegalArgumentException("Reservation already exists");
+            }
+            StockCounters current = partition.load(request.sku());
+            if (current.availableQuantity() < request.quantity()) {
+                partition.recentReservationIds.remove(request.reservationId());
+                throw new IllegalArgumentException("Insufficient stock");
+            }
+            StockCounters next = new StockCounters(
+                    request.sku(),
+                    current.availableQuantity() - request.quantity(),
+                    current.reservedQuantity() + request.quantity());
+            partition.counters.put(request.sku(), next);
+            journal.recordStock(next);
+
+            Instant now = Instant.now();
+            InventoryReservation reservation = new InventoryReservation();
+            reservation.setReservationId(request.reservationId());
+            reservation.setOrderId(orderId);
+            reservation.setSku(request.sku());
+            reservation.setQuantity(request.quantity());
+            reservation.setStatus("RESERVED");
+            reservation.setCreatedAt(now);
+            reservation.setUpdatedAt(now);
+            reservation.setExpiresAt(now.plusSeconds(request.ttlMinutes() * 60L));
+            journal.recordReservation(reservation);
+            return toResponse(next);
+        });
+    }
+
+    public StockResponse release(InventoryReservation reservation) {
+        Partition partition = partitionFor(reservation.getSku());
+        return partition.execute(() -> {
+            InventoryReservation current = currentState(reservation);
+            if (!"RESERVED".equals(current.getStatus())) {
+                throw new IllegalArgumentException("Reservation is not releasable");
+            }
+            StockCounters counters = partition.load(current.getSku());
+            StockCounters next = new StockCounters(
+                    current.getSku(),
+                    counters.availableQuantity() + current.getQuantity(),
+                    Math.max(0, counters.reservedQuantity() - current.getQuantity()));
+            partition.counters.put(current.getSku(), next);
+            journal.recordStock(next);
+            journal.recordReservation(withStatus(current, "RELEASED"));
+            return toResponse(next);
+        });
+    }
+
+    public StockResponse confirm(InventoryReservation reservation) {
+        Partition partition = partitionFor(reservation.getSku());
+        return partition.execute(() -> {
+            InventoryReservation current = currentState(reservation);
+            if (!"RESERVED".equals(current.getStatus())) {
+                throw new IllegalArgumentException("Reservation is not confirmable");
+            }
+            StockCounters counters = partition.load(current.getSku());
+            StockCounters next = new StockCounters(
+                    current.getSku(),
+                    counters.availableQuantity(),
+                    Math.max(0, counters.reservedQuantity() - current.getQuantity()));
+            partition.counters.put(current.getSku(), next);
+            journal.recordStock(next);
+            journal.recordReservation(withStatus(current, "CONFIRMED"));
+            return toResponse(next);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Partition partition : partitions) {
+            partition.executor.shutdown();
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.executor.awaitTermination(operationTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private InventoryReservation currentState(InventoryReservation reservation) {
+        return journal.pendingReservation(reservation.getReservationId()).orElse(reservation);
+    }
+
+    private InventoryReservation withStatus(InventoryReservation source, String status) {
+        InventoryReservation copy = new InventoryReservation();
+        copy.setReservationId(source.getReservationId());
+        copy.setOrderId(source.getOrderId());
+        copy.setSku(source.getSku());
+        copy.setQuantity(source.getQuantity());
+        copy.setStatus(status);
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(Instant.now());
+        copy.setExpiresAt(source.getExpiresAt());
+        return copy;
+    }
+
+    private Partition partitionFor(String sku) {
+        return partitions.get(Math.floorMod(sku.hashCode(), partitions.size()));
+    }
+
+    private StockResponse toResponse(StockCounters counters) {
+        return new StockResponse(counters.sku(), counters.availableQuantity(), counters.reservedQuantity());
+    }
+
+    private final class Partition {
+
+        private final ExecutorService executor;
+        // Written only by the partition thread; readers on other threads see whole immutable snapshots.
+        private final Map<String, StockCounters> counters = new ConcurrentHashMap<>();
+        private final Set<String> recentReservationIds = Collections.newSetFromMap(
+                new LinkedHashMap<>() {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > RECENT_RESERVATION_IDS;
+                    }
+                });
+
+        private Partition(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-ledger-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private StockCounters load(String sku) {
+            StockCounters current = counters.get(sku);
+            if (current != null) {
+                return current;
+            }
+            InventoryStock stock = stockRepository.findBySku(sku)
+                    .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+            StockCounters loaded = new StockCounters(sku, stock.getAvailableQuantity(), stock.getReservedQuantity());
+            counters.put(sku, loaded);
+            return loaded;
+        }
+
+        private <T> T execute(Callable<T> task) {
+            Future<T> future = executor.submit(task);
+            try {
+                return future.get(operationTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Stock ledger operation failed", ex.getCause());
+            } catch (TimeoutException ex) {
+                throw new IllegalStateException("Stock ledger operation timed out for SKU");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for stock ledger", ex);
+            }
+        }
+    }
+}
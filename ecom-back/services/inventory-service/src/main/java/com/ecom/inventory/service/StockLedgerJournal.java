@@ -0,0 +1,96 @@
+package com.ecom.inventory.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.inventory.entity.InventoryReservation;
+import com.ecom.inventory.repository.InventoryReservationRepository;
+import com.ecom.inventory.repository.InventoryStockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind journal for {@link StockLedger}.
+ * Keeps the latest counters per SKU and the latest state per reservation, and flushes them to MySQL
+ * in one transaction per interval. Entries are only dropped after a successful commit, so a failed
+ * flush is retried on the next tick with whatever newer state has accumulated meanwhile.
+ */
+@Component
+@ConditionalOnProperty(name = "app.inventory.ledger.enabled", havingValue = "true")
+public class StockLedgerJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerJournal.class);
+
+    private final InventoryStockRepository stockRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StockCounters> dirtyStock = new ConcurrentHashMap<>();
+    private final Map<String, InventoryReservation> pendingReservations = new ConcurrentHashMap<>();
+
+    public StockLedgerJournal(
+            InventoryStockRepository stockRepository,
+            InventoryReservationRepository reservationRepository,
+            TransactionTemplate transactionTemplate) {
+        this.stockRepository = stockRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void recordStock(StockCounters counters) {
+        dirtyStock.put(counters.sku(), counters);
+    }
+
+    void recordReservation(InventoryReservation reservation) {
+        pendingReservations.put(reservation.getReservationId(), reservation);
+    }
+
+    Optional<InventoryReservation> pendingReservation(String reservationId) {
+        return Optional.ofNullable(pendingReservations.get(reservationId));
+    }
+
+    List<InventoryReservation> pendingReservationsForOrder(String orderId) {
+        return pendingReservations.values().stream()
+                .filter(reservation -> orderId.equals(reservation.getOrderId()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval:PT0.2S}")
+    public void flush() {
+        if (dirtyStock.isEmpty() && pendingReservations.isEmpty()) {
+            return;
+        }
+        Map<String, StockCounters> stock = Map.copyOf(dirtyStock);
+        Map<String, InventoryReservation> reservations = Map.copyOf(pendingReservations);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                for (StockCounters counters : stock.values()) {
+                    stockRepository.updateCounters(
+                            counters.sku(), counters.availableQuantity(), counters.reservedQuantity(), now);
+                }
+                reservationRepository.saveAll(reservations.values());
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Stock ledger flush failed, retrying next interval: skus={}, reservations={}, error={}",
+                    stock.size(), reservations.size(), ex.getMessage());
+            return;
+        }
+        stock.forEach(dirtyStock::remove);
+        reservations.forEach(pendingReservations::remove);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
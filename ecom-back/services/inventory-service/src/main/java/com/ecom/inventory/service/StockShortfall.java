@@ -0,0 +1,7 @@
+package com.ecom.inventory.service;
+
+public record StockShortfall(
+        String sku,
+        int requestedQuantity,
+        int availableQuantity) {
+}
@@ -9,6 +9,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BooleanSupplier;
 
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -29,10 +31,9 @@ import org.testcontainers.utility.DockerImageName;
 import com.ecom.common.DomainEvent;
 import com.ecom.inventory.entity.InventoryReservation;
 import com.ecom.inventory.entity.InventoryStock;
-import com.ecom.inventory.repository.ConsumedEventRepository;
 import com.ecom.inventory.repository.InventoryReservationRepository;
 import com.ecom.inventory.repository.InventoryStockRepository;
-import com.ecom.inventory.repository.OutboxEventRepository;
+import com.ecom.inventory.service.InventoryLockLease;
 import com.ecom.inventory.service.InventoryLockService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -66,7 +67,7 @@ class InventorySagaConsumerIntegrationTest {
     }
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -78,21 +79,19 @@ class InventorySagaConsumerIntegrationTest {
     private InventoryReservationRepository reservationRepository;
 
     @Autowired
-    private OutboxEventRepository outboxEventRepository;
-
-    @Autowired
-    private ConsumedEventRepository consumedEventRepository;
+    private JdbcTemplate jdbcTemplate;
 
     @MockBean
     private InventoryLockService inventoryLockService;
 
     @BeforeEach
     void setUp() {
-        when(inventoryLockService.acquire(anyString())).thenReturn(true);
-        outboxEventRepository.deleteAll();
+        when(inventoryLockService.acquire(anyString()))
+                .thenAnswer(invocation -> Optional.of(new InventoryLockLease(invocation.getArgument(0), "it-owner", 1L)));
+        jdbcTemplate.update("delete from inventory_outbox_events");
         reservationRepository.deleteAll();
         stockRepository.deleteAll();
-        consumedEventRepository.deleteAll();
+        jdbcTemplate.update("delete from inventory_consumed_events");
     }
 
     @Test
@@ -105,7 +104,7 @@ class InventorySagaConsumerIntegrationTest {
 
         for (int i = 1; i <= 10; i++) {
             String orderId = "order-" + i;
-            String rawEvent = writeEvent(
+            byte[] rawEvent = writeEvent(
                     UUID.randomUUID(),
                     orderId,
                     List.of(Map.of("sku", "FLASH-SKU-1", "quantity", 1)));
@@ -114,7 +113,7 @@ class InventorySagaConsumerIntegrationTest {
         kafkaTemplate.flush();
 
         waitUntil(
-                () -> consumedEventRepository.count() == 10 && outboxEventRepository.count() == 10,
+                () -> consumedEvents() == 10 && outboxEvents(null) == 10,
                 Duration.ofSeconds(60),
                 "Timed out waiting for 10 consumed events and 10 outbox events in oversell test");
 
@@ -124,12 +123,8 @@ class InventorySagaConsumerIntegrationTest {
         long reservedRows = reservations.stream()
                 .filter(r -> "RESERVED".equals(r.getStatus()))
                 .count();
-        long reservedEvents = outboxEventRepository.findAll().stream()
-                .filter(r -> "inventory.reserved.v1".equals(r.getEventType()))
-                .count();
-        long failedEvents = outboxEventRepository.findAll().stream()
-                .filter(r -> "inventory.reservation.failed.v1".equals(r.getEventType()))
-                .count();
+        long reservedEvents = outboxEvents("inventory.reserved.v1");
+        long failedEvents = outboxEvents("inventory.reservation.failed.v1");
 
         assertEquals(0, updated.getAvailableQuantity());
         assertEquals(5, updated.getReservedQuantity());
@@ -148,7 +143,7 @@ class InventorySagaConsumerIntegrationTest {
         stockRepository.save(stock);
 
         UUID sharedEventId = UUID.randomUUID();
-        String rawEvent = writeEvent(
+        byte[] rawEvent = writeEvent(
                 sharedEventId,
                 "order-dedup-1",
                 List.of(Map.of("sku", "DEDUP-SKU-1", "quantity", 2)));
@@ -158,24 +153,34 @@ class InventorySagaConsumerIntegrationTest {
         kafkaTemplate.flush();
 
         waitUntil(
-                () -> consumedEventRepository.count() >= 1,
+                () -> consumedEvents() >= 1,
                 Duration.ofSeconds(45),
                 "Timed out waiting for consumed event in dedup test");
 
         InventoryStock updated = stockRepository.findBySku("DEDUP-SKU-1").orElseThrow();
         List<InventoryReservation> reservations = reservationRepository.findAll();
-        long reservedEvents = outboxEventRepository.findAll().stream()
-                .filter(r -> "inventory.reserved.v1".equals(r.getEventType()))
-                .count();
+        long reservedEvents = outboxEvents("inventory.reserved.v1");
 
         assertEquals(8, updated.getAvailableQuantity());
         assertEquals(2, updated.getReservedQuantity());
         assertEquals(1, reservations.size());
-        assertEquals(1, consumedEventRepository.count());
+        assertEquals(1, consumedEvents());
         assertEquals(1, reservedEvents);
     }
 
-    private String writeEvent(UUID eventId, String orderId, List<Map<String, Object>> items) {
+    private long consumedEvents() {
+        return jdbcTemplate.queryForObject("select count(*) from inventory_consumed_events", Long.class);
+    }
+
+    private long outboxEvents(String eventType) {
+        if (eventType == null) {
+            return jdbcTemplate.queryForObject("select count(*) from inventory_outbox_events", Long.class);
+        }
+        return jdbcTemplate.queryForObject(
+                "select count(*) from inventory_outbox_events where event_type = ?", Long.class, eventType);
+    }
+
+    private byte[] writeEvent(UUID eventId, String orderId, List<Map<String, Object>> items) {
         try {
             DomainEvent<Map<String, Object>> event = new DomainEvent<>(
                     eventId,
@@ -185,7 +190,7 @@ class InventorySagaConsumerIntegrationTest {
                     "v1",
                     UUID.randomUUID().toString(),
                     Map.of("orderId", orderId, "items", items));
-            return objectMapper.writeValueAsString(event);
+            return objectMapper.writeValueAsBytes(event);
         } catch (Exception ex) {
             throw new IllegalStateException("Could not serialize test event", ex);
         }
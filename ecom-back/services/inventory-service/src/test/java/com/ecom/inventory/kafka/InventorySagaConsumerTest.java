@@ -0,0 +1,204 @@
+package com.ecom.inventory.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.outbox.OutboxService;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.RetryTopics;
+import com.ecom.inventory.service.InventoryUseCases;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventorySagaConsumerTest {
+
+    private final ParticipatingTransactionManager transactionManager = new ParticipatingTransactionManager();
+    private final InventoryUseCases inventoryService = mock(InventoryUseCases.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaOperations<String, byte[]> kafkaOperations = mock(KafkaOperations.class);
+    private final Set<String> marks = ConcurrentHashMap.newKeySet();
+    private final List<String> committedEvents = new CopyOnWriteArrayList<>();
+    private final EventDeduplicator dedup = new EventDeduplicator() {
+        @Override
+        public boolean markIfNew(String eventId) {
+            return marks.add(eventId);
+        }
+
+        @Override
+        public Set<String> markAllIfNew(Collection<String> eventIds) {
+            Set<String> fresh = new LinkedHashSet<>();
+            eventIds.stream().filter(marks::add).forEach(fresh::add);
+            return fresh;
+        }
+
+        @Override
+        public void forget(String eventId) {
+            marks.remove(eventId);
+        }
+    };
+
+    @Test
+    void failedReservationCommitsItsFailureEventInBatchMode() {
+        failedReservationCommitsItsFailureEvent(1);
+    }
+
+    @Test
+    void failedReservationCommitsItsFailureEventInKeyOrderedMode() {
+        failedReservationCommitsItsFailureEvent(2);
+    }
+
+    private void failedReservationCommitsItsFailureEvent(int keyParallelism) {
+        // Like the @Transactional proxy, a failed reservation joins the caller's transaction and marks it rollback-only.
+        doAnswer(invocation -> new TransactionTemplate(transactionManager).execute(status -> {
+            throw new IllegalStateException("Insufficient stock for SKU-1");
+        })).when(inventoryService).reserveForOrder(eq("order-1"), anyList(), eq(30));
+        doAnswer(invocation -> {
+            String eventType = invocation.getArgument(2);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedEvents.add(eventType);
+                }
+            });
+            return null;
+        }).when(outboxService).enqueue(anyString(), anyString(), anyString(), any(), anyString());
+
+        InventorySagaConsumer consumer = consumer(keyParallelism);
+        try {
+            consumer.onOrderCreated(List.of(orderCreated("e1", "order-1")));
+        } finally {
+            consumer.shutdown();
+        }
+
+        assertEquals(List.of("inventory.reservation.failed.v1"), committedEvents);
+        assertTrue(marks.contains("e1"), "the record is marked consumed with its failure event");
+        verify(kafkaOperations, never()).send(any(ProducerRecord.class));
+    }
+
+    private InventorySagaConsumer consumer(int keyParallelism) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryTopics retryTopics = new RetryTopics(kafkaOperations, null, List.of(Duration.ofSeconds(1)),
+                Duration.ofSeconds(1), "inventory-service", meterRegistry);
+        return new InventorySagaConsumer(inventoryService, dedup, outboxService, new EventCodec(new ObjectMapper()),
+                new EventLatencyMetrics(meterRegistry), new TransactionTemplate(transactionManager), retryTopics,
+                30, "inventory.reserved.v1", "inventory.reservation.failed.v1", keyParallelism);
+    }
+
+    private static ConsumerRecord<String, byte[]> orderCreated(String eventId, String orderId) {
+        String json = "{\"eventId\":\"" + eventId + "\",\"eventType\":\"order.created.v1\","
+                + "\"payload\":{\"orderId\":\"" + orderId + "\",\"items\":[{\"sku\":\"SKU-1\",\"quantity\":2}]}}";
+        return new ConsumerRecord<>("order.created.v1", 0, 0L, orderId, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs real synchronization callbacks and, like a JDBC transaction manager, lets a participating
+     * transaction that fails mark the one it joined rollback-only.
+     */
+    private static final class ParticipatingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Transaction(current.get());
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((Transaction) transaction).state != null;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            ((Transaction) transaction).state = new State();
+            current.set((Transaction) transaction);
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            Transaction suspended = current.get();
+            ((Transaction) transaction).state = null;
+            current.remove();
+            return suspended;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            current.set((Transaction) suspendedResources);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((Transaction) status.getTransaction()).state.rollbackOnly = true;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            current.remove();
+        }
+    }
+
+    private static final class Transaction implements SmartTransactionObject {
+
+        private State state;
+
+        private Transaction(Transaction joined) {
+            this.state = joined == null ? null : joined.state;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return state != null && state.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+
+    private static final class State {
+
+        private boolean rollbackOnly;
+    }
+}
@@ -2,13 +2,21 @@ package com.ecom.inventory.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +27,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import com.ecom.inventory.dto.ReservationRequest;
 import com.ecom.inventory.entity.InventoryReservation;
 import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.exception.InsufficientStockException;
 import com.ecom.inventory.repository.InventoryReservationRepository;
 import com.ecom.inventory.repository.InventoryStockRepository;
 
@@ -34,6 +43,12 @@ class InventoryServiceTest {
     @Mock
     private InventoryLockService lockService;
 
+    @Mock
+    private ReservationExpiryQueue expiryQueue;
+
+    @Mock
+    private StockAvailabilityCache stockCache;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -44,7 +59,7 @@ class InventoryServiceTest {
         stock.setAvailableQuantity(1);
         stock.setReservedQuantity(0);
 
-        when(lockService.acquire("SKU-1")).thenReturn(true);
+        when(lockService.acquire("SKU-1")).thenReturn(Optional.of(new InventoryLockLease("SKU-1", "owner-1", 1L)));
         when(reservationRepository.findById("res-1")).thenReturn(Optional.empty());
         when(stockRepository.findBySkuForUpdate("SKU-1")).thenReturn(Optional.of(stock));
 
@@ -59,7 +74,7 @@ class InventoryServiceTest {
         stock.setAvailableQuantity(10);
         stock.setReservedQuantity(1);
 
-        when(lockService.acquire("SKU-1")).thenReturn(true);
+        when(lockService.acquire("SKU-1")).thenReturn(Optional.of(new InventoryLockLease("SKU-1", "owner-1", 1L)));
         when(reservationRepository.findById("res-2")).thenReturn(Optional.empty());
         when(stockRepository.findBySkuForUpdate("SKU-1")).thenReturn(Optional.of(stock));
 
@@ -69,6 +84,24 @@ class InventoryServiceTest {
         assertEquals(4, stock.getReservedQuantity());
     }
 
+    @Test
+    void reserveRejectsWriteFromExpiredLease() {
+        InventoryStock stock = new InventoryStock();
+        stock.setSku("SKU-1");
+        stock.setAvailableQuantity(10);
+        stock.setReservedQuantity(0);
+        stock.setFencingToken(7L);
+
+        when(lockService.acquire("SKU-1")).thenReturn(Optional.of(new InventoryLockLease("SKU-1", "owner-1", 6L)));
+        when(reservationRepository.findById("res-3")).thenReturn(Optional.empty());
+        when(stockRepository.findBySkuForUpdate("SKU-1")).thenReturn(Optional.of(stock));
+
+        assertThrows(IllegalStateException.class,
+                () -> inventoryService.reserve(new ReservationRequest("res-3", "SKU-1", 1, 10)));
+        assertEquals(10, stock.getAvailableQuantity());
+        verify(stockRepository, never()).save(stock);
+    }
+
     @Test
     void reserveForOrderIsIdempotentForSameOrderSku() {
         InventoryStock stock = new InventoryStock();
@@ -85,49 +118,100 @@ class InventoryServiceTest {
         existing.setUpdatedAt(Instant.now());
         existing.setExpiresAt(Instant.now().plusSeconds(600));
 
-        when(lockService.acquire("SKU-1")).thenReturn(true);
-        when(reservationRepository.findById("order-1:SKU-1"))
-                .thenReturn(Optional.empty(), Optional.of(existing));
-        when(stockRepository.findBySkuForUpdate("SKU-1")).thenReturn(Optional.of(stock));
+        when(reservationRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(), List.of(existing));
+        when(stockRepository.findAllBySkuInForUpdate(Set.of("SKU-1"))).thenReturn(List.of(stock));
+        when(stockRepository.reserveAll(eq(Map.of("SKU-1", 1)), any(Instant.class))).thenReturn(1);
 
         inventoryService.reserveForOrder("order-1", List.of(new OrderItemReservation("SKU-1", 1)), 10);
         inventoryService.reserveForOrder("order-1", List.of(new OrderItemReservation("SKU-1", 1)), 10);
 
-        assertEquals(9, stock.getAvailableQuantity());
-        assertEquals(1, stock.getReservedQuantity());
-        verify(stockRepository, times(1)).findBySkuForUpdate("SKU-1");
+        verify(stockRepository, times(1)).findAllBySkuInForUpdate(Set.of("SKU-1"));
+        verify(stockRepository, times(1)).reserveAll(eq(Map.of("SKU-1", 1)), any(Instant.class));
+        verify(reservationRepository, times(1)).insertAll(anyList());
     }
 
     @Test
-    void releaseExpiredReservationsReleasesReservedRecords() {
-        Instant now = Instant.now();
+    void reserveForOrderReportsEveryShortSkuWithoutWriting() {
+        InventoryStock plenty = new InventoryStock();
+        plenty.setSku("SKU-A");
+        plenty.setAvailableQuantity(10);
+        InventoryStock scarce = new InventoryStock();
+        scarce.setSku("SKU-B");
+        scarce.setAvailableQuantity(1);
+
+        when(reservationRepository.findAllById(anyIterable())).thenReturn(List.of());
+        when(stockRepository.findAllBySkuInForUpdate(Set.of("SKU-A", "SKU-B", "SKU-C")))
+                .thenReturn(List.of(plenty, scarce));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> inventoryService.reserveForOrder("order-9", List.of(
+                        new OrderItemReservation("SKU-A", 2),
+                        new OrderItemReservation("SKU-B", 3),
+                        new OrderItemReservation("SKU-C", 1)), 10));
+
+        assertEquals(List.of(
+                new StockShortfall("SKU-B", 3, 1),
+                new StockShortfall("SKU-C", 1, 0)), ex.getShortfalls());
+        verify(stockRepository, never()).reserveAll(anyMap(), any(Instant.class));
+        verify(reservationRepository, never()).insertAll(anyList());
+    }
 
-        InventoryStock stock = new InventoryStock();
-        stock.setSku("SKU-1");
-        stock.setAvailableQuantity(4);
-        stock.setReservedQuantity(2);
+    @Test
+    void releaseForOrderSettlesAllReservationsInOnePass() {
+        InventoryReservation first = new InventoryReservation();
+        first.setReservationId("order-7:SKU-A");
+        first.setOrderId("order-7");
+        first.setSku("SKU-A");
+        first.setQuantity(2);
+        first.setStatus("RESERVED");
+        InventoryReservation second = new InventoryReservation();
+        second.setReservationId("order-7:SKU-B");
+        second.setOrderId("order-7");
+        second.setSku("SKU-B");
+        second.setQuantity(1);
+        second.setStatus("RESERVED");
+
+        when(reservationRepository.findByOrderIdAndStatus("order-7", "RESERVED")).thenReturn(List.of(first, second));
+        when(reservationRepository.updateStatusForOrder(eq("order-7"), eq("RESERVED"), eq("RELEASED"), any(Instant.class)))
+                .thenReturn(2);
+
+        inventoryService.releaseForOrder("order-7");
+
+        verify(stockRepository, times(1)).findAllBySkuInForUpdate(Set.of("SKU-A", "SKU-B"));
+        verify(stockRepository, times(1)).releaseAll(eq(Map.of("SKU-A", 2, "SKU-B", 1)), any(Instant.class));
+        verify(stockRepository, never()).findBySkuForUpdate(any());
+        verify(lockService, never()).acquire(any());
+    }
+
+    @Test
+    void releaseExpiredReservationsReleasesStillReservedRecordsInBulk() {
+        Instant now = Instant.now();
 
         InventoryReservation expired = new InventoryReservation();
         expired.setReservationId("res-expired");
         expired.setSku("SKU-1");
         expired.setQuantity(2);
         expired.setStatus("RESERVED");
-        expired.setCreatedAt(now.minusSeconds(600));
-        expired.setUpdatedAt(now.minusSeconds(600));
         expired.setExpiresAt(now.minusSeconds(10));
+        InventoryReservation confirmed = new InventoryReservation();
+        confirmed.setReservationId("res-confirmed");
+        confirmed.setSku("SKU-2");
+        confirmed.setQuantity(1);
+        confirmed.setStatus("CONFIRMED");
+        confirmed.setExpiresAt(now.minusSeconds(5));
+        List<String> ids = List.of("res-expired", "res-confirmed");
 
-        when(reservationRepository.findTop100ByStatusAndExpiresAtBeforeOrderByExpiresAtAsc("RESERVED", now))
-                .thenReturn(List.of(expired));
-        when(reservationRepository.findById("res-expired"))
-                .thenReturn(Optional.of(expired), Optional.of(expired));
-        when(lockService.acquire("SKU-1")).thenReturn(true);
-        when(stockRepository.findBySkuForUpdate("SKU-1")).thenReturn(Optional.of(stock));
+        when(reservationRepository.findAllById(ids)).thenReturn(List.of(expired, confirmed));
+        when(reservationRepository.findExpiredByIdsForUpdate(ids, "RESERVED", now)).thenReturn(List.of(expired));
+        when(reservationRepository.updateStatusForIds(eq(List.of("res-expired")), eq("RESERVED"), eq("RELEASED"),
+                any(Instant.class))).thenReturn(1);
 
-        int released = inventoryService.releaseExpiredReservations(now, 100);
+        int released = inventoryService.releaseExpiredReservations(ids, now);
 
         assertEquals(1, released);
-        assertEquals("RELEASED", expired.getStatus());
-        assertEquals(6, stock.getAvailableQuantity());
-        assertEquals(0, stock.getReservedQuantity());
+        verify(stockRepository, times(1)).findAllBySkuInForUpdate(Set.of("SKU-1", "SKU-2"));
+        verify(stockRepository, times(1)).releaseAll(eq(Map.of("SKU-1", 2)), any(Instant.class));
+        verify(lockService, never()).acquire(any());
     }
 }
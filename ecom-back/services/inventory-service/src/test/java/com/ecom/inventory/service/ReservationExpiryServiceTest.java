@@ -0,0 +1,89 @@
+package com.ecom.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.ecom.inventory.entity.InventoryReservation;
+import com.ecom.inventory.repository.InventoryReservationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock
+    private InventoryUseCases inventoryService;
+
+    @Mock
+    private InventoryReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationExpiryQueue expiryQueue;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiryService = new ReservationExpiryService(
+                inventoryService, reservationRepository, expiryQueue, meterRegistry, 2);
+    }
+
+    @Test
+    void sweepWalksExpiredRowsByKeysetInChunks() {
+        Instant cutoff = Instant.parse("2026-01-01T00:10:00Z");
+        InventoryReservation first = reservation("res-a", "2026-01-01T00:00:00Z");
+        InventoryReservation second = reservation("res-b", "2026-01-01T00:00:00Z");
+        InventoryReservation third = reservation("res-c", "2026-01-01T00:05:00Z");
+
+        when(reservationRepository.findExpiredAfter("RESERVED", cutoff, Instant.EPOCH, "", PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+        when(reservationRepository.findExpiredAfter(
+                "RESERVED", cutoff, second.getExpiresAt(), "res-b", PageRequest.of(0, 2)))
+                .thenReturn(List.of(third));
+        when(inventoryService.releaseExpiredReservations(List.of("res-a", "res-b"), cutoff)).thenReturn(2);
+        when(inventoryService.releaseExpiredReservations(List.of("res-c"), cutoff)).thenReturn(1);
+
+        assertEquals(3, expiryService.releaseExpiredReservations(cutoff));
+    }
+
+    @Test
+    void dueEntriesStayQueuedWhenReleaseFails() {
+        Map<String, Instant> due = new LinkedHashMap<>();
+        due.put("res-a", Instant.now().minusSeconds(1));
+        when(expiryQueue.claimPartitions()).thenReturn(List.of(3));
+        when(expiryQueue.due(eq(3), any(Instant.class), anyInt())).thenReturn(due);
+        when(inventoryService.releaseExpiredReservations(eq(due.keySet()), any(Instant.class)))
+                .thenThrow(new IllegalStateException("db down"));
+
+        expiryService.releaseDueReservations();
+
+        verify(expiryQueue, never()).remove(anyInt(), any());
+    }
+
+    private InventoryReservation reservation(String reservationId, String expiresAt) {
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setReservationId(reservationId);
+        reservation.setStatus("RESERVED");
+        reservation.setExpiresAt(Instant.parse(expiresAt));
+        return reservation;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecom.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.ecom.inventory.dto.StockResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class StockAvailabilityCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private StockAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new StockAvailabilityCache(
+                redisTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1), 1_000, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bulkReadLoadsOnlySkusMissingFromBothTiers() {
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(0);
+            return keys.stream().map(key -> key.equals("inventory:stock:SKU-B") ? "7:1" : null).toList();
+        });
+        List<Set<String>> loads = new ArrayList<>();
+
+        List<StockResponse> stocks = cache.getAll(Arrays.asList("SKU-A", "SKU-B", "SKU-C"), missing -> {
+            loads.add(Set.copyOf(missing));
+            return List.of(new StockResponse("SKU-A", 3, 0));
+        });
+
+        assertEquals(List.of(new StockResponse("SKU-A", 3, 0), new StockResponse("SKU-B", 7, 1)), stocks);
+        assertEquals(List.of(Set.of("SKU-A", "SKU-C")), loads);
+
+        // Second read is served from the near cache without touching the loader.
+        cache.getAll(List.of("SKU-A", "SKU-B"), missing -> {
+            throw new AssertionError("unexpected load " + missing);
+        });
+        assertEquals(0.6, cache.hitRatio(), 0.001);
+    }
+
+    @Test
+    void invalidateOutsideTransactionEvictsBothTiers() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((String) null));
+        cache.get("SKU-A", () -> new StockResponse("SKU-A", 5, 0));
+
+        cache.invalidate(List.of("SKU-A"));
+
+        verify(redisTemplate).delete(List.of("inventory:stock:SKU-A"));
+        assertEquals(new StockResponse("SKU-A", 4, 1), cache.get("SKU-A", () -> new StockResponse("SKU-A", 4, 1)));
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecom.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ecom.inventory.dto.StockResponse;
+import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.entity.InventoryStockEscrow;
+import com.ecom.inventory.repository.InventoryStockEscrowRepository;
+import com.ecom.inventory.repository.InventoryStockRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockEscrowTest {
+
+    @Mock
+    private InventoryStockRepository stockRepository;
+
+    @Mock
+    private InventoryStockEscrowRepository escrowRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<InventoryStockEscrow> escrowRows = new ArrayList<>();
+    private InventoryStock stock;
+    private StockEscrow escrow;
+
+    @BeforeEach
+    void setUp() {
+        stock = new InventoryStock();
+        stock.setSku("FLASH-1");
+        stock.setAvailableQuantity(250);
+        when(stockRepository.findBySkuForUpdate("FLASH-1")).thenReturn(Optional.of(stock));
+        when(escrowRepository.findAllBySkuForUpdate("FLASH-1")).thenAnswer(invocation -> List.copyOf(escrowRows));
+        when(escrowRepository.save(any(InventoryStockEscrow.class))).thenAnswer(invocation -> {
+            InventoryStockEscrow row = invocation.getArgument(0);
+            if (!escrowRows.contains(row)) {
+                escrowRows.add(row);
+            }
+            return row;
+        });
+        when(escrowRepository.consume(anyString(), anyString(), anyInt(), any(Instant.class))).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(2);
+            InventoryStockEscrow own = escrowRows.get(0);
+            if (own.getQuotaQuantity() < quantity) {
+                return 0;
+            }
+            own.setQuotaQuantity(own.getQuotaQuantity() - quantity);
+            return 1;
+        });
+
+        escrow = new StockEscrow(stockRepository, escrowRepository, transactionManager, new SimpleMeterRegistry(),
+                List.of("FLASH-*"), 100, 10, Duration.ofSeconds(30), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void takesServeFromOneGrantedChunkWithoutLockingTheStockRowAgain() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(escrow.take("FLASH-1", 1));
+        }
+
+        verify(stockRepository, times(1)).findBySkuForUpdate("FLASH-1");
+        assertEquals(150, stock.getAvailableQuantity());
+        assertEquals(100, stock.getEscrowedQuantity());
+        assertEquals(0, escrowRows.get(0).getQuotaQuantity());
+    }
+
+    @Test
+    void reconcileMovesConsumedQuotaIntoReserved() {
+        for (int i = 0; i < 30; i++) {
+            escrow.take("FLASH-1", 1);
+        }
+        when(escrowRepository.sumQuota("FLASH-1")).thenReturn(70);
+        assertEquals(new StockResponse("FLASH-1", 220, 30), escrow.view(stock));
+
+        escrow.reconcile(stock);
+
+        assertEquals(150, stock.getAvailableQuantity());
+        assertEquals(70, stock.getEscrowedQuantity());
+        assertEquals(30, stock.getReservedQuantity());
+    }
+
+    @Test
+    void takeFallsBackWhenPoolIsEmpty() {
+        stock.setAvailableQuantity(0);
+
+        assertFalse(escrow.take("FLASH-1", 1));
+        verify(escrowRepository, never()).consume(anyString(), anyString(), anyInt(), any(Instant.class));
+        assertFalse(escrow.manages("OTHER-1"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecom.inventory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.inventory.dto.ReservationRequest;
+import com.ecom.inventory.entity.InventoryReservation;
+import com.ecom.inventory.entity.InventoryStock;
+import com.ecom.inventory.repository.InventoryReservationRepository;
+import com.ecom.inventory.repository.InventoryStockRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockLedgerTest {
+
+    @Mock
+    private InventoryStockRepository stockRepository;
+
+    @Mock
+    private InventoryReservationRepository reservationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        InventoryStock stock = new InventoryStock();
+        stock.setSku("FLASH-1");
+        stock.setAvailableQuantity(50);
+        stock.setReservedQuantity(0);
+        when(stockRepository.findBySku("FLASH-1")).thenReturn(Optional.of(stock));
+        when(reservationRepository.existsById(anyString())).thenReturn(false);
+
+        StockLedgerJournal journal = new StockLedgerJournal(stockRepository, reservationRepository, transactionTemplate);
+        ledger = new StockLedger(stockRepository, reservationRepository, journal, 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String reservationId = "order-" + i + ":FLASH-1";
+            results.add(callers.submit(() -> {
+                try {
+                    ledger.reserve(new ReservationRequest(reservationId, "FLASH-1", 1, 10));
+                    return true;
+                } catch (IllegalArgumentException ex) {
+                    return false;
+                }
+            }));
+        }
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                reserved++;
+            }
+        }
+        callers.shutdown();
+
+        assertEquals(50, reserved);
+        assertEquals(0, ledger.peek("FLASH-1").orElseThrow().availableQuantity());
+        assertEquals(50, ledger.peek("FLASH-1").orElseThrow().reservedQuantity());
+    }
+
+    @Test
+    void releaseReturnsPendingReservationToAvailable() {
+        ledger.reserve(new ReservationRequest("order-1:FLASH-1", "FLASH-1", 3, 10));
+
+        InventoryReservation pending = ledger.findReservation("order-1:FLASH-1").orElseThrow();
+        ledger.release(pending);
+
+        assertEquals(50, ledger.peek("FLASH-1").orElseThrow().availableQuantity());
+        assertEquals("RELEASED", ledger.findReservation("order-1:FLASH-1").orElseThrow().getStatus());
+        assertThrows(IllegalArgumentException.class, () -> ledger.release(pending));
+    }
+
+    @Test
+    void duplicateReservationIdIsRejected() {
+        ledger.reserve(new ReservationRequest("order-2:FLASH-1", "FLASH-1", 1, 10));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ledger.reserve(new ReservationRequest("order-2:FLASH-1", "FLASH-1", 1, 10)));
+        assertEquals(49, ledger.peek("FLASH-1").orElseThrow().availableQuantity());
+    }
+}
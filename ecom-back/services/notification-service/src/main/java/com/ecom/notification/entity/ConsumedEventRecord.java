@@ -7,16 +7,23 @@ import com.ecom.common.reliability.EventConsumptionRecord;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Maps {@code notification_consumed_events} so schema generation creates the table; rows are read and
+ * written over JDBC by the shared {@code ConsumerDedupService}.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "notification_consumed_events")
+@Table(name = "notification_consumed_events", indexes = {
+        @Index(name = "idx_notification_consumed_events_consumed_at", columnList = "consumed_at")
+})
 public class ConsumedEventRecord implements EventConsumptionRecord {
 
     @Id
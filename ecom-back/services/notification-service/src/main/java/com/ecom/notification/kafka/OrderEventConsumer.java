@@ -1,69 +1,64 @@
 package com.ecom.notification.kafka;
 
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
 
-import com.ecom.common.DomainEvent;
-import com.ecom.notification.service.ConsumerDedupService;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.reliability.ConsumerBatchSupport;
+import com.ecom.common.reliability.EventDeduplicator;
 import com.ecom.notification.service.NotificationUseCases;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Component
 public class OrderEventConsumer {
 
     private final NotificationUseCases notificationService;
-    private final ConsumerDedupService dedupService;
-    private final ObjectMapper objectMapper;
+    private final EventDeduplicator dedupService;
+    private final EventCodec eventCodec;
+    private final Function<ConsumerRecord<String, byte[]>, Optional<EventEnvelope>> envelopes;
 
-    public OrderEventConsumer(NotificationUseCases notificationService, ConsumerDedupService dedupService, ObjectMapper objectMapper) {
+    public OrderEventConsumer(
+            NotificationUseCases notificationService,
+            EventDeduplicator dedupService,
+            EventCodec eventCodec,
+            EventLatencyMetrics latencyMetrics) {
         this.notificationService = notificationService;
         this.dedupService = dedupService;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
+        this.envelopes = latencyMetrics.consumed("notification-service", eventCodec::envelope, EventEnvelope::occurredAt);
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "notification-service")
-    public void onOrderCreated(String rawEvent) {
-        parse(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            notificationService.handleDomainEvent(event, "order.created.v1");
-        });
+    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "notification-service", batch = "true")
+    public void onOrderCreated(List<ConsumerRecord<String, byte[]>> records) {
+        handle(records, "order.created.v1");
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "notification-service")
-    public void onPaymentAuthorized(String rawEvent) {
-        parse(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            notificationService.handleDomainEvent(event, "payment.authorized.v1");
-        });
+    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "notification-service", batch = "true")
+    public void onPaymentAuthorized(List<ConsumerRecord<String, byte[]>> records) {
+        handle(records, "payment.authorized.v1");
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "notification-service")
-    public void onPaymentFailed(String rawEvent) {
-        parse(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            notificationService.handleDomainEvent(event, "payment.failed.v1");
-        });
+    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "notification-service", batch = "true")
+    public void onPaymentFailed(List<ConsumerRecord<String, byte[]>> records) {
+        handle(records, "payment.failed.v1");
     }
 
-    private java.util.Optional<DomainEvent<Map<String, Object>>> parse(String rawEvent) {
-        if (rawEvent == null || rawEvent.isBlank()) {
-            return java.util.Optional.empty();
-        }
-
-        try {
-            var typeRef = new TypeReference<DomainEvent<Map<String, Object>>>() {};
-            return java.util.Optional.of(objectMapper.readValue(rawEvent, typeRef));
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
+    /**
+     * Templates render the whole payload, so it is decoded as a map rather than a payload record.
+     * Sent mail cannot be rolled back, so the batch shares no transaction: marks commit up front, each
+     * notification commits in its own, and a failure part-way only replays the records not yet handled.
+     */
+    private void handle(List<ConsumerRecord<String, byte[]>> records, String eventType) {
+        ConsumerBatchSupport.consume(records, envelopes, EventEnvelope::eventId, dedupService,
+                TransactionOperations.withoutTransaction(),
+                envelope -> eventCodec.domainEvent(envelope)
+                        .ifPresent(event -> notificationService.handleDomainEvent(event, eventType)));
     }
 }
@@ -0,0 +1,20 @@
+package com.ecom.order.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.ecom.common.reliability.RetentionPolicy;
+
+@Configuration
+public class ReliabilityConfig {
+
+    /** Joins the shared reliability cleanup run next to the outbox and dedup policies. */
+    @Bean
+    public RetentionPolicy sagaTimelineRetentionPolicy(
+            @Value("${app.cleanup.saga-timeline-retention:P30D}") Duration retention) {
+        return RetentionPolicy.olderThan("sagaTimeline", "order_saga_timeline", "id", "recorded_at", retention);
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.ecom.order.dto.CreateOrderRequest;
 import com.ecom.order.dto.OrderResponse;
+import com.ecom.order.dto.OrderTimelineResponse;
 import com.ecom.order.service.OrderUseCases;
 
 import jakarta.validation.Valid;
@@ -41,6 +42,11 @@ public class OrderController {
         return orderService.getOrder(orderId);
     }
 
+    @GetMapping("/{orderId}/timeline")
+    public OrderTimelineResponse timeline(@PathVariable String orderId) {
+        return orderService.getTimeline(orderId);
+    }
+
     @GetMapping
     public List<OrderResponse> list(@RequestParam Long userId) {
         return orderService.listOrders(userId);
@@ -68,6 +74,12 @@ public class OrderController {
         return ResponseEntity.ok("Outbox failed events reset to pending: " + replayed);
     }
 
+    @PostMapping("/admin/kafka/dlq/replay")
+    public ResponseEntity<String> replayDeadLetters() {
+        int replayed = orderService.replayDeadLetteredEvents();
+        return ResponseEntity.ok("Dead-lettered events sent back for retry: " + replayed);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleBadRequest(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
@@ -0,0 +1,22 @@
+package com.ecom.order.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record OrderTimelineResponse(
+        String orderId,
+        String status,
+        List<Step> steps,
+        Long elapsedMs
+) {
+
+    /** One saga step; {@code sincePreviousMs} is the hop from the step before it, null for the first. */
+    public record Step(
+            String step,
+            String service,
+            String eventId,
+            Instant occurredAt,
+            Long sincePreviousMs
+    ) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecom.order.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "order_saga_timeline")
+public class SagaTimelineRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String orderId;
+
+    @Column(nullable = false, length = 80)
+    private String step;
+
+    @Column(nullable = false, length = 60)
+    private String service;
+
+    @Column(length = 120)
+    private String eventId;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @Column(nullable = false)
+    private Instant recordedAt;
+}
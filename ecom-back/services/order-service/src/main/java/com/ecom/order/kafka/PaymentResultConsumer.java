@@ -1,70 +1,86 @@
 package com.ecom.order.kafka;
 
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.ecom.common.DomainEvent;
-import com.ecom.order.service.ConsumerDedupService;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.events.PaymentResultPayload;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.KeyOrderedProcessor;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.order.service.OrderUseCases;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ecom.order.service.SagaTimelineService;
+
+import jakarta.annotation.PreDestroy;
 
 @Component
 public class PaymentResultConsumer {
 
     private final OrderUseCases orderService;
-    private final ConsumerDedupService dedupService;
-    private final ObjectMapper objectMapper;
+    private final SagaTimelineService sagaTimeline;
+    private final EventDeduplicator dedupService;
+    private final EventCodec eventCodec;
+    private final Function<ConsumerRecord<String, byte[]>, Optional<EventEnvelope>> envelopes;
+    private final TransactionTemplate transactionTemplate;
+    private final KeyOrderedProcessor processor;
 
-    public PaymentResultConsumer(OrderUseCases orderService, ConsumerDedupService dedupService, ObjectMapper objectMapper) {
+    public PaymentResultConsumer(
+            OrderUseCases orderService,
+            SagaTimelineService sagaTimeline,
+            EventDeduplicator dedupService,
+            EventCodec eventCodec,
+            EventLatencyMetrics latencyMetrics,
+            TransactionTemplate transactionTemplate,
+            RetryTopics retryTopics,
+            @Value("${app.kafka.consumer.key-parallelism:1}") int keyParallelism) {
         this.orderService = orderService;
+        this.sagaTimeline = sagaTimeline;
         this.dedupService = dedupService;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
+        this.envelopes = latencyMetrics.consumed("order-service", eventCodec::envelope, EventEnvelope::occurredAt);
+        this.transactionTemplate = transactionTemplate;
+        this.processor = new KeyOrderedProcessor("order-payment", keyParallelism, retryTopics);
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "order-service")
-    public void onPaymentAuthorized(String rawEvent) {
-        readEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            readOrderId(event).ifPresent(orderService::markPaymentAuthorized);
-        });
+    @PreDestroy
+    void shutdown() {
+        processor.shutdown();
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "order-service")
-    public void onPaymentFailed(String rawEvent) {
-        readEvent(rawEvent).ifPresent(event -> {
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-            readOrderId(event).ifPresent(orderService::markPaymentFailed);
-        });
+    @KafkaListener(topics = "${app.kafka.topics.payment-authorized:payment.authorized.v1}", groupId = "order-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.payment-authorized:payment.authorized.v1}')}", groupId = "order-service", batch = "true")
+    public void onPaymentAuthorized(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> handle(envelope, orderService::markPaymentAuthorized));
     }
 
-    private java.util.Optional<DomainEvent<Map<String, Object>>> readEvent(String rawEvent) {
-        if (rawEvent == null || rawEvent.isBlank()) {
-            return java.util.Optional.empty();
-        }
+    @KafkaListener(topics = "${app.kafka.topics.payment-failed:payment.failed.v1}", groupId = "order-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.payment-failed:payment.failed.v1}')}", groupId = "order-service", batch = "true")
+    public void onPaymentFailed(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> handle(envelope, orderService::markPaymentFailed));
+    }
 
-        try {
-            var typeRef = new TypeReference<DomainEvent<Map<String, Object>>>() {};
-            return java.util.Optional.of(objectMapper.readValue(rawEvent, typeRef));
-        } catch (Exception ignored) {
-            return java.util.Optional.empty();
-        }
+    /** Records the event on the order's saga timeline in the same transaction as the state change. */
+    private void handle(EventEnvelope envelope, Consumer<String> transition) {
+        readOrderId(envelope).ifPresent(orderId -> transactionTemplate.executeWithoutResult(status -> {
+            sagaTimeline.recordEvent(orderId, envelope);
+            transition.accept(orderId);
+        }));
     }
 
-    private java.util.Optional<String> readOrderId(DomainEvent<Map<String, Object>> event) {
-        if (event == null || event.payload() == null) {
-            return java.util.Optional.empty();
-        }
-        Object orderIdObj = event.payload().get("orderId");
-        if (orderIdObj == null) {
-            return java.util.Optional.empty();
-        }
-        return java.util.Optional.of(orderIdObj.toString());
+    private Optional<String> readOrderId(EventEnvelope envelope) {
+        return eventCodec.payload(envelope, PaymentResultPayload.class)
+                .map(PaymentResultPayload::orderId);
     }
 }
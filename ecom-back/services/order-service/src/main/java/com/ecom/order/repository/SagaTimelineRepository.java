@@ -0,0 +1,17 @@
+package com.ecom.order.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.ecom.order.entity.SagaTimelineRecord;
+
+public interface SagaTimelineRepository extends JpaRepository<SagaTimelineRecord, Long> {
+
+    List<SagaTimelineRecord> findByOrderIdOrderByOccurredAtAscIdAsc(String orderId);
+
+    Optional<SagaTimelineRecord> findTopByOrderIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(
+            String orderId, Instant occurredAt);
+}
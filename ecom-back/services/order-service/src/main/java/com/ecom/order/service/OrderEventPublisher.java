@@ -7,6 +7,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.ecom.common.outbox.OutboxService;
 import com.ecom.order.dto.OrderItemRequest;
 import com.ecom.order.entity.OrderRecord;
 
@@ -2,6 +2,7 @@ package com.ecom.order.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -11,12 +12,14 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ecom.common.outbox.OutboxService;
+import com.ecom.common.outbox.OutboxStatus;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.order.dto.CreateOrderRequest;
 import com.ecom.order.dto.OrderResponse;
+import com.ecom.order.dto.OrderTimelineResponse;
 import com.ecom.order.entity.OrderRecord;
 import com.ecom.order.entity.OrderStatus;
-import com.ecom.order.entity.OutboxStatus;
-import com.ecom.order.repository.OutboxEventRepository;
 import com.ecom.order.repository.OrderRepository;
 
 import io.micrometer.core.instrument.Counter;
@@ -27,32 +30,38 @@ import io.micrometer.core.instrument.MeterRegistry;
 public class OrderService implements OrderUseCases {
 
     private final OrderRepository orderRepository;
-    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
     private final OrderItemCodec orderItemCodec;
     private final OrderResponseMapper orderResponseMapper;
     private final OrderEventPublisher orderEventPublisher;
+    private final SagaTimelineService sagaTimeline;
+    private final RetryTopics retryTopics;
     private final int paymentTimeoutMinutes;
     private final Counter timeoutCounter;
     private final Counter outboxReplayCounter;
 
     public OrderService(
             OrderRepository orderRepository,
-            OutboxEventRepository outboxEventRepository,
+            OutboxService outboxService,
             OrderItemCodec orderItemCodec,
             OrderResponseMapper orderResponseMapper,
             OrderEventPublisher orderEventPublisher,
+            SagaTimelineService sagaTimeline,
+            RetryTopics retryTopics,
             MeterRegistry meterRegistry,
             @Value("${app.saga.payment-timeout-minutes:15}") int paymentTimeoutMinutes) {
         this.orderRepository = orderRepository;
-        this.outboxEventRepository = outboxEventRepository;
+        this.outboxService = outboxService;
         this.orderItemCodec = orderItemCodec;
         this.orderResponseMapper = orderResponseMapper;
         this.orderEventPublisher = orderEventPublisher;
+        this.sagaTimeline = sagaTimeline;
+        this.retryTopics = retryTopics;
         this.paymentTimeoutMinutes = paymentTimeoutMinutes;
         this.timeoutCounter = meterRegistry.counter("order.saga.timeout.total");
         this.outboxReplayCounter = meterRegistry.counter("order.outbox.replay.total");
-        Gauge.builder("order.outbox.failed.records", outboxEventRepository,
-                        repo -> repo.countByStatus(OutboxStatus.FAILED))
+        Gauge.builder("order.outbox.failed.records", outboxService,
+                        outbox -> outbox.countByStatus(OutboxStatus.FAILED))
                 .register(meterRegistry);
     }
 
@@ -77,6 +86,7 @@ public class OrderService implements OrderUseCases {
 
         order.setStatus(OrderStatus.PAYMENT_PENDING);
         order = orderRepository.save(order);
+        sagaTimeline.recordStep(order.getId(), "order.created");
 
         return toResponse(order);
     }
@@ -91,6 +101,17 @@ public class OrderService implements OrderUseCases {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream().map(this::toResponse).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderTimelineResponse getTimeline(String orderId) {
+        OrderRecord order = fetch(orderId);
+        List<OrderTimelineResponse.Step> steps = sagaTimeline.steps(orderId);
+        Long elapsedMs = steps.isEmpty()
+                ? null
+                : Duration.between(steps.get(0).occurredAt(), steps.get(steps.size() - 1).occurredAt()).toMillis();
+        return new OrderTimelineResponse(order.getId(), order.getStatus().name(), steps, elapsedMs);
+    }
+
     @Transactional
     public OrderResponse cancelOrder(String orderId) {
         OrderRecord order = fetch(orderId);
@@ -98,6 +119,7 @@ public class OrderService implements OrderUseCases {
             throw new IllegalArgumentException("Order cannot be cancelled in state " + order.getStatus());
         }
         order.setStatus(OrderStatus.CANCELLED);
+        sagaTimeline.recordStep(orderId, "order.cancelled");
         return toResponse(orderRepository.save(order));
     }
 
@@ -108,6 +130,7 @@ public class OrderService implements OrderUseCases {
             throw new IllegalArgumentException("Order cannot be confirmed in state " + order.getStatus());
         }
         order.setStatus(OrderStatus.CONFIRMED);
+        sagaTimeline.recordStep(orderId, "order.confirmed");
         return toResponse(orderRepository.save(order));
     }
 
@@ -119,6 +142,7 @@ public class OrderService implements OrderUseCases {
         }
         order.setStatus(OrderStatus.CONFIRMED);
         orderRepository.save(order);
+        sagaTimeline.recordStep(orderId, "order.confirmed");
     }
 
     @Transactional
@@ -132,6 +156,7 @@ public class OrderService implements OrderUseCases {
         }
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
+        sagaTimeline.recordStep(orderId, "order.cancelled");
     }
 
     @Override
@@ -149,6 +174,7 @@ public class OrderService implements OrderUseCases {
             order.setStatus(OrderStatus.CANCELLED);
             orderRepository.save(order);
             orderEventPublisher.publishOrderTimedOut(order);
+            sagaTimeline.recordStep(order.getId(), "order.timed-out");
             timeoutCounter.increment();
             updated++;
         }
@@ -158,19 +184,16 @@ public class OrderService implements OrderUseCases {
     @Override
     @Transactional
     public int replayFailedOutboxEvents() {
-        List<com.ecom.order.entity.OutboxEventRecord> failed =
-                outboxEventRepository.findTop100ByStatusOrderByUpdatedAtAsc(OutboxStatus.FAILED);
-        int replayed = 0;
-        for (com.ecom.order.entity.OutboxEventRecord event : failed) {
-            event.setStatus(OutboxStatus.PENDING);
-            event.setLastError(null);
-            outboxEventRepository.save(event);
-            outboxReplayCounter.increment();
-            replayed++;
-        }
+        int replayed = outboxService.replayFailed(100);
+        outboxReplayCounter.increment(replayed);
         return replayed;
     }
 
+    @Override
+    public int replayDeadLetteredEvents() {
+        return retryTopics.replayDeadLetters(100);
+    }
+
     @Scheduled(fixedDelayString = "PT30S")
     public void scheduledTimeoutSweep() {
         markTimedOutOrders();
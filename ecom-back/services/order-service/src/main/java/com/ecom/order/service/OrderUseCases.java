@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.ecom.order.dto.CreateOrderRequest;
 import com.ecom.order.dto.OrderResponse;
+import com.ecom.order.dto.OrderTimelineResponse;
 
 public interface OrderUseCases {
 
@@ -13,6 +14,8 @@ public interface OrderUseCases {
 
     List<OrderResponse> listOrders(Long userId);
 
+    OrderTimelineResponse getTimeline(String orderId);
+
     OrderResponse cancelOrder(String orderId);
 
     OrderResponse confirmOrder(String orderId);
@@ -24,4 +27,6 @@ public interface OrderUseCases {
     int markTimedOutOrders();
 
     int replayFailedOutboxEvents();
+
+    int replayDeadLetteredEvents();
 }
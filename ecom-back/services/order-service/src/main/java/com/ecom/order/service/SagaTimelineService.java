@@ -0,0 +1,77 @@
+package com.ecom.order.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.order.dto.OrderTimelineResponse;
+import com.ecom.order.entity.SagaTimelineRecord;
+import com.ecom.order.repository.SagaTimelineRepository;
+
+/**
+ * Records each saga step an order goes through so support can ask where an order is and how long
+ * each hop took. Steps are keyed by {@code occurredAt}, the time the producing service emitted the
+ * event, so a step consumed late still lands in its place. Each new step also records the hop from
+ * the step before it as {@code saga.hop.duration{from,to}}.
+ */
+@Service
+public class SagaTimelineService {
+
+    private static final String SERVICE = "order-service";
+
+    private final SagaTimelineRepository timelineRepository;
+    private final EventLatencyMetrics latencyMetrics;
+
+    public SagaTimelineService(SagaTimelineRepository timelineRepository, EventLatencyMetrics latencyMetrics) {
+        this.timelineRepository = timelineRepository;
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    /** Records a consumed event as a step of {@code orderId}, attributed to the service that produced it. */
+    @Transactional
+    public void recordEvent(String orderId, EventEnvelope envelope) {
+        record(orderId, envelope.eventType(), envelope.producer(), envelope.eventId(), envelope.occurredAt());
+    }
+
+    /** Records a state change this service made itself. */
+    @Transactional
+    public void recordStep(String orderId, String step) {
+        record(orderId, step, SERVICE, null, Instant.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderTimelineResponse.Step> steps(String orderId) {
+        List<OrderTimelineResponse.Step> steps = new ArrayList<>();
+        Instant previous = null;
+        for (SagaTimelineRecord record : timelineRepository.findByOrderIdOrderByOccurredAtAscIdAsc(orderId)) {
+            Long sincePrevious = previous == null ? null : Duration.between(previous, record.getOccurredAt()).toMillis();
+            steps.add(new OrderTimelineResponse.Step(
+                    record.getStep(), record.getService(), record.getEventId(), record.getOccurredAt(), sincePrevious));
+            previous = record.getOccurredAt();
+        }
+        return steps;
+    }
+
+    private void record(String orderId, String step, String service, String eventId, Instant occurredAt) {
+        Instant now = Instant.now();
+        Instant at = occurredAt == null ? now : occurredAt;
+        timelineRepository.findTopByOrderIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(orderId, at)
+                .ifPresent(previous -> latencyMetrics.recordSagaHop(
+                        previous.getStep(), step, Duration.between(previous.getOccurredAt(), at)));
+
+        SagaTimelineRecord record = new SagaTimelineRecord();
+        record.setOrderId(orderId);
+        record.setStep(step);
+        record.setService(service == null ? "unknown" : service);
+        record.setEventId(eventId);
+        record.setOccurredAt(at);
+        record.setRecordedAt(now);
+        timelineRepository.save(record);
+    }
+}
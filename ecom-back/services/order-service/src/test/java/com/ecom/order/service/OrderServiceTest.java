@@ -19,11 +19,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.ecom.common.outbox.OutboxService;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.order.dto.CreateOrderRequest;
 import com.ecom.order.dto.OrderItemRequest;
 import com.ecom.order.entity.OrderRecord;
 import com.ecom.order.entity.OrderStatus;
-import com.ecom.order.repository.OutboxEventRepository;
 import com.ecom.order.repository.OrderRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -34,11 +35,17 @@ class OrderServiceTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private OutboxEventRepository outboxEventRepository;
+    private OutboxService outboxService;
 
     @Mock
     private OrderEventPublisher orderEventPublisher;
 
+    @Mock
+    private RetryTopics retryTopics;
+
+    @Mock
+    private SagaTimelineService sagaTimeline;
+
     private OrderService orderService;
 
     @BeforeEach
@@ -47,10 +54,12 @@ class OrderServiceTest {
         OrderResponseMapper orderResponseMapper = new OrderResponseMapper(orderItemCodec);
         orderService = new OrderService(
                 orderRepository,
-                outboxEventRepository,
+                outboxService,
                 orderItemCodec,
                 orderResponseMapper,
                 orderEventPublisher,
+                sagaTimeline,
+                retryTopics,
                 new SimpleMeterRegistry(),
                 15);
     }
@@ -116,6 +125,7 @@ class OrderServiceTest {
 
         assertEquals(OrderStatus.CONFIRMED, record.getStatus());
         verify(orderRepository).save(record);
+        verify(sagaTimeline).recordStep("ord_3", "order.confirmed");
     }
 
     @Test
@@ -136,6 +146,7 @@ class OrderServiceTest {
 
         assertEquals(OrderStatus.CONFIRMED, record.getStatus());
         verify(orderRepository, never()).save(any(OrderRecord.class));
+        verify(sagaTimeline, never()).recordStep(any(), any());
     }
 }
 
@@ -93,6 +93,12 @@ public class PaymentController {
         return Map.of("outageMode", paymentService.getProviderOutageMode());
     }
 
+    @PostMapping("/admin/kafka/dlq/replay")
+    public ResponseEntity<String> replayDeadLetters() {
+        int replayed = paymentService.replayDeadLetteredEvents();
+        return ResponseEntity.ok("Dead-lettered events sent back for retry: " + replayed);
+    }
+
     private PaymentWebhookRequest parsePayload(String rawPayload) {
         try {
             PaymentWebhookRequest request = objectMapper.readValue(rawPayload, PaymentWebhookRequest.class);
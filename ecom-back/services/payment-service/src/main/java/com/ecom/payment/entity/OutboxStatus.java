@@ -1,7 +0,0 @@
-package com.ecom.payment.entity;
-
-public enum OutboxStatus {
-    PENDING,
-    SENT,
-    FAILED
-}
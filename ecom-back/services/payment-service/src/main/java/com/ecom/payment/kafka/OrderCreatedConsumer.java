@@ -1,61 +1,69 @@
 package com.ecom.payment.kafka;
 
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.ecom.common.DomainEvent;
-import com.ecom.payment.service.ConsumerDedupService;
+import com.ecom.common.events.EventCodec;
+import com.ecom.common.events.EventEnvelope;
+import com.ecom.common.events.OrderCreatedPayload;
+import com.ecom.common.observability.EventLatencyMetrics;
+import com.ecom.common.reliability.EventDeduplicator;
+import com.ecom.common.reliability.KeyOrderedProcessor;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.payment.service.PaymentUseCases;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
 
 @Component
 public class OrderCreatedConsumer {
 
     private final PaymentUseCases paymentService;
-    private final ConsumerDedupService dedupService;
-    private final ObjectMapper objectMapper;
+    private final EventDeduplicator dedupService;
+    private final EventCodec eventCodec;
+    private final Function<ConsumerRecord<String, byte[]>, Optional<EventEnvelope>> envelopes;
+    private final TransactionTemplate transactionTemplate;
+    private final KeyOrderedProcessor processor;
 
-    public OrderCreatedConsumer(PaymentUseCases paymentService, ConsumerDedupService dedupService, ObjectMapper objectMapper) {
+    public OrderCreatedConsumer(
+            PaymentUseCases paymentService,
+            EventDeduplicator dedupService,
+            EventCodec eventCodec,
+            EventLatencyMetrics latencyMetrics,
+            TransactionTemplate transactionTemplate,
+            RetryTopics retryTopics,
+            @Value("${app.kafka.consumer.key-parallelism:1}") int keyParallelism) {
         this.paymentService = paymentService;
         this.dedupService = dedupService;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
+        this.envelopes = latencyMetrics.consumed("payment-service", eventCodec::envelope, EventEnvelope::occurredAt);
+        this.transactionTemplate = transactionTemplate;
+        this.processor = new KeyOrderedProcessor("payment-order", keyParallelism, retryTopics);
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "payment-service")
-    public void onOrderCreated(String rawEvent) {
-        if (rawEvent == null || rawEvent.isBlank()) {
-            return;
-        }
-
-        try {
-            var typeRef = new TypeReference<DomainEvent<Map<String, Object>>>() {};
-            DomainEvent<Map<String, Object>> event = objectMapper.readValue(rawEvent, typeRef);
-            if (!dedupService.markIfNew(event.eventId() == null ? null : event.eventId().toString())) {
-                return;
-            }
-
-            if (event.payload() == null) {
-                return;
-            }
-
-            Object orderIdObj = event.payload().get("orderId");
-            Object userIdObj = event.payload().get("userId");
-            Object currencyObj = event.payload().get("currency");
-
-            if (orderIdObj == null || userIdObj == null) {
-                return;
-            }
+    @PreDestroy
+    void shutdown() {
+        processor.shutdown();
+    }
 
-            String orderId = orderIdObj.toString();
-            Long userId = Long.valueOf(userIdObj.toString());
-            String currency = currencyObj == null ? "INR" : currencyObj.toString();
+    @KafkaListener(topics = "${app.kafka.topics.order-created:order.created.v1}", groupId = "payment-service", batch = "true")
+    @KafkaListener(topics = "#{@retryTopics.retryTopicsOf('${app.kafka.topics.order-created:order.created.v1}')}", groupId = "payment-service", batch = "true")
+    public void onOrderCreated(List<ConsumerRecord<String, byte[]>> records) {
+        processor.consume(records, envelopes, EventEnvelope::eventId, dedupService, transactionTemplate,
+                envelope -> eventCodec.payload(envelope, OrderCreatedPayload.class).ifPresent(this::handle));
+    }
 
-            paymentService.createPendingForOrder(orderId, userId, currency);
-        } catch (Exception ignored) {
-            // Keep consumer resilient; malformed payloads can be routed to DLQ in a later phase.
+    private void handle(OrderCreatedPayload order) {
+        if (order.orderId() == null || order.userId() == null) {
+            return;
         }
+        String currency = order.currency() == null ? "INR" : order.currency();
+        paymentService.createPendingForOrder(order.orderId(), order.userId(), currency);
     }
 }
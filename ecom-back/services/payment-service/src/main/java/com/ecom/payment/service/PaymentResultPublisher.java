@@ -5,6 +5,7 @@ import java.time.Instant;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.ecom.common.outbox.OutboxService;
 import com.ecom.payment.entity.PaymentRecord;
 
 @Component
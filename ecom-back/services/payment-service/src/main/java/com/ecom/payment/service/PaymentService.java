@@ -9,6 +9,7 @@ import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.payment.dto.CreatePaymentIntentRequest;
 import com.ecom.payment.dto.PaymentResponse;
 import com.ecom.payment.dto.PaymentWebhookRequest;
@@ -33,6 +34,7 @@ public class PaymentService implements PaymentUseCases {
     private final ProviderPaymentIdAllocator providerPaymentIdAllocator;
     private final PaymentResultPublisher paymentResultPublisher;
     private final PaymentResponseMapper paymentResponseMapper;
+    private final RetryTopics retryTopics;
     private final MeterRegistry meterRegistry;
 
     public PaymentService(
@@ -43,6 +45,7 @@ public class PaymentService implements PaymentUseCases {
             ProviderPaymentIdAllocator providerPaymentIdAllocator,
             PaymentResultPublisher paymentResultPublisher,
             PaymentResponseMapper paymentResponseMapper,
+            RetryTopics retryTopics,
             MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.webhookEventRepository = webhookEventRepository;
@@ -51,6 +54,7 @@ public class PaymentService implements PaymentUseCases {
         this.providerPaymentIdAllocator = providerPaymentIdAllocator;
         this.paymentResultPublisher = paymentResultPublisher;
         this.paymentResponseMapper = paymentResponseMapper;
+        this.retryTopics = retryTopics;
         this.meterRegistry = meterRegistry;
     }
 
@@ -203,6 +207,11 @@ public class PaymentService implements PaymentUseCases {
         return providerGateway.isOutageMode();
     }
 
+    @Override
+    public int replayDeadLetteredEvents() {
+        return retryTopics.replayDeadLetters(100);
+    }
+
     private PaymentResponse toResponse(PaymentRecord p) {
         return paymentResponseMapper.toResponse(p);
     }
@@ -24,4 +24,6 @@ public interface PaymentUseCases {
     boolean setProviderOutageMode(boolean enabled);
 
     boolean getProviderOutageMode();
+
+    int replayDeadLetteredEvents();
 }
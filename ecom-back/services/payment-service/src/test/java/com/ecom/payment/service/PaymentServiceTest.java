@@ -17,6 +17,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.ecom.common.outbox.OutboxService;
+import com.ecom.common.reliability.RetryTopics;
 import com.ecom.payment.dto.CreatePaymentIntentRequest;
 import com.ecom.payment.dto.PaymentWebhookRequest;
 import com.ecom.payment.entity.PaymentRecord;
@@ -46,6 +48,9 @@ class PaymentServiceTest {
     @Mock
     private PaymentProviderGateway providerGateway;
 
+    @Mock
+    private RetryTopics retryTopics;
+
     private PaymentService paymentService;
 
     @BeforeEach
@@ -65,6 +70,7 @@ class PaymentServiceTest {
                 providerPaymentIdAllocator,
                 paymentResultPublisher,
                 paymentResponseMapper,
+                retryTopics,
                 meterRegistry);
     }
 
@@ -1,5 +1,6 @@
 package com.ecom.search.controller;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
@@ -22,6 +23,7 @@ import com.ecom.search.dto.ProductSearchResponse;
 import com.ecom.search.dto.RelevanceDatasetHealthResponse;
 import com.ecom.search.dto.RelevanceEvaluationResponse;
 import com.ecom.search.dto.ReindexResponse;
+import com.ecom.search.query.ProductSearchCriteria;
 import com.ecom.search.service.SearchUseCases;
 
 import jakarta.validation.Valid;
@@ -58,12 +60,21 @@ public class SearchController {
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String brand,
+            @RequestParam(required = false) List<String> colors,
+            @RequestParam(required = false) List<String> sizes,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "true") boolean activeOnly,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "score") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
-        return searchService.search(q, category, brand, activeOnly, page, size, sortBy, direction);
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(required = false) String cursor) {
+        return searchService.search(
+                new ProductSearchCriteria(q, category, brand, colors, sizes, minPrice, maxPrice, activeOnly, page, size,
+                        sortBy, direction, facets),
+                cursor);
     }
 
     @GetMapping("/autocomplete")
@@ -0,0 +1,6 @@
+package com.ecom.search.dto;
+
+public record FacetBucketResponse(
+        String value,
+        long count) {
+}
@@ -0,0 +1,7 @@
+package com.ecom.search.dto;
+
+public record PriceBucketResponse(
+        double from,
+        double to,
+        long count) {
+}
@@ -6,5 +6,7 @@ public record ProductSearchPageResponse(
         List<ProductSearchResponse> content,
         long totalElements,
         int page,
-        int size) {
+        int size,
+        String nextCursor,
+        SearchFacetsResponse facets) {
 }
@@ -0,0 +1,11 @@
+package com.ecom.search.dto;
+
+import java.util.List;
+
+public record SearchFacetsResponse(
+        List<FacetBucketResponse> categories,
+        List<FacetBucketResponse> brands,
+        List<FacetBucketResponse> colors,
+        List<FacetBucketResponse> sizes,
+        List<PriceBucketResponse> prices) {
+}
@@ -0,0 +1,42 @@
+package com.ecom.search.model;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One autocomplete entry: a distinct product name or brand, keyed by its kind and normalized text so every
+ * product carrying it shares the entry. {@code suggest} holds the text and its word suffixes as completion
+ * inputs, weighted by the number of active products in {@code productIds}. The standard analyzer keeps
+ * digits, so "iphone 15" completes past the model number.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(indexName = "product_suggestions")
+public class SearchSuggestionDocument {
+
+    @Id
+    private String id;
+
+    @Field(type = FieldType.Keyword, index = false)
+    private String text;
+
+    @Field(type = FieldType.Keyword)
+    private String kind;
+
+    @Field(type = FieldType.Keyword)
+    private List<String> productIds;
+
+    @CompletionField(analyzer = "standard", searchAnalyzer = "standard", maxInputLength = 100)
+    private Completion suggest;
+}
@@ -0,0 +1,219 @@
+package com.ecom.search.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+
+/**
+ * Builds product searches as typed Elasticsearch queries instead of concatenated JSON. Everything that only
+ * depends on the shape of a request (sort field, direction, whether there is search text) is built once
+ * when the planner is created: the sort list of every shape, the constant clauses such as
+ * {@code active=true} and the facet aggregations of a search without facet selections. A request then only
+ * binds its text, filters and page into a fresh bool query.
+ *
+ * <p>A faceted search keeps the text and {@code active} clauses in the query and moves the facet selections
+ * (category, brand, colours, sizes, price range) to the {@code post_filter}, so they narrow the hits but
+ * not the aggregations. Each facet's aggregation is wrapped in a {@code filter} of the other selections,
+ * so picking a brand still shows every brand's count under the current category, colours and price.
+ */
+public final class ProductQueryPlanner {
+
+    public static final String CATEGORY_FACET = "category";
+    public static final String BRAND_FACET = "brand";
+    public static final String COLORS_FACET = "colors";
+    public static final String SIZES_FACET = "sizes";
+    public static final String PRICE_FACET = "price";
+    /** Sub-aggregation holding the buckets inside each facet's filter aggregation. */
+    public static final String FACET_VALUES = "values";
+
+    static final List<String> TEXT_FIELDS = List.of("name^4", "description^2", "brand^2", "category");
+
+    private static final Query MATCH_ALL = Query.of(q -> q.matchAll(m -> m));
+    private static final Query ACTIVE_FILTER = Query.of(q -> q.term(t -> t.field("active").value(true)));
+    private static final SortOptions SCORE_DESC = SortOptions.of(s -> s.score(score -> score.order(SortOrder.Desc)));
+
+    private final int facetSize;
+    private final double priceInterval;
+    private final Map<SortShape, List<SortOptions>> sorts;
+    private final Map<String, Aggregation> unfilteredFacets;
+
+    public ProductQueryPlanner() {
+        this(20, 500.0);
+    }
+
+    public ProductQueryPlanner(int facetSize, double priceInterval) {
+        this.facetSize = facetSize;
+        this.priceInterval = priceInterval;
+        Map<SortShape, List<SortOptions>> plans = new HashMap<>();
+        for (SortField field : SortField.values()) {
+            for (SortOrder order : SortOrder.values()) {
+                plans.put(new SortShape(field, order, false), sortOf(field, order, false));
+                plans.put(new SortShape(field, order, true), sortOf(field, order, true));
+            }
+        }
+        this.sorts = Map.copyOf(plans);
+        this.unfilteredFacets = facets(Map.of());
+    }
+
+    public double priceInterval() {
+        return priceInterval;
+    }
+
+    public ProductSearchPlan plan(ProductSearchCriteria criteria) {
+        SortOrder order = "desc".equalsIgnoreCase(criteria.direction()) ? SortOrder.Desc : SortOrder.Asc;
+        SortShape shape = new SortShape(SortField.of(criteria.sortBy()), order, criteria.hasText());
+        Map<String, Query> selections = selections(criteria);
+        List<SortOptions> sort = sorts.get(shape);
+        if (!criteria.facets()) {
+            return new ProductSearchPlan(query(criteria, selections.values()), null, Map.of(), sort, criteria.page(), criteria.size());
+        }
+        return new ProductSearchPlan(
+                query(criteria, List.of()),
+                selections.isEmpty() ? null : and(selections.values()),
+                selections.isEmpty() ? unfilteredFacets : facets(selections),
+                sort,
+                criteria.page(),
+                criteria.size());
+    }
+
+    private Query query(ProductSearchCriteria criteria, Iterable<Query> filters) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (criteria.hasText()) {
+            String text = criteria.q();
+            bool.must(must -> must.multiMatch(match -> match
+                            .query(text)
+                            .fields(TEXT_FIELDS)
+                            .fuzziness("AUTO")
+                            .operator(Operator.And)))
+                    .should(should -> should.matchPhrase(phrase -> phrase.field("name").query(text).boost(8f)))
+                    .should(should -> should.matchPhrasePrefix(prefix -> prefix.field("name").query(text).boost(5f)))
+                    .should(should -> should.matchPhrasePrefix(prefix -> prefix.field("brand").query(text).boost(2f)))
+                    .minimumShouldMatch("0");
+        } else {
+            bool.must(MATCH_ALL);
+        }
+        if (criteria.activeOnly()) {
+            bool.filter(ACTIVE_FILTER);
+        }
+        filters.forEach(bool::filter);
+        return bool.build()._toQuery();
+    }
+
+    /** Filter clause of every facet with a selection, keyed by facet name. */
+    private static Map<String, Query> selections(ProductSearchCriteria criteria) {
+        Map<String, Query> selections = new LinkedHashMap<>();
+        if (criteria.category() != null) {
+            selections.put(CATEGORY_FACET, Query.of(q -> q.term(t -> t.field("category").value(criteria.category()))));
+        }
+        if (criteria.brand() != null) {
+            selections.put(BRAND_FACET, Query.of(q -> q.term(t -> t.field("brand").value(criteria.brand()))));
+        }
+        if (!criteria.colors().isEmpty()) {
+            selections.put(COLORS_FACET, anyOf("colors", criteria.colors()));
+        }
+        if (!criteria.sizes().isEmpty()) {
+            selections.put(SIZES_FACET, anyOf("sizes", criteria.sizes()));
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            selections.put(PRICE_FACET, Query.of(q -> q.range(r -> r.number(n -> {
+                n.field("price");
+                if (criteria.minPrice() != null) {
+                    n.gte(criteria.minPrice().doubleValue());
+                }
+                if (criteria.maxPrice() != null) {
+                    n.lte(criteria.maxPrice().doubleValue());
+                }
+                return n;
+            }))));
+        }
+        return selections;
+    }
+
+    private Map<String, Aggregation> facets(Map<String, Query> selections) {
+        Map<String, Aggregation> facets = new LinkedHashMap<>();
+        facets.put(CATEGORY_FACET, facet(selections, CATEGORY_FACET, terms("category")));
+        facets.put(BRAND_FACET, facet(selections, BRAND_FACET, terms("brand")));
+        facets.put(COLORS_FACET, facet(selections, COLORS_FACET, terms("colors")));
+        facets.put(SIZES_FACET, facet(selections, SIZES_FACET, terms("sizes")));
+        facets.put(PRICE_FACET, facet(selections, PRICE_FACET, Aggregation.of(a -> a.histogram(h -> h
+                .field("price")
+                .interval(priceInterval)
+                .minDocCount(1)))));
+        return facets;
+    }
+
+    private static Aggregation facet(Map<String, Query> selections, String name, Aggregation values) {
+        List<Query> others = new ArrayList<>();
+        selections.forEach((facet, filter) -> {
+            if (!facet.equals(name)) {
+                others.add(filter);
+            }
+        });
+        Query filter = others.isEmpty() ? MATCH_ALL : and(others);
+        return Aggregation.of(a -> a.filter(filter).aggregations(FACET_VALUES, values));
+    }
+
+    private Aggregation terms(String field) {
+        return Aggregation.of(a -> a.terms(t -> t.field(field).size(facetSize)));
+    }
+
+    private static Query anyOf(String field, List<String> values) {
+        List<FieldValue> terms = values.stream().map(FieldValue::of).toList();
+        return Query.of(q -> q.terms(t -> t.field(field).terms(v -> v.value(terms))));
+    }
+
+    private static Query and(Iterable<Query> filters) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        filters.forEach(bool::filter);
+        return bool.build()._toQuery();
+    }
+
+    private static List<SortOptions> sortOf(SortField field, SortOrder order, boolean text) {
+        if (field.path != null) {
+            return List.of(SortOptions.of(s -> s.field(f -> f.field(field.path).order(order))), SCORE_DESC);
+        }
+        if (!text) {
+            return List.of(SortOptions.of(s -> s.field(f -> f.field("updatedAt").order(SortOrder.Desc))));
+        }
+        return List.of(SCORE_DESC);
+    }
+
+    private enum SortField {
+        SCORE(null),
+        PRICE("price"),
+        NAME("name.keyword"),
+        UPDATED_AT("updatedAt");
+
+        private final String path;
+
+        SortField(String path) {
+            this.path = path;
+        }
+
+        static SortField of(String sortBy) {
+            if ("price".equalsIgnoreCase(sortBy)) {
+                return PRICE;
+            }
+            if ("name".equalsIgnoreCase(sortBy)) {
+                return NAME;
+            }
+            if ("updatedAt".equalsIgnoreCase(sortBy)) {
+                return UPDATED_AT;
+            }
+            return SCORE;
+        }
+    }
+
+    private record SortShape(SortField field, SortOrder order, boolean text) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecom.search.query;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Parameters of one product search. Text values are trimmed and blank ones become {@code null}, and colour
+ * and size selections are de-duplicated and sorted, so the query shape only depends on which parameters are
+ * present and equal selections produce byte-identical requests.
+ */
+public record ProductSearchCriteria(
+        String q,
+        String category,
+        String brand,
+        List<String> colors,
+        List<String> sizes,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean activeOnly,
+        int page,
+        int size,
+        String sortBy,
+        String direction,
+        boolean facets) {
+
+    public ProductSearchCriteria {
+        q = trimToNull(q);
+        category = trimToNull(category);
+        brand = trimToNull(brand);
+        colors = normalize(colors);
+        sizes = normalize(sizes);
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must be <= maxPrice");
+        }
+    }
+
+    public ProductSearchCriteria(
+            String q,
+            String category,
+            String brand,
+            boolean activeOnly,
+            int page,
+            int size,
+            String sortBy,
+            String direction) {
+        this(q, category, brand, List.of(), List.of(), null, null, activeOnly, page, size, sortBy, direction, false);
+    }
+
+    public boolean hasText() {
+        return q != null;
+    }
+
+    /** Identifies the search a cursor belongs to: every parameter except the page. */
+    public String cursorKey() {
+        return Integer.toHexString(Objects.hash(q, category, brand, colors, sizes, minPrice, maxPrice, activeOnly, size,
+                sortBy == null ? null : sortBy.toLowerCase(Locale.ROOT),
+                direction == null ? null : direction.toLowerCase(Locale.ROOT),
+                facets));
+    }
+
+    /**
+     * Every parameter of the search, normalized, so equal searches share one result-cache entry. Each part is
+     * length-prefixed, so text containing separators ({@code q = "a|b"}) cannot make two searches share a key.
+     */
+    public String cacheKey() {
+        StringBuilder key = new StringBuilder();
+        for (String part : List.of(q == null ? "" : q, Objects.toString(category, ""), Objects.toString(brand, ""),
+                listKey(colors), listKey(sizes),
+                minPrice == null ? "" : minPrice.stripTrailingZeros().toPlainString(),
+                maxPrice == null ? "" : maxPrice.stripTrailingZeros().toPlainString(),
+                String.valueOf(activeOnly), String.valueOf(page), String.valueOf(size),
+                sortBy == null ? "" : sortBy.toLowerCase(Locale.ROOT),
+                direction == null ? "" : direction.toLowerCase(Locale.ROOT),
+                String.valueOf(facets))) {
+            appendPart(key, part);
+        }
+        return key.toString();
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static String listKey(List<String> values) {
+        StringBuilder key = new StringBuilder();
+        values.forEach(value -> appendPart(key, value));
+        return key.toString();
+    }
+
+    private static void appendPart(StringBuilder key, String part) {
+        key.append(part.length()).append(':').append(part);
+    }
+
+    private static List<String> normalize(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .map(ProductSearchCriteria::trimToNull)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
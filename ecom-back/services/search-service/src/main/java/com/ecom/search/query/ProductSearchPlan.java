@@ -0,0 +1,76 @@
+package com.ecom.search.query;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.Query.PointInTime;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+
+/**
+ * A product search with its parameters bound: the typed query, its sort and the requested page. A faceted
+ * search also carries the selected facet filters as a {@code post_filter} and one aggregation per facet.
+ */
+public record ProductSearchPlan(
+        Query query,
+        Query postFilter,
+        Map<String, Aggregation> aggregations,
+        List<SortOptions> sort,
+        int page,
+        int size) {
+
+    public int from() {
+        return page * size;
+    }
+
+    /**
+     * The search as one offset page. A faceted search asks for the shard request cache: its body is
+     * deterministic for equal criteria, so repeated facet queries are answered from the cache until the
+     * index refreshes.
+     */
+    public NativeQuery toNativeQuery() {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(query)
+                .withSort(sort)
+                .withPageable(PageRequest.of(page, size));
+        if (postFilter != null) {
+            builder.withFilter(postFilter);
+        }
+        if (!aggregations.isEmpty()) {
+            aggregations.forEach(builder::withAggregation);
+            builder.withRequestCache(true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * The same search as one page of a cursor walk: it reads from {@code pointInTime}, continues after
+     * {@code searchAfter} (the first page has none) and always starts at offset 0, so a page costs the same at
+     * any depth. Elasticsearch adds the {@code _shard_doc} tiebreaker to the sort of a point-in-time search,
+     * which makes the last hit's sort values a unique position. Only the first page counts total hits and
+     * computes facets.
+     */
+    public NativeQuery toCursorQuery(PointInTime pointInTime, List<Object> searchAfter) {
+        boolean first = searchAfter == null;
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(query)
+                .withSort(sort)
+                .withPageable(PageRequest.of(0, size))
+                .withPointInTime(pointInTime)
+                .withTrackTotalHits(first);
+        if (postFilter != null) {
+            builder.withFilter(postFilter);
+        }
+        if (first) {
+            aggregations.forEach(builder::withAggregation);
+        } else {
+            builder.withSearchAfter(searchAfter);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecom.search.query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Position of a cursor walk through product search results: the point-in-time the walk reads from, the
+ * sort values of the last hit returned, the total counted on the first page and the page number reached.
+ * {@code key} ties the cursor to the search it was issued for. Clients see it only as an opaque URL-safe
+ * token.
+ */
+public record SearchCursor(String pointInTimeId, List<Object> searchAfter, long totalElements, int page, String key) {
+
+    /** Token that starts a new cursor walk at the first page. */
+    public static final String START = "*";
+
+    public String encode(ObjectMapper objectMapper) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(this));
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not encode search cursor", ex);
+        }
+    }
+
+    public static SearchCursor decode(String token, ObjectMapper objectMapper) {
+        SearchCursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII)),
+                    SearchCursor.class);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("cursor is not valid", ex);
+        }
+        if (cursor.pointInTimeId() == null || cursor.searchAfter() == null || cursor.searchAfter().isEmpty()) {
+            throw new IllegalArgumentException("cursor is not valid");
+        }
+        return cursor;
+    }
+}
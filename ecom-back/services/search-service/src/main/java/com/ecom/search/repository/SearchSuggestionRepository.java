@@ -0,0 +1,8 @@
+package com.ecom.search.repository;
+
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+import com.ecom.search.model.SearchSuggestionDocument;
+
+public interface SearchSuggestionRepository extends ElasticsearchRepository<SearchSuggestionDocument, String> {
+}
@@ -1,6 +1,12 @@
 package com.ecom.search.service;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
 import com.ecom.common.reliability.ConsumerDedupSupport;
+import com.ecom.common.reliability.EventDeduplicator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -8,7 +14,7 @@ import com.ecom.search.entity.ConsumedEventRecord;
 import com.ecom.search.repository.ConsumedEventRepository;
 
 @Service
-public class ConsumerDedupService {
+public class ConsumerDedupService implements EventDeduplicator {
 
     private final ConsumedEventRepository consumedEventRepository;
 
@@ -16,6 +22,7 @@ public class ConsumerDedupService {
         this.consumedEventRepository = consumedEventRepository;
     }
 
+    @Override
     @Transactional
     public boolean markIfNew(String eventId) {
         return ConsumerDedupSupport.markIfNew(
@@ -24,4 +31,26 @@ public class ConsumerDedupService {
                 ConsumedEventRecord::new,
                 consumedEventRepository::save);
     }
+
+    @Override
+    public Set<String> markAllIfNew(Collection<String> eventIds) {
+        return ConsumerDedupSupport.markAllIfNew(
+                eventIds,
+                ids -> StreamSupport.stream(consumedEventRepository.findAllById(ids).spliterator(), false)
+                        .map(ConsumedEventRecord::getEventId)
+                        .toList(),
+                fresh -> consumedEventRepository.saveAll(fresh.stream().map(this::newRecord).toList()));
+    }
+
+    @Override
+    public void forget(String eventId) {
+        consumedEventRepository.deleteById(eventId);
+    }
+
+    private ConsumedEventRecord newRecord(String eventId) {
+        ConsumedEventRecord record = new ConsumedEventRecord();
+        record.setEventId(eventId);
+        record.setConsumedAt(Instant.now());
+        return record;
+    }
 }
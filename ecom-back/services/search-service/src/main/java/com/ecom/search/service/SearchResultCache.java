@@ -0,0 +1,229 @@
+package com.ecom.search.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of search and autocomplete results: a per-instance Caffeine near cache (size-bounded,
+ * so W-TinyLFU admission keeps popular queries) in front of an optional shared Redis tier
+ * ({@code search:cache:{namespace}:{generation}:{key}}, off unless {@code app.search.cache.redis.enabled}).
+ * <p>
+ * Every entry is keyed by the index generation it was loaded under. Index writers call {@link #invalidate()},
+ * which bumps the generation, so older entries are never read again and age out instead of being deleted one
+ * by one. With Redis the generation is a shared counter that other replicas re-read every
+ * {@code generation-poll}; without it their near caches lag a write by up to {@code near-ttl}. A write only
+ * becomes searchable after the next index refresh, so for {@code refresh-grace} after a generation change
+ * results are served but not stored. Redis errors degrade to an Elasticsearch read.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String SEARCH = "search";
+    public static final String AUTOCOMPLETE = "autocomplete";
+
+    private static final Logger log = LoggerFactory.getLogger(SearchResultCache.class);
+    private static final String GENERATION_KEY = "search:cache:generation";
+
+    private final boolean enabled;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final long generationPollNanos;
+    private final long refreshGraceNanos;
+    private final Cache<String, Object> nearCache;
+    private final Map<String, Stats> stats;
+    private final AtomicLong localGeneration = new AtomicLong();
+    private volatile long sharedGeneration;
+    private volatile long sharedCheckedAt;
+    private volatile long changedAt;
+
+    public SearchResultCache(
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.search.cache.enabled:true}") boolean enabled,
+            @Value("${app.search.cache.near-ttl:PT10S}") Duration nearTtl,
+            @Value("${app.search.cache.near-max-size:10000}") long nearMaxSize,
+            @Value("${app.search.cache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${app.search.cache.redis.ttl:PT60S}") Duration redisTtl,
+            @Value("${app.search.cache.generation-poll:PT1S}") Duration generationPoll,
+            @Value("${app.search.cache.refresh-grace:PT1S}") Duration refreshGrace) {
+        this.enabled = enabled;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.generationPollNanos = generationPoll.toNanos();
+        this.refreshGraceNanos = refreshGrace.toNanos();
+        this.nearCache = Caffeine.newBuilder()
+                .expireAfterWrite(nearTtl)
+                .maximumSize(nearMaxSize)
+                .recordStats()
+                .build();
+        this.changedAt = System.nanoTime() - refreshGraceNanos;
+        this.sharedCheckedAt = System.nanoTime() - generationPollNanos;
+        this.stats = Map.of(SEARCH, new Stats(SEARCH, meterRegistry), AUTOCOMPLETE, new Stats(AUTOCOMPLETE, meterRegistry));
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "search.results.near");
+    }
+
+    /**
+     * Returns the cached result of {@code key} in {@code namespace} for the current index generation, loading
+     * and storing it on a miss. {@code key} must capture every input of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String namespace, String key, JavaType type, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Stats counters = stats.get(namespace);
+        counters.requests.increment();
+        refreshSharedGeneration();
+        long shared = sharedGeneration;
+        String nearKey = namespace + ':' + localGeneration.get() + '.' + shared + ':' + key;
+        Object near = nearCache.getIfPresent(nearKey);
+        if (near != null) {
+            counters.hit(counters.nearHits);
+            return (T) near;
+        }
+        String redisKey = "search:cache:" + namespace + ':' + shared + ':' + key;
+        T stored = readRedis(redisKey, type);
+        if (stored != null) {
+            counters.hit(counters.redisHits);
+            nearCache.put(nearKey, stored);
+            return stored;
+        }
+
+        long started = System.nanoTime();
+        T loaded = loader.get();
+        counters.load.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (loaded != null && System.nanoTime() - changedAt >= refreshGraceNanos) {
+            nearCache.put(nearKey, loaded);
+            writeRedis(redisKey, loaded);
+        }
+        return loaded;
+    }
+
+    /** Moves to a new index generation; call after every write to the products or suggestions index. */
+    public void invalidate() {
+        localGeneration.incrementAndGet();
+        changedAt = System.nanoTime();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            if (next != null) {
+                sharedGeneration = next;
+                sharedCheckedAt = System.nanoTime();
+            }
+        } catch (RuntimeException ex) {
+            // Other replicas keep reading the old generation until their entries expire after redis-ttl.
+            log.warn("Search cache generation bump failed: {}", ex.getMessage());
+        }
+    }
+
+    double hitRatio(String namespace) {
+        return stats.get(namespace).hitRatio();
+    }
+
+    private void refreshSharedGeneration() {
+        if (redisTemplate == null || System.nanoTime() - sharedCheckedAt < generationPollNanos) {
+            return;
+        }
+        sharedCheckedAt = System.nanoTime();
+        try {
+            String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+            long generation = value == null ? 0 : Long.parseLong(value);
+            if (generation != sharedGeneration) {
+                sharedGeneration = generation;
+                changedAt = System.nanoTime();
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Search cache generation read failed: {}", ex.getMessage());
+        }
+    }
+
+    private <T> T readRedis(String key, JavaType type) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            return value == null ? null : objectMapper.readValue(value, type);
+        } catch (Exception ex) {
+            log.debug("Search cache Redis read failed: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, Object value) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(value), redisTtl);
+        } catch (Exception ex) {
+            log.debug("Search cache Redis write failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Per-namespace counters. A hit adds the mean miss latency seen so far to {@code search.cache.saved},
+     * an estimate of the Elasticsearch time the cache took off the request path.
+     */
+    private static final class Stats {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder nearHits = new LongAdder();
+        private final LongAdder redisHits = new LongAdder();
+        private final Timer load;
+        private final Counter saved;
+
+        private Stats(String namespace, MeterRegistry meterRegistry) {
+            this.load = Timer.builder("search.cache.load")
+                    .description("Time to compute a result the cache did not hold")
+                    .tag("namespace", namespace)
+                    .register(meterRegistry);
+            this.saved = Counter.builder("search.cache.saved")
+                    .description("Estimated load time avoided by cache hits")
+                    .baseUnit("seconds")
+                    .tag("namespace", namespace)
+                    .register(meterRegistry);
+            Gauge.builder("search.cache.hit.ratio", this, Stats::hitRatio)
+                    .description("Share of reads served by the near or Redis tier")
+                    .tag("namespace", namespace)
+                    .register(meterRegistry);
+        }
+
+        private void hit(LongAdder tier) {
+            tier.increment();
+            saved.increment(load.mean(TimeUnit.SECONDS));
+        }
+
+        private double hitRatio() {
+            long total = requests.sum();
+            return total == 0 ? 0.0 : (double) (nearHits.sum() + redisHits.sum()) / total;
+        }
+    }
+}
@@ -1,24 +1,28 @@
 package com.ecom.search.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
-import org.springframework.data.elasticsearch.core.query.StringQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriBuilder;
 import org.springframework.web.client.RestClient;
 
+import com.ecom.search.dto.FacetBucketResponse;
+import com.ecom.search.dto.PriceBucketResponse;
 import com.ecom.search.dto.ProductIndexRequest;
 import com.ecom.search.dto.ProductSearchPageResponse;
 import com.ecom.search.dto.ProductSearchResponse;
@@ -26,81 +30,150 @@ import com.ecom.search.dto.RelevanceCaseResultResponse;
 import com.ecom.search.dto.RelevanceDatasetHealthResponse;
 import com.ecom.search.dto.RelevanceEvaluationResponse;
 import com.ecom.search.dto.ReindexResponse;
+import com.ecom.search.dto.SearchFacetsResponse;
 import com.ecom.search.model.SearchProductDocument;
+import com.ecom.search.query.ProductQueryPlanner;
+import com.ecom.search.query.ProductSearchCriteria;
+import com.ecom.search.query.ProductSearchPlan;
+import com.ecom.search.query.SearchCursor;
 import com.ecom.search.repository.SearchProductRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+
 @Service
 public class SearchService implements SearchUseCases {
 
     private final SearchProductRepository repository;
     private final ElasticsearchOperations operations;
+    private final SuggestionIndexService suggestions;
+    private final SearchResultCache resultCache;
+    private final JavaType pageType;
+    private final JavaType suggestionsType;
     private final ObjectMapper objectMapper;
     private final RestClient productClient;
     private final Resource relevanceDatasetResource;
     private final Resource relevanceDatasetMetadataResource;
     private final double targetPassRate;
+    private final int maxOffsetPages;
+    private final Duration cursorKeepAlive;
+    private final ProductQueryPlanner queryPlanner;
 
     public SearchService(
             SearchProductRepository repository,
             ElasticsearchOperations operations,
+            SuggestionIndexService suggestions,
+            SearchResultCache resultCache,
             ObjectMapper objectMapper,
             RestClient.Builder restClientBuilder,
             @Value("${app.search.product-service-base-url:http://localhost:8083}") String productServiceBaseUrl,
             @Value("classpath:search-relevance-dataset.json") Resource relevanceDatasetResource,
             @Value("classpath:search-relevance-dataset-metadata.json") Resource relevanceDatasetMetadataResource,
-            @Value("${app.search.relevance.target-pass-rate:85.0}") double targetPassRate) {
+            @Value("${app.search.relevance.target-pass-rate:85.0}") double targetPassRate,
+            @Value("${app.search.pagination.max-offset-pages:50}") int maxOffsetPages,
+            @Value("${app.search.pagination.cursor-keep-alive:PT1M}") Duration cursorKeepAlive,
+            @Value("${app.search.facets.size:20}") int facetSize,
+            @Value("${app.search.facets.price-interval:500}") double priceInterval) {
         this.repository = repository;
         this.operations = operations;
+        this.suggestions = suggestions;
+        this.resultCache = resultCache;
+        this.pageType = objectMapper.constructType(ProductSearchPageResponse.class);
+        this.suggestionsType = objectMapper.getTypeFactory().constructCollectionType(List.class, String.class);
         this.objectMapper = objectMapper;
         this.productClient = restClientBuilder.baseUrl(productServiceBaseUrl).build();
         this.relevanceDatasetResource = relevanceDatasetResource;
         this.relevanceDatasetMetadataResource = relevanceDatasetMetadataResource;
         this.targetPassRate = targetPassRate;
+        this.maxOffsetPages = maxOffsetPages;
+        this.cursorKeepAlive = cursorKeepAlive;
+        this.queryPlanner = new ProductQueryPlanner(facetSize, priceInterval);
     }
 
     @Override
     public ProductSearchResponse upsertProduct(ProductIndexRequest request) {
+        List<SearchProductDocument> previous = repository.findById(request.productId()).stream().toList();
         SearchProductDocument saved = repository.save(map(request));
+        suggestions.reindex(previous, List.of(saved));
+        resultCache.invalidate();
         return toResponse(saved);
     }
 
     @Override
     public List<ProductSearchResponse> bulkUpsert(List<ProductIndexRequest> requests) {
         List<SearchProductDocument> docs = requests.stream().map(this::map).toList();
-        Iterable<SearchProductDocument> saved = repository.saveAll(docs);
-        List<ProductSearchResponse> responses = new ArrayList<>();
-        saved.forEach(doc -> responses.add(toResponse(doc)));
-        return responses;
+        List<SearchProductDocument> previous = new ArrayList<>();
+        repository.findAllById(docs.stream().map(SearchProductDocument::getProductId).toList()).forEach(previous::add);
+        List<SearchProductDocument> saved = new ArrayList<>();
+        repository.saveAll(docs).forEach(saved::add);
+        suggestions.reindex(previous, saved);
+        resultCache.invalidate();
+        return saved.stream().map(this::toResponse).toList();
     }
 
     @Override
     public void deleteProduct(String productId) {
+        List<SearchProductDocument> previous = repository.findById(productId).stream().toList();
         repository.deleteById(productId);
+        suggestions.reindex(previous, List.of());
+        resultCache.invalidate();
     }
 
     @Override
-    public ProductSearchPageResponse search(
-            String q,
-            String category,
-            String brand,
-            boolean activeOnly,
-            int page,
-            int size,
-            String sortBy,
-            String direction) {
-        validatePaging(page, size);
-        String queryDsl = buildSearchDsl(q, category, brand, activeOnly, page, size, sortBy, direction);
-        SearchHits<SearchProductDocument> hits = operations.search(new StringQuery(queryDsl), SearchProductDocument.class);
-
-        List<ProductSearchResponse> content = hits.stream()
-                .map(SearchHit::getContent)
-                .map(this::toResponse)
-                .toList();
+    public ProductSearchPageResponse search(ProductSearchCriteria criteria, String cursor) {
+        boolean cursorPaging = cursor != null && !cursor.isBlank();
+        validatePaging(cursorPaging ? 0 : criteria.page(), criteria.size());
+        if (cursorPaging) {
+            return searchPage(criteria, queryPlanner.plan(criteria), cursor.trim());
+        }
+        return resultCache.get(SearchResultCache.SEARCH, criteria.cacheKey(), pageType, () -> searchOffset(criteria));
+    }
 
-        return new ProductSearchPageResponse(content, hits.getTotalHits(), page, size);
+    private ProductSearchPageResponse searchOffset(ProductSearchCriteria criteria) {
+        ProductSearchPlan plan = queryPlanner.plan(criteria);
+        SearchHits<SearchProductDocument> hits = operations.search(plan.toNativeQuery(), SearchProductDocument.class);
+        return new ProductSearchPageResponse(
+                toResponses(hits), hits.getTotalHits(), criteria.page(), criteria.size(), null, facets(criteria, hits));
+    }
+
+    /**
+     * One page of a cursor walk. {@code *} opens a point-in-time on the products index and returns the first
+     * page; every later token continues from the sort values of the previous page's last hit in that
+     * point-in-time, so deep pages cost the same as the first and see one consistent snapshot. A short page
+     * ends the walk and releases the point-in-time; an abandoned one expires after the keep-alive.
+     */
+    private ProductSearchPageResponse searchPage(ProductSearchCriteria criteria, ProductSearchPlan plan, String token) {
+        SearchCursor previous = SearchCursor.START.equals(token) ? null : SearchCursor.decode(token, objectMapper);
+        String key = criteria.cursorKey();
+        if (previous != null && !key.equals(previous.key())) {
+            throw new IllegalArgumentException("cursor belongs to a different search");
+        }
+        String pointInTimeId = previous == null
+                ? operations.openPointInTime(operations.getIndexCoordinatesFor(SearchProductDocument.class), cursorKeepAlive)
+                : previous.pointInTimeId();
+
+        SearchHits<SearchProductDocument> hits = operations.search(
+                plan.toCursorQuery(new Query.PointInTime(pointInTimeId, cursorKeepAlive),
+                        previous == null ? null : previous.searchAfter()),
+                SearchProductDocument.class);
+        if (hits.getPointInTimeId() != null) {
+            pointInTimeId = hits.getPointInTimeId();
+        }
+
+        long total = previous == null ? hits.getTotalHits() : previous.totalElements();
+        int page = previous == null ? 0 : previous.page() + 1;
+        List<SearchHit<SearchProductDocument>> pageHits = hits.getSearchHits();
+        String nextCursor = null;
+        if (pageHits.size() == criteria.size()) {
+            List<Object> searchAfter = pageHits.get(pageHits.size() - 1).getSortValues();
+            nextCursor = new SearchCursor(pointInTimeId, searchAfter, total, page, key).encode(objectMapper);
+        } else {
+            operations.closePointInTime(pointInTimeId);
+        }
+        return new ProductSearchPageResponse(toResponses(hits), total, page, criteria.size(), nextCursor,
+                previous == null ? facets(criteria, hits) : null);
     }
 
     @Override
@@ -109,14 +182,9 @@ public class SearchService implements SearchUseCases {
             return List.of();
         }
         int safeSize = Math.max(1, Math.min(size, 20));
-        String queryDsl = buildAutocompleteDsl(q, safeSize);
-        SearchHits<SearchProductDocument> hits = operations.search(new StringQuery(queryDsl), SearchProductDocument.class);
-
-        return hits.stream()
-                .map(SearchHit::getContent)
-                .flatMap(doc -> java.util.stream.Stream.of(doc.getName(), doc.getBrand()))
-                .filter(v -> v != null && v.toLowerCase().startsWith(q.trim().toLowerCase()))
-                .collect(Collectors.collectingAndThen(Collectors.toCollection(LinkedHashSet::new), ArrayList::new));
+        String prefix = q.trim().toLowerCase(Locale.ROOT);
+        return resultCache.get(SearchResultCache.AUTOCOMPLETE, safeSize + "|" + prefix, suggestionsType,
+                () -> suggestions.suggest(q, safeSize));
     }
 
     @Override
@@ -124,6 +192,8 @@ public class SearchService implements SearchUseCases {
         int safePageSize = Math.max(1, Math.min(pageSize, 500));
         if (purgeFirst) {
             repository.deleteAll();
+            suggestions.clear();
+            resultCache.invalidate();
         }
 
         int page = 0;
@@ -162,14 +232,16 @@ public class SearchService implements SearchUseCases {
 
         for (RelevanceSample sample : dataset) {
             ProductSearchPageResponse searchResult = search(
-                    sample.query(),
-                    blankToNull(sample.category()),
-                    blankToNull(sample.brand()),
-                    true,
-                    0,
-                    safeTopN,
-                    "score",
-                    "desc");
+                    new ProductSearchCriteria(
+                            sample.query(),
+                            blankToNull(sample.category()),
+                            blankToNull(sample.brand()),
+                            true,
+                            0,
+                            safeTopN,
+                            "score",
+                            "desc"),
+                    null);
 
             List<String> topProductIds = searchResult.content().stream()
                     .map(ProductSearchResponse::productId)
@@ -242,6 +314,55 @@ public class SearchService implements SearchUseCases {
         return doc;
     }
 
+    /** Facet buckets of a faceted search, read from the per-facet filter aggregations; {@code null} otherwise. */
+    private SearchFacetsResponse facets(ProductSearchCriteria criteria, SearchHits<SearchProductDocument> hits) {
+        if (!criteria.facets() || !(hits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return null;
+        }
+        Map<String, ElasticsearchAggregation> facets = aggregations.aggregationsAsMap();
+        return new SearchFacetsResponse(
+                termBuckets(facets.get(ProductQueryPlanner.CATEGORY_FACET)),
+                termBuckets(facets.get(ProductQueryPlanner.BRAND_FACET)),
+                termBuckets(facets.get(ProductQueryPlanner.COLORS_FACET)),
+                termBuckets(facets.get(ProductQueryPlanner.SIZES_FACET)),
+                priceBuckets(facets.get(ProductQueryPlanner.PRICE_FACET)));
+    }
+
+    private List<FacetBucketResponse> termBuckets(ElasticsearchAggregation facet) {
+        Aggregate values = facetValues(facet);
+        if (values == null || !values.isSterms()) {
+            return List.of();
+        }
+        return values.sterms().buckets().array().stream()
+                .map(bucket -> new FacetBucketResponse(bucket.key().stringValue(), bucket.docCount()))
+                .toList();
+    }
+
+    private List<PriceBucketResponse> priceBuckets(ElasticsearchAggregation facet) {
+        Aggregate values = facetValues(facet);
+        if (values == null || !values.isHistogram()) {
+            return List.of();
+        }
+        return values.histogram().buckets().array().stream()
+                .map(bucket -> new PriceBucketResponse(
+                        bucket.key(), bucket.key() + queryPlanner.priceInterval(), bucket.docCount()))
+                .toList();
+    }
+
+    private Aggregate facetValues(ElasticsearchAggregation facet) {
+        if (facet == null || !facet.aggregation().getAggregate().isFilter()) {
+            return null;
+        }
+        return facet.aggregation().getAggregate().filter().aggregations().get(ProductQueryPlanner.FACET_VALUES);
+    }
+
+    private List<ProductSearchResponse> toResponses(SearchHits<SearchProductDocument> hits) {
+        return hits.stream()
+                .map(SearchHit::getContent)
+                .map(this::toResponse)
+                .toList();
+    }
+
     private ProductSearchResponse toResponse(SearchProductDocument doc) {
         return new ProductSearchResponse(
                 doc.getProductId(),
@@ -263,80 +384,10 @@ public class SearchService implements SearchUseCases {
         if (size < 1 || size > 100) {
             throw new IllegalArgumentException("size must be between 1 and 100");
         }
-    }
-
-    private String buildSearchDsl(
-            String q,
-            String category,
-            String brand,
-            boolean activeOnly,
-            int page,
-            int size,
-            String sortBy,
-            String direction) {
-        String mustClause = (q == null || q.isBlank()) ? "{\"match_all\":{}}" : textQueryClause(q.trim());
-
-        List<String> shouldClauses = new ArrayList<>();
-        if (q != null && !q.isBlank()) {
-            shouldClauses.add("{\"match_phrase\":{\"name\":{\"query\":" + json(q.trim()) + ",\"boost\":8}}}");
-            shouldClauses.add("{\"match_phrase_prefix\":{\"name\":{\"query\":" + json(q.trim()) + ",\"boost\":5}}}");
-            shouldClauses.add("{\"match_phrase_prefix\":{\"brand\":{\"query\":" + json(q.trim()) + ",\"boost\":2}}}");
-        }
-
-        List<String> filters = new ArrayList<>();
-        if (activeOnly) {
-            filters.add("{\"term\":{\"active\":true}}");
-        }
-        if (category != null && !category.isBlank()) {
-            filters.add("{\"term\":{\"category\":" + json(category.trim()) + "}}");
+        if (page >= maxOffsetPages) {
+            throw new IllegalArgumentException(
+                    "page must be < " + maxOffsetPages + "; use cursor=* and nextCursor to page deeper");
         }
-        if (brand != null && !brand.isBlank()) {
-            filters.add("{\"term\":{\"brand\":" + json(brand.trim()) + "}}");
-        }
-
-        String filterSection = filters.isEmpty() ? "" : ",\"filter\":[" + String.join(",", filters) + "]";
-        String shouldSection = shouldClauses.isEmpty() ? "" : ",\"should\":[" + String.join(",", shouldClauses) + "],\"minimum_should_match\":0";
-        String order = "desc".equalsIgnoreCase(direction) ? "desc" : "asc";
-        String sortClause = resolveSortClause(sortBy, order, q);
-
-        return "{"
-                + "\"from\":" + (page * size) + ","
-                + "\"size\":" + size + ","
-                + "\"query\":{\"bool\":{\"must\":[" + mustClause + "]" + filterSection + shouldSection + "}},"
-                + "\"sort\":[" + sortClause + "]"
-                + "}";
-    }
-
-    private String buildAutocompleteDsl(String q, int size) {
-        return "{"
-                + "\"size\":" + size + ","
-                + "\"query\":{\"bool\":{\"should\":["
-                + "{\"match_phrase_prefix\":{\"name\":{\"query\":" + json(q.trim()) + "}}},"
-                + "{\"match_phrase_prefix\":{\"brand\":{\"query\":" + json(q.trim()) + "}}}"
-                + "],\"minimum_should_match\":1}},"
-                + "\"sort\":[{\"_score\":{\"order\":\"desc\"}}]"
-                + "}";
-    }
-
-    private String resolveSortClause(String sortBy, String order, String q) {
-        if ("price".equalsIgnoreCase(sortBy)) {
-            return "{\"price\":{\"order\":\"" + order + "\"}},{\"_score\":{\"order\":\"desc\"}}";
-        }
-        if ("name".equalsIgnoreCase(sortBy)) {
-            return "{\"name.keyword\":{\"order\":\"" + order + "\"}},{\"_score\":{\"order\":\"desc\"}}";
-        }
-        if ("updatedAt".equalsIgnoreCase(sortBy)) {
-            return "{\"updatedAt\":{\"order\":\"" + order + "\"}},{\"_score\":{\"order\":\"desc\"}}";
-        }
-        if (q == null || q.isBlank()) {
-            return "{\"updatedAt\":{\"order\":\"desc\"}}";
-        }
-        return "{\"_score\":{\"order\":\"desc\"}}";
-    }
-
-    private String textQueryClause(String q) {
-        return "{\"multi_match\":{\"query\":" + json(q)
-                + ",\"fields\":[\"name^4\",\"description^2\",\"brand^2\",\"category\"],\"fuzziness\":\"AUTO\",\"operator\":\"and\"}}";
     }
 
     private ProductPageResponse fetchProductPage(int page, int size) {
@@ -431,12 +482,4 @@ public class SearchService implements SearchUseCases {
             Instant lastRefreshedAt,
             int refreshCadenceDays) {
     }
-
-    private String json(String value) {
-        try {
-            return objectMapper.writeValueAsString(value);
-        } catch (JsonProcessingException ex) {
-            throw new IllegalStateException("Could not encode query value", ex);
-        }
-    }
 }
@@ -8,6 +8,7 @@ import com.ecom.search.dto.ProductSearchResponse;
 import com.ecom.search.dto.RelevanceDatasetHealthResponse;
 import com.ecom.search.dto.RelevanceEvaluationResponse;
 import com.ecom.search.dto.ReindexResponse;
+import com.ecom.search.query.ProductSearchCriteria;
 
 public interface SearchUseCases {
 
@@ -17,15 +18,7 @@ public interface SearchUseCases {
 
     void deleteProduct(String productId);
 
-    ProductSearchPageResponse search(
-            String q,
-            String category,
-            String brand,
-            boolean activeOnly,
-            int page,
-            int size,
-            String sortBy,
-            String direction);
+    ProductSearchPageResponse search(ProductSearchCriteria criteria, String cursor);
 
     List<String> autocomplete(String q, int size);
 
@@ -0,0 +1,211 @@
+package com.ecom.search.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
+import org.springframework.stereotype.Service;
+
+import com.ecom.search.model.SearchProductDocument;
+import com.ecom.search.model.SearchSuggestionDocument;
+import com.ecom.search.repository.SearchSuggestionRepository;
+
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+
+/**
+ * Keeps the {@code product_suggestions} completion index in step with {@code products} and answers
+ * autocomplete from it. Writes go through {@link #reindex}: the product documents before and after a
+ * change are turned into per-entry membership changes and sent as one bulk of scripted upserts, which merge
+ * into the stored entry on the server so replicas and listeners writing the same entry concurrently do not
+ * lose each other's products; entries left without products are deleted. Reads use the completion
+ * suggester, which serves prefixes from an in-memory FST, drops duplicate texts on the server and returns
+ * only the {@code text} field of each entry.
+ */
+@Service
+public class SuggestionIndexService {
+
+    static final String SUGGESTER = "product";
+    static final String NAME = "name";
+    static final String BRAND = "brand";
+
+    /** Word suffixes indexed per entry, so "air max" and "max" also complete "Nike Air Max". */
+    private static final int MAX_INPUT_WORDS = 5;
+    private static final int MAX_CONFLICT_RETRIES = 5;
+
+    /**
+     * Applies one entry's membership change to its stored {@code productIds}, so concurrent writers touching
+     * the same entry never overwrite each other. The weight is recomputed from the merged set; an entry left
+     * empty is deleted, and one that was missing and stays empty is not created.
+     */
+    static final String MEMBERSHIP_SCRIPT = """
+            def ids = new TreeSet(ctx._source.productIds == null ? [] : ctx._source.productIds);
+            def before = new TreeSet(ids);
+            ids.removeAll(params.removed);
+            ids.addAll(params.added);
+            if (ids.isEmpty()) {
+              ctx.op = ctx.op == 'create' ? 'none' : 'delete';
+            } else if (ids.equals(before)) {
+              ctx.op = 'none';
+            } else {
+              ctx._source.productIds = new ArrayList(ids);
+              ctx._source.suggest = ['input': params.input, 'weight': ids.size()];
+            }
+            """;
+
+    private final SearchSuggestionRepository repository;
+    private final ElasticsearchOperations operations;
+
+    public SuggestionIndexService(SearchSuggestionRepository repository, ElasticsearchOperations operations) {
+        this.repository = repository;
+        this.operations = operations;
+    }
+
+    /**
+     * Moves products between entries: every product in {@code previous} leaves the entries of its stored
+     * name and brand, every active product in {@code current} joins the entries of its new ones. Entries
+     * whose membership does not change are skipped; the rest are sent as one bulk of scripted upserts.
+     */
+    public void reindex(List<SearchProductDocument> previous, List<SearchProductDocument> current) {
+        Map<String, Change> changes = new LinkedHashMap<>();
+        for (SearchProductDocument doc : previous) {
+            forEachEntry(doc, (kind, text) -> change(changes, kind, text).removed.add(doc.getProductId()));
+        }
+        for (SearchProductDocument doc : current) {
+            if (Boolean.FALSE.equals(doc.getActive())) {
+                continue;
+            }
+            forEachEntry(doc, (kind, text) -> change(changes, kind, text).added.add(doc.getProductId()));
+        }
+
+        List<UpdateQuery> updates = new ArrayList<>();
+        changes.forEach((id, change) -> {
+            if (!change.removed.equals(change.added)) {
+                updates.add(update(id, change));
+            }
+        });
+        if (!updates.isEmpty()) {
+            operations.bulkUpdate(updates, SearchSuggestionDocument.class);
+        }
+    }
+
+    public void clear() {
+        repository.deleteAll();
+    }
+
+    /** Up to {@code size} distinct entry texts completing {@code prefix}, most popular first. */
+    public List<String> suggest(String prefix, int size) {
+        String text = prefix.trim();
+        NativeQuery query = NativeQuery.builder()
+                .withSuggester(Suggester.of(s -> s.suggesters(SUGGESTER, field -> field
+                        .prefix(text)
+                        .completion(completion -> completion.field("suggest").size(size).skipDuplicates(true)))))
+                .withSourceFilter(new FetchSourceFilter(new String[] {"text"}, null))
+                .withMaxResults(0)
+                .withTrackTotalHits(false)
+                .build();
+        SearchHits<SearchSuggestionDocument> hits = operations.search(query, SearchSuggestionDocument.class);
+        Suggest suggest = hits.getSuggest();
+        Suggest.Suggestion<? extends Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option>> suggestion =
+                suggest == null ? null : suggest.getSuggestion(SUGGESTER);
+        if (suggestion == null) {
+            return List.of();
+        }
+        Set<String> texts = new LinkedHashSet<>();
+        suggestion.getEntries().forEach(entry -> entry.getOptions().forEach(option -> texts.add(textOf(option))));
+        return texts.stream().limit(size).toList();
+    }
+
+    static String idOf(String kind, String text) {
+        return kind + ":" + normalize(text);
+    }
+
+    /** The entry text and its word suffixes, lower-cased; the completion field matches inputs from their start. */
+    static List<String> inputsOf(String text) {
+        String[] words = normalize(text).split(" ");
+        Set<String> inputs = new LinkedHashSet<>();
+        for (int i = 0; i < Math.min(words.length, MAX_INPUT_WORDS); i++) {
+            inputs.add(String.join(" ", Arrays.copyOfRange(words, i, words.length)));
+        }
+        return List.copyOf(inputs);
+    }
+
+    /**
+     * The membership change as a scripted upsert: Elasticsearch applies it to the stored entry (or an empty
+     * one) under the document's own version and re-runs it on a version conflict.
+     */
+    private static UpdateQuery update(String id, Change change) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("removed", List.copyOf(change.removed));
+        params.put("added", List.copyOf(change.added));
+        params.put("input", inputsOf(change.text));
+        Document upsert = Document.create();
+        upsert.put("id", id);
+        upsert.put("kind", change.kind);
+        upsert.put("text", change.text);
+        upsert.put("productIds", List.of());
+        return UpdateQuery.builder(id)
+                .withScriptType(ScriptType.INLINE)
+                .withScript(MEMBERSHIP_SCRIPT)
+                .withLang("painless")
+                .withParams(params)
+                .withUpsert(upsert)
+                .withScriptedUpsert(true)
+                .withRetryOnConflict(MAX_CONFLICT_RETRIES)
+                .build();
+    }
+
+    private static String textOf(Suggest.Suggestion.Entry.Option option) {
+        if (option instanceof CompletionSuggestion.Entry.Option<?> completion
+                && completion.getSearchHit() != null
+                && completion.getSearchHit().getContent() instanceof SearchSuggestionDocument doc
+                && doc.getText() != null) {
+            return doc.getText();
+        }
+        return option.getText();
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void forEachEntry(SearchProductDocument doc, BiConsumer<String, String> consumer) {
+        if (doc.getName() != null && !doc.getName().isBlank()) {
+            consumer.accept(NAME, doc.getName().trim());
+        }
+        if (doc.getBrand() != null && !doc.getBrand().isBlank()) {
+            consumer.accept(BRAND, doc.getBrand().trim());
+        }
+    }
+
+    private static Change change(Map<String, Change> changes, String kind, String text) {
+        return changes.computeIfAbsent(idOf(kind, text), id -> new Change(kind, text));
+    }
+
+    private static final class Change {
+        private final String kind;
+        private final String text;
+        private final Set<String> removed = new LinkedHashSet<>();
+        private final Set<String> added = new LinkedHashSet<>();
+
+        private Change(String kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
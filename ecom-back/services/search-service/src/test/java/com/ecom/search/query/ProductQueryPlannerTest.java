@@ -0,0 +1,114 @@
+package com.ecom.search.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+
+class ProductQueryPlannerTest {
+
+    private final ProductQueryPlanner planner = new ProductQueryPlanner();
+
+    @Test
+    void textSearchBindsTextAndFiltersIntoBoostedBoolQuery() {
+        ProductSearchPlan plan = planner.plan(
+                new ProductSearchCriteria("  iphone 15 ", "electronics", " ", true, 2, 20, "price", "DESC"));
+
+        BoolQuery bool = plan.query().bool();
+        assertEquals("iphone 15", bool.must().get(0).multiMatch().query());
+        assertEquals(ProductQueryPlanner.TEXT_FIELDS, bool.must().get(0).multiMatch().fields());
+        assertEquals(8f, bool.should().get(0).matchPhrase().boost());
+        assertEquals("brand", bool.should().get(2).matchPhrasePrefix().field());
+        assertEquals(List.of("active", "category"), bool.filter().stream().map(f -> f.term().field()).toList());
+        assertEquals("electronics", bool.filter().get(1).term().value().stringValue());
+
+        assertEquals("price", plan.sort().get(0).field().field());
+        assertEquals(SortOrder.Desc, plan.sort().get(0).field().order());
+        assertTrue(plan.sort().get(1).isScore());
+
+        NativeQuery nativeQuery = plan.toNativeQuery();
+        assertEquals(40, nativeQuery.getPageable().getOffset());
+        assertEquals(20, nativeQuery.getPageable().getPageSize());
+    }
+
+    @Test
+    void browseWithoutTextMatchesAllAndSortsNewestFirst() {
+        ProductSearchPlan plan = planner.plan(
+                new ProductSearchCriteria(null, null, "Nike", false, 0, 10, "score", "asc"));
+
+        BoolQuery bool = plan.query().bool();
+        assertTrue(bool.must().get(0).isMatchAll());
+        assertTrue(bool.should().isEmpty());
+        assertEquals(List.of("brand"), bool.filter().stream().map(f -> f.term().field()).toList());
+
+        SortOptions sort = plan.sort().get(0);
+        assertEquals("updatedAt", sort.field().field());
+        assertEquals(SortOrder.Desc, sort.field().order());
+    }
+
+    @Test
+    void requestsOfTheSameShapeShareThePrecomputedSortAndConstantClauses() {
+        ProductSearchPlan first = planner.plan(new ProductSearchCriteria("shoes", "fashion", null, true, 0, 10, "name", "asc"));
+        ProductSearchPlan second = planner.plan(new ProductSearchCriteria("boots", "outdoor", null, true, 1, 10, "name", "asc"));
+
+        assertSame(first.sort(), second.sort());
+        assertEquals("name.keyword", first.sort().get(0).field().field());
+        Query firstActive = first.query().bool().filter().get(0);
+        assertSame(firstActive, second.query().bool().filter().get(0));
+        assertEquals("boots", second.query().bool().must().get(0).multiMatch().query());
+    }
+
+    @Test
+    void facetedSearchMovesSelectionsToPostFilterAndExcludesEachFacetsOwnSelection() {
+        ProductSearchPlan plan = planner.plan(new ProductSearchCriteria(
+                "runner", null, "Nike", List.of("red", " blue", "red"), List.of(), null, new BigDecimal("2000"),
+                true, 0, 20, "score", "desc", true));
+
+        assertEquals(List.of("active"), plan.query().bool().filter().stream().map(f -> f.term().field()).toList());
+        List<Query> selected = plan.postFilter().bool().filter();
+        assertEquals("brand", selected.get(0).term().field());
+        assertEquals(List.of("blue", "red"),
+                selected.get(1).terms().terms().value().stream().map(v -> v.stringValue()).toList());
+        assertEquals(2000.0, selected.get(2).range().number().lte());
+
+        Map<String, Aggregation> facets = plan.aggregations();
+        assertEquals(List.of("category", "brand", "colors", "sizes", "price"), List.copyOf(facets.keySet()));
+        assertEquals(List.of("colors", "price"), filterFields(facets.get("brand")));
+        assertEquals(List.of("brand", "price"), filterFields(facets.get("colors")));
+        assertEquals(List.of("brand", "colors", "price"), filterFields(facets.get("sizes")));
+        assertEquals("brand", facets.get("brand").aggregations().get(ProductQueryPlanner.FACET_VALUES).terms().field());
+        assertTrue(plan.toNativeQuery().getRequestCache());
+    }
+
+    @Test
+    void facetsWithoutSelectionsReuseTheUnfilteredAggregations() {
+        ProductSearchCriteria browse = new ProductSearchCriteria(
+                null, null, null, List.of(), List.of(), null, null, true, 0, 20, null, "desc", true);
+
+        ProductSearchPlan first = planner.plan(browse);
+        ProductSearchPlan second = planner.plan(browse);
+
+        assertSame(first.aggregations(), second.aggregations());
+        assertTrue(first.aggregations().get("category").filter().isMatchAll());
+        assertNull(first.postFilter());
+    }
+
+    private static List<String> filterFields(Aggregation facet) {
+        return facet.filter().bool().filter().stream()
+                .map(f -> f.isTerm() ? f.term().field() : f.isTerms() ? f.terms().field() : f.range().number().field())
+                .toList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecom.search.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProductSearchCriteriaTest {
+
+    @Test
+    void equalSearchesShareACacheKeyAfterNormalization() {
+        ProductSearchCriteria first = new ProductSearchCriteria(" shoes ", "fashion", null, List.of("red", "blue", "red"),
+                List.of(), new BigDecimal("10.00"), null, true, 0, 20, "PRICE", "asc", false);
+        ProductSearchCriteria second = new ProductSearchCriteria("shoes", "fashion", " ", List.of("blue", "red"),
+                null, new BigDecimal("10"), null, true, 0, 20, "price", "ASC", false);
+
+        assertEquals(first.cacheKey(), second.cacheKey());
+    }
+
+    @Test
+    void separatorsInTextDoNotMakeDifferentSearchesShareACacheKey() {
+        assertNotEquals(
+                new ProductSearchCriteria("a|b", null, null, true, 0, 20, null, null).cacheKey(),
+                new ProductSearchCriteria("a", "b|", null, true, 0, 20, null, null).cacheKey());
+        assertNotEquals(
+                new ProductSearchCriteria(null, null, null, List.of("blue,red"), List.of(), null, null, true, 0, 20, null, null, false).cacheKey(),
+                new ProductSearchCriteria(null, null, null, List.of("blue", "red"), List.of(), null, null, true, 0, 20, null, null, false).cacheKey());
+    }
+}
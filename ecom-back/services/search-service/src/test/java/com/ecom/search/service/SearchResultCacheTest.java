@@ -0,0 +1,98 @@
+package com.ecom.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchResultCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaType strings = objectMapper.getTypeFactory().constructCollectionType(List.class, String.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatedQueryIsServedFromTheNearTierUntilTheGenerationMoves() {
+        SearchResultCache cache = cache(null, Duration.ZERO);
+
+        assertEquals(List.of("shoes"), cache.get(SearchResultCache.AUTOCOMPLETE, "sho", strings, this::load));
+        assertEquals(List.of("shoes"), cache.get(SearchResultCache.AUTOCOMPLETE, "sho", strings, this::load));
+        assertEquals(1, loads.get());
+
+        cache.invalidate();
+        cache.get(SearchResultCache.AUTOCOMPLETE, "sho", strings, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0 / 3, cache.hitRatio(SearchResultCache.AUTOCOMPLETE), 0.001);
+        assertEquals(0.0, cache.hitRatio(SearchResultCache.SEARCH));
+        assertEquals(2, meterRegistry.get("search.cache.load").tag("namespace", "autocomplete").timer().count());
+    }
+
+    @Test
+    void resultsReadRightAfterAWriteAreNotStoredUntilTheIndexRefreshed() {
+        SearchResultCache cache = cache(null, Duration.ofMinutes(1));
+
+        cache.get(SearchResultCache.SEARCH, "shoes", strings, this::load);
+        cache.invalidate();
+        cache.get(SearchResultCache.SEARCH, "shoes", strings, this::load);
+        cache.get(SearchResultCache.SEARCH, "shoes", strings, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisTierIsKeyedBySharedGenerationAndDegradesOnErrors() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get("search:cache:generation")).thenReturn("4");
+        when(values.get("search:cache:search:4:iphone")).thenReturn("[\"iphone 15\"]");
+        when(values.get("search:cache:search:4:shoes")).thenThrow(new IllegalStateException("redis down"));
+        SearchResultCache cache = cache(redisTemplate, Duration.ZERO);
+
+        assertEquals(List.of("iphone 15"), cache.get(SearchResultCache.SEARCH, "iphone", strings, this::load));
+        assertEquals(List.of("shoes"), cache.get(SearchResultCache.SEARCH, "shoes", strings, this::load));
+
+        assertEquals(1, loads.get());
+        verify(values).set(eq("search:cache:search:4:shoes"), eq("[\"shoes\"]"), any(Duration.class));
+        when(values.increment("search:cache:generation")).thenReturn(5L);
+        cache.invalidate();
+        cache.get(SearchResultCache.SEARCH, "iphone", strings, this::load);
+        verify(values).get("search:cache:search:5:iphone");
+        verify(values).set(eq("search:cache:search:5:iphone"), anyString(), eq(Duration.ofMinutes(1)));
+    }
+
+    private List<String> load() {
+        loads.incrementAndGet();
+        return List.of("shoes");
+    }
+
+    private SearchResultCache cache(StringRedisTemplate redisTemplate, Duration refreshGrace) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (redisTemplate != null) {
+            beans.addBean("redisTemplate", redisTemplate);
+        }
+        return new SearchResultCache(beans.getBeanProvider(StringRedisTemplate.class), objectMapper, meterRegistry,
+                true, Duration.ofMinutes(1), 1_000, redisTemplate != null, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), refreshGrace);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecom.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.RestClient;
+
+import com.ecom.search.dto.ProductSearchPageResponse;
+import com.ecom.search.model.SearchProductDocument;
+import com.ecom.search.query.ProductSearchCriteria;
+import com.ecom.search.repository.SearchProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchServiceCursorTest {
+
+    private static final IndexCoordinates PRODUCTS = IndexCoordinates.of("products");
+
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private final SearchService service = new SearchService(
+            mock(SearchProductRepository.class),
+            operations,
+            mock(SuggestionIndexService.class),
+            new SearchResultCache(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                    new ObjectMapper(), new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100,
+                    false, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ZERO),
+            new ObjectMapper().findAndRegisterModules(),
+            RestClient.builder(),
+            "http://localhost:8083",
+            new ByteArrayResource("[]".getBytes()),
+            new ByteArrayResource("{}".getBytes()),
+            85.0,
+            50,
+            Duration.ofMinutes(1),
+            20,
+            500.0);
+
+    @Test
+    void cursorWalkReadsOnePointInTimeAfterTheLastSortValuesAndClosesItOnTheShortPage() {
+        when(operations.getIndexCoordinatesFor(SearchProductDocument.class)).thenReturn(PRODUCTS);
+        when(operations.openPointInTime(PRODUCTS, Duration.ofMinutes(1))).thenReturn("pit-1");
+        when(operations.search(any(NativeQuery.class), eq(SearchProductDocument.class)))
+                .thenReturn(hits(0, 2, 3, "pit-2"), hits(2, 1, 0, "pit-2"));
+
+        ProductSearchCriteria browse = new ProductSearchCriteria(null, "fashion", null, true, 0, 2, "updatedAt", "desc");
+        ProductSearchPageResponse first = service.search(browse, "*");
+        ProductSearchPageResponse second = service.search(browse, first.nextCursor());
+
+        assertEquals(List.of("p-0", "p-1"), first.content().stream().map(r -> r.productId()).toList());
+        assertNotNull(first.nextCursor());
+        assertEquals(List.of("p-2"), second.content().stream().map(r -> r.productId()).toList());
+        assertEquals(3, second.totalElements());
+        assertEquals(1, second.page());
+        assertNull(second.nextCursor());
+
+        ArgumentCaptor<NativeQuery> queries = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(operations, times(2)).search(queries.capture(), eq(SearchProductDocument.class));
+        NativeQuery firstQuery = queries.getAllValues().get(0);
+        NativeQuery secondQuery = queries.getAllValues().get(1);
+        assertEquals("pit-1", firstQuery.getPointInTime().id());
+        assertNull(firstQuery.getSearchAfter());
+        assertTrue(firstQuery.getTrackTotalHits());
+        assertEquals("pit-2", secondQuery.getPointInTime().id());
+        assertEquals(List.of(1001, 1), secondQuery.getSearchAfter());
+        assertEquals(0, secondQuery.getPageable().getOffset());
+        verify(operations).closePointInTime("pit-2");
+    }
+
+    @Test
+    void cursorIsRejectedForAnotherSearchAndOffsetPagingStopsAtTheLimit() {
+        when(operations.getIndexCoordinatesFor(SearchProductDocument.class)).thenReturn(PRODUCTS);
+        when(operations.openPointInTime(PRODUCTS, Duration.ofMinutes(1))).thenReturn("pit-1");
+        when(operations.search(any(NativeQuery.class), eq(SearchProductDocument.class))).thenReturn(hits(0, 2, 10, null));
+        ProductSearchCriteria shoes = new ProductSearchCriteria("shoes", null, null, true, 0, 2, "score", "desc");
+        String cursor = service.search(shoes, "*").nextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(new ProductSearchCriteria("boots", null, null, true, 0, 2, "score", "desc"), cursor));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(shoes, "not-a-cursor"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search(new ProductSearchCriteria("shoes", null, null, true, 50, 2, "score", "desc"), null));
+        verify(operations, never()).closePointInTime(any());
+    }
+
+    private static SearchHitsImpl<SearchProductDocument> hits(int from, int count, long total, String pointInTimeId) {
+        List<SearchHit<SearchProductDocument>> hits = IntStream.range(from, from + count)
+                .mapToObj(i -> new SearchHit<>("products", "p-" + i, null, 1f, new Object[] {1000 + i, i},
+                        null, null, null, null, null, product("p-" + i)))
+                .toList();
+        return new SearchHitsImpl<>(total, TotalHitsRelation.EQUAL_TO, 1f, Duration.ZERO, null, pointInTimeId, hits,
+                null, null, null);
+    }
+
+    private static SearchProductDocument product(String id) {
+        SearchProductDocument doc = new SearchProductDocument();
+        doc.setProductId(id);
+        doc.setName("Product " + id);
+        return doc;
+    }
+}
@@ -5,15 +5,21 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.web.client.RestClient;
 
 import com.ecom.search.dto.RelevanceDatasetHealthResponse;
 import com.ecom.search.repository.SearchProductRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class SearchServiceDatasetHealthTest {
 
     @Test
@@ -35,12 +41,20 @@ class SearchServiceDatasetHealthTest {
         SearchService service = new SearchService(
                 mock(SearchProductRepository.class),
                 mock(ElasticsearchOperations.class),
+                mock(SuggestionIndexService.class),
+                new SearchResultCache(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                        new ObjectMapper(), new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100,
+                        false, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ZERO),
                 new ObjectMapper().findAndRegisterModules(),
                 RestClient.builder(),
                 "http://localhost:8083",
                 new ByteArrayResource(datasetJson.getBytes()),
                 new ByteArrayResource(metadataJson.getBytes()),
-                85.0);
+                85.0,
+                50,
+                Duration.ofMinutes(1),
+            20,
+            500.0);
 
         RelevanceDatasetHealthResponse health = service.evaluateRelevanceDatasetHealth();
 
@@ -67,12 +81,20 @@ class SearchServiceDatasetHealthTest {
         SearchService service = new SearchService(
                 mock(SearchProductRepository.class),
                 mock(ElasticsearchOperations.class),
+                mock(SuggestionIndexService.class),
+                new SearchResultCache(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                        new ObjectMapper(), new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100,
+                        false, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ZERO),
                 new ObjectMapper().findAndRegisterModules(),
                 RestClient.builder(),
                 "http://localhost:8083",
                 new ByteArrayResource(datasetJson.getBytes()),
                 new ByteArrayResource(metadataJson.getBytes()),
-                85.0);
+                85.0,
+                50,
+                Duration.ofMinutes(1),
+            20,
+            500.0);
 
         RelevanceDatasetHealthResponse health = service.evaluateRelevanceDatasetHealth();
 
@@ -0,0 +1,96 @@
+package com.ecom.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.RestClient;
+
+import com.ecom.search.dto.FacetBucketResponse;
+import com.ecom.search.dto.PriceBucketResponse;
+import com.ecom.search.dto.ProductSearchPageResponse;
+import com.ecom.search.model.SearchProductDocument;
+import com.ecom.search.query.ProductSearchCriteria;
+import com.ecom.search.repository.SearchProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchServiceFacetsTest {
+
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private final SearchService service = new SearchService(
+            mock(SearchProductRepository.class),
+            operations,
+            mock(SuggestionIndexService.class),
+            new SearchResultCache(new StaticListableBeanFactory().getBeanProvider(StringRedisTemplate.class),
+                    new ObjectMapper(), new SimpleMeterRegistry(), false, Duration.ofSeconds(10), 100,
+                    false, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ZERO),
+            new ObjectMapper().findAndRegisterModules(),
+            RestClient.builder(),
+            "http://localhost:8083",
+            new ByteArrayResource("[]".getBytes()),
+            new ByteArrayResource("{}".getBytes()),
+            85.0,
+            50,
+            Duration.ofMinutes(1),
+            20,
+            500.0);
+
+    @Test
+    void facetBucketsComeBackWithTheHitsOfTheSameRequest() {
+        Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+        aggregates.put("category", facet(terms(Map.of("fashion", 7L))));
+        aggregates.put("brand", facet(terms(Map.of("Nike", 4L))));
+        aggregates.put("colors", facet(terms(Map.of("red", 3L))));
+        aggregates.put("sizes", facet(terms(Map.of())));
+        aggregates.put("price", facet(Aggregate.of(a -> a.histogram(h -> h.buckets(b -> b.array(List.of(
+                HistogramBucket.of(bucket -> bucket.key(500.0).docCount(6L)))))))));
+        when(operations.search(any(NativeQuery.class), eq(SearchProductDocument.class))).thenReturn(new SearchHitsImpl<>(
+                7, TotalHitsRelation.EQUAL_TO, 1f, Duration.ZERO, null, null, List.of(),
+                new ElasticsearchAggregations(aggregates), null, null));
+
+        ProductSearchPageResponse faceted = service.search(new ProductSearchCriteria(
+                null, "fashion", null, List.of(), List.of(), null, null, true, 0, 20, null, "desc", true), null);
+        ProductSearchPageResponse plain = service.search(
+                new ProductSearchCriteria(null, "fashion", null, true, 0, 20, null, "desc"), null);
+
+        assertEquals(List.of(new FacetBucketResponse("fashion", 7)), faceted.facets().categories());
+        assertEquals(List.of(new FacetBucketResponse("Nike", 4)), faceted.facets().brands());
+        assertEquals(List.of(), faceted.facets().sizes());
+        assertEquals(List.of(new PriceBucketResponse(500.0, 1000.0, 6)), faceted.facets().prices());
+        assertNull(plain.facets());
+    }
+
+    private static Aggregate facet(Aggregate values) {
+        return Aggregate.of(a -> a.filter(f -> f.docCount(7L).aggregations(Map.of("values", values))));
+    }
+
+    private static Aggregate terms(Map<String, Long> counts) {
+        List<StringTermsBucket> buckets = counts.entrySet().stream()
+                .map(e -> StringTermsBucket.of(b -> b.key(e.getKey()).docCount(e.getValue())))
+                .toList();
+        return Aggregate.of(a -> a.sterms(t -> t.buckets(b -> b.array(buckets)).sumOtherDocCount(0L)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecom.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import com.ecom.search.model.SearchProductDocument;
+import com.ecom.search.model.SearchSuggestionDocument;
+import com.ecom.search.repository.SearchSuggestionRepository;
+
+class SuggestionIndexServiceTest {
+
+    private final SearchSuggestionRepository repository = mock(SearchSuggestionRepository.class);
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private final SuggestionIndexService service = new SuggestionIndexService(repository, operations);
+
+    @Test
+    void newProductsJoinSharedEntriesThroughOneBulkOfScriptedUpserts() {
+        service.reindex(List.of(), List.of(
+                product("p-1", "Nike Air Max 90", "Nike", true),
+                product("p-2", "Air Zoom", "Nike", true)));
+
+        Map<String, UpdateQuery> updates = updatesById();
+        assertEquals(List.of("brand:nike", "name:air zoom", "name:nike air max 90"),
+                updates.keySet().stream().sorted().toList());
+        UpdateQuery brand = updates.get("brand:nike");
+        assertEquals(SuggestionIndexService.MEMBERSHIP_SCRIPT, brand.getScript());
+        assertEquals(List.of("p-1", "p-2"), brand.getParams().get("added"));
+        assertEquals(List.of(), brand.getParams().get("removed"));
+        assertEquals(Boolean.TRUE, brand.getScriptedUpsert());
+        assertTrue(brand.getRetryOnConflict() > 0);
+        assertEquals("Nike", brand.getUpsert().get("text"));
+        assertEquals(List.of("nike air max 90", "air max 90", "max 90", "90"),
+                updates.get("name:nike air max 90").getParams().get("input"));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void renamedOrDeactivatedProductsLeaveTheirOldEntries() {
+        service.reindex(
+                List.of(product("p-1", "Old Runner", "Acme", true), product("p-2", "Trail Boot", "Acme", true)),
+                List.of(product("p-1", "New Runner", "Acme", true), product("p-2", "Trail Boot", "Acme", false)));
+
+        Map<String, UpdateQuery> updates = updatesById();
+        assertEquals(List.of("brand:acme", "name:new runner", "name:old runner", "name:trail boot"),
+                updates.keySet().stream().sorted().toList());
+        assertEquals(List.of("p-1", "p-2"), updates.get("brand:acme").getParams().get("removed"));
+        assertEquals(List.of("p-1"), updates.get("brand:acme").getParams().get("added"));
+        assertEquals(List.of("p-1"), updates.get("name:old runner").getParams().get("removed"));
+        assertEquals(List.of(), updates.get("name:trail boot").getParams().get("added"));
+    }
+
+    @Test
+    void unchangedEntriesAreNotRewritten() {
+        service.reindex(
+                List.of(product("p-1", "Desk Lamp", "Lumo", true)),
+                List.of(product("p-1", "Desk  lamp ", "Lumo", true)));
+
+        verify(operations, never()).bulkUpdate(anyList(), any(Class.class));
+    }
+
+    private Map<String, UpdateQuery> updatesById() {
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.captor();
+        verify(operations).bulkUpdate(updates.capture(), eq(SearchSuggestionDocument.class));
+        return updates.getValue().stream().collect(Collectors.toMap(UpdateQuery::getId, Function.identity()));
+    }
+
+    private static SearchProductDocument product(String id, String name, String brand, boolean active) {
+        SearchProductDocument doc = new SearchProductDocument();
+        doc.setProductId(id);
+        doc.setName(name);
+        doc.setBrand(brand);
+        doc.setActive(active);
+        return doc;
+    }
+}